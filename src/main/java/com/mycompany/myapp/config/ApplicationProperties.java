@@ -1,6 +1,12 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Concesionario.
@@ -9,4 +15,636 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Search search = new Search();
+
+    private final Catalog catalog = new Catalog();
+
+    private final Cache cache = new Cache();
+
+    private final Security security = new Security();
+
+    private final Mail mail = new Mail();
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public static class Search {
+
+        /**
+         * Directory of the full-text index of the catalog, which is kept in memory when not set.
+         */
+        private String indexDirectory;
+
+        public String getIndexDirectory() {
+            return indexDirectory;
+        }
+
+        public void setIndexDirectory(String indexDirectory) {
+            this.indexDirectory = indexDirectory;
+        }
+    }
+
+    public static class Catalog {
+
+        /**
+         * Period of the rebuild of the catalog snapshot, suggestions and search index from the database, catching up
+         * with the changes of the other nodes whose notice on the cache invalidation bus was lost, or all of them when
+         * the bus is not configured. Only rebuilt on the changes notified when not set.
+         */
+        private Duration refreshPeriod;
+
+        public Duration getRefreshPeriod() {
+            return refreshPeriod;
+        }
+
+        public void setRefreshPeriod(Duration refreshPeriod) {
+            this.refreshPeriod = refreshPeriod;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Settings of the cache regions, by cache name. The regions of the entities can be named without the domain
+         * package, as {@code Modelo} or {@code [User.authorities]}. The regions not listed here keep the
+         * {@code jhipster.cache.ehcache} settings.
+         */
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        private final Disk disk = new Disk();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public Disk getDisk() {
+            return disk;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public static class Invalidation {
+
+            /**
+             * UDP port on which the invalidations of the other nodes are received. The caches are local to the node
+             * when not set.
+             */
+            private Integer port;
+
+            /**
+             * Address on which the invalidations are received, all the addresses of the node when not set.
+             */
+            private String bindAddress;
+
+            /**
+             * The other nodes, as host:port, to which the invalidations of this node are sent.
+             */
+            private List<String> peers = new ArrayList<>();
+
+            /**
+             * Secret shared by the nodes, with which the invalidations are signed. Required when the port is set.
+             */
+            private String secret;
+
+            public Integer getPort() {
+                return port;
+            }
+
+            public void setPort(Integer port) {
+                this.port = port;
+            }
+
+            public String getBindAddress() {
+                return bindAddress;
+            }
+
+            public void setBindAddress(String bindAddress) {
+                this.bindAddress = bindAddress;
+            }
+
+            public List<String> getPeers() {
+                return peers;
+            }
+
+            public void setPeers(List<String> peers) {
+                this.peers = peers;
+            }
+
+            public String getSecret() {
+                return secret;
+            }
+
+            public void setSecret(String secret) {
+                this.secret = secret;
+            }
+        }
+
+        public static class Disk {
+
+            /**
+             * Directory of the disk tier of the regions having a disk-size, kept across restarts. The regions have no
+             * disk tier when not set.
+             */
+            private String directory;
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+        }
+
+        public static class WarmUp {
+
+            /**
+             * Whether to preload the cache regions at startup, the application not being ready before they are.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Number of entities read by every query.
+             */
+            private int batchSize = 500;
+
+            /**
+             * Logins of the users to preload in the usersByLogin cache, as the most active accounts.
+             */
+            private List<String> logins = new ArrayList<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public List<String> getLogins() {
+                return logins;
+            }
+
+            public void setLogins(List<String> logins) {
+                this.logins = logins;
+            }
+        }
+
+        public static class Region {
+
+            /**
+             * Maximum number of entries on the heap. Exclusive with heap-size.
+             */
+            private Long heapEntries;
+
+            /**
+             * Maximum size of the entries on the heap, measured by walking their object graph. Exclusive with
+             * heap-entries. From Java 16 on, measuring needs {@code java.base/java.lang} and {@code java.base/java.util}
+             * opened to Ehcache, sizes being underestimated otherwise.
+             */
+            private DataSize heapSize;
+
+            /**
+             * Size of the off-heap tier, which must be larger than the heap tier. Entries on this tier are
+             * serialized and do not weigh on the garbage collector, but count against {@code -XX:MaxDirectMemorySize}.
+             */
+            private DataSize offHeapSize;
+
+            /**
+             * Size of the disk tier, which must be larger than the other tiers. Entries on this tier are serialized to
+             * the cache.disk.directory, and survive restarts.
+             */
+            private DataSize diskSize;
+
+            /**
+             * Time an entry stays in the cache after being written. Exclusive with time-to-idle.
+             */
+            private Duration timeToLive;
+
+            /**
+             * Time an entry stays in the cache after being last read or written. Exclusive with time-to-live.
+             */
+            private Duration timeToIdle;
+
+            /**
+             * Name of an {@link org.ehcache.config.EvictionAdvisor} bean, telling which entries to keep when the heap
+             * is full.
+             */
+            private String evictionAdvisor;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(DataSize heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public DataSize getDiskSize() {
+                return diskSize;
+            }
+
+            public void setDiskSize(DataSize diskSize) {
+                this.diskSize = diskSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+
+            public String getEvictionAdvisor() {
+                return evictionAdvisor;
+            }
+
+            public void setEvictionAdvisor(String evictionAdvisor) {
+                this.evictionAdvisor = evictionAdvisor;
+            }
+        }
+    }
+
+    public static class Security {
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        private final LoginRateLimit loginRateLimit = new LoginRateLimit();
+
+        private final TokenRevocation tokenRevocation = new TokenRevocation();
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public LoginRateLimit getLoginRateLimit() {
+            return loginRateLimit;
+        }
+
+        public TokenRevocation getTokenRevocation() {
+            return tokenRevocation;
+        }
+
+        public static class PasswordHashing {
+
+            /**
+             * BCrypt cost factor of the new password hashes. The hashes of a lower cost are upgraded when their users
+             * log in.
+             */
+            private int strength = 10;
+
+            /**
+             * Number of passwords hashed or verified at the same time.
+             */
+            private int threads = Runtime.getRuntime().availableProcessors();
+
+            /**
+             * Number of passwords waiting to be hashed or verified, beyond which the requests are rejected.
+             */
+            private int queueCapacity = 16;
+
+            /**
+             * Delay after which the rejected requests can be retried.
+             */
+            private Duration retryAfter = Duration.ofSeconds(1);
+
+            /**
+             * Number of passwords hashed at the same time by the bulk imports of users, on a pool of their own so
+             * that the logins are not rejected meanwhile.
+             */
+            private int importThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+            public int getStrength() {
+                return strength;
+            }
+
+            public void setStrength(int strength) {
+                this.strength = strength;
+            }
+
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public Duration getRetryAfter() {
+                return retryAfter;
+            }
+
+            public void setRetryAfter(Duration retryAfter) {
+                this.retryAfter = retryAfter;
+            }
+
+            public int getImportThreads() {
+                return importThreads;
+            }
+
+            public void setImportThreads(int importThreads) {
+                this.importThreads = importThreads;
+            }
+        }
+
+        public static class LoginRateLimit {
+
+            /**
+             * Whether to limit the login attempts, before their passwords are verified.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Number of buckets tracked in memory, shared by all the logins and client addresses: the keys falling
+             * in the same buckets are limited together.
+             */
+            private int buckets = 65536;
+
+            /**
+             * Attempts allowed for a login.
+             */
+            private final Bucket login = new Bucket(5, Duration.ofMinutes(1));
+
+            /**
+             * Attempts allowed from a client address.
+             */
+            private final Bucket client = new Bucket(50, Duration.ofMinutes(1));
+
+            /**
+             * Addresses of the reverse proxies in front of the application, whose {@code X-Forwarded-For} header is
+             * trusted to tell the address of the client. The header is ignored when it is not sent by one of them.
+             */
+            private List<String> trustedProxies = new ArrayList<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBuckets() {
+                return buckets;
+            }
+
+            public void setBuckets(int buckets) {
+                this.buckets = buckets;
+            }
+
+            public Bucket getLogin() {
+                return login;
+            }
+
+            public Bucket getClient() {
+                return client;
+            }
+
+            public List<String> getTrustedProxies() {
+                return trustedProxies;
+            }
+
+            public void setTrustedProxies(List<String> trustedProxies) {
+                this.trustedProxies = trustedProxies;
+            }
+
+            public static class Bucket {
+
+                /**
+                 * Number of attempts allowed in a burst.
+                 */
+                private int capacity;
+
+                /**
+                 * Time taken to allow a whole burst again.
+                 */
+                private Duration refillPeriod;
+
+                public Bucket(int capacity, Duration refillPeriod) {
+                    this.capacity = capacity;
+                    this.refillPeriod = refillPeriod;
+                }
+
+                public int getCapacity() {
+                    return capacity;
+                }
+
+                public void setCapacity(int capacity) {
+                    this.capacity = capacity;
+                }
+
+                public Duration getRefillPeriod() {
+                    return refillPeriod;
+                }
+
+                public void setRefillPeriod(Duration refillPeriod) {
+                    this.refillPeriod = refillPeriod;
+                }
+            }
+        }
+
+        public static class TokenRevocation {
+
+            /**
+             * Delay between two reloads of the revoked tokens from the database, dropping the expired ones: the
+             * tokens revoked on another node are rejected on this one after at most this delay.
+             */
+            private Duration refreshPeriod = Duration.ofSeconds(30);
+
+            public Duration getRefreshPeriod() {
+                return refreshPeriod;
+            }
+
+            public void setRefreshPeriod(Duration refreshPeriod) {
+                this.refreshPeriod = refreshPeriod;
+            }
+        }
+    }
+
+    public static class Mail {
+
+        private final Outbox outbox = new Outbox();
+
+        public Outbox getOutbox() {
+            return outbox;
+        }
+
+        public static class Outbox {
+
+            /**
+             * Whether this node sends the mails of the outbox. The mails are still written to the outbox when disabled.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Delay between two drains of the outbox.
+             */
+            private Duration pollPeriod = Duration.ofSeconds(5);
+
+            /**
+             * Number of mails sent over a single SMTP connection.
+             */
+            private int batchSize = 50;
+
+            /**
+             * Number of attempts to send a mail before giving it up.
+             */
+            private int maxAttempts = 8;
+
+            /**
+             * Delay before the second attempt to send a mail, doubled on each following attempt.
+             */
+            private Duration initialBackoff = Duration.ofMinutes(1);
+
+            /**
+             * Longest delay between two attempts to send a mail.
+             */
+            private Duration maxBackoff = Duration.ofHours(1);
+
+            /**
+             * Time a node keeps the mails it is sending to itself: the mails of a node stopped while sending them are
+             * sent again after this delay.
+             */
+            private Duration claimTimeout = Duration.ofMinutes(5);
+
+            /**
+             * Time the given up mails are kept after being queued, so that they can be looked into, before being deleted.
+             */
+            private Duration givenUpRetention = Duration.ofDays(7);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getPollPeriod() {
+                return pollPeriod;
+            }
+
+            public void setPollPeriod(Duration pollPeriod) {
+                this.pollPeriod = pollPeriod;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getMaxAttempts() {
+                return maxAttempts;
+            }
+
+            public void setMaxAttempts(int maxAttempts) {
+                this.maxAttempts = maxAttempts;
+            }
+
+            public Duration getInitialBackoff() {
+                return initialBackoff;
+            }
+
+            public void setInitialBackoff(Duration initialBackoff) {
+                this.initialBackoff = initialBackoff;
+            }
+
+            public Duration getMaxBackoff() {
+                return maxBackoff;
+            }
+
+            public void setMaxBackoff(Duration maxBackoff) {
+                this.maxBackoff = maxBackoff;
+            }
+
+            public Duration getClaimTimeout() {
+                return claimTimeout;
+            }
+
+            public void setClaimTimeout(Duration claimTimeout) {
+                this.claimTimeout = claimTimeout;
+            }
+
+            public Duration getGivenUpRetention() {
+                return givenUpRetention;
+            }
+
+            public void setGivenUpRetention(Duration givenUpRetention) {
+                this.givenUpRetention = givenUpRetention;
+            }
+        }
+    }
+}
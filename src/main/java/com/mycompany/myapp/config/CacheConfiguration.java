@@ -1,30 +1,75 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.management.EhcacheMetrics;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Map;
+import javax.cache.Caching;
+import org.ehcache.config.EvictionAdvisor;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.impl.config.persistence.CacheManagerPersistenceConfiguration;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.internal.SimpleCacheKeysFactory;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.jcache.JCacheCache;
 import org.springframework.context.annotation.*;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
+/**
+ * Configuration of the Ehcache regions, used by Spring caching and as the Hibernate second-level cache.
+ * <p>
+ * Every region gets the {@code jhipster.cache.ehcache} settings, unless it is listed in
+ * {@code application.cache.regions} with its own sizing, tiers and expiry. Regions with a disk tier keep their entries
+ * across restarts, in the {@code application.cache.disk.directory}. The statistics of every region are enabled,
+ * and reported as metrics tagged with the name of the region.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
 
+    private static final String DOMAIN_PACKAGE = "com.mycompany.myapp.domain.";
+
+    private static final String LIQUIBASE_CHANGELOG = "classpath:config/liquibase/**/*.*";
+
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Cache.Region> regions;
+    private final String diskDirectory;
+    private final BeanFactory beanFactory;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties, BeanFactory beanFactory) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.regions = applicationProperties.getCache().getRegions();
+        this.diskDirectory = applicationProperties.getCache().getDisk().getDirectory();
+        this.beanFactory = beanFactory;
 
         jcacheConfiguration =
             Eh107Configuration.fromEhcacheCacheConfiguration(
@@ -35,9 +80,73 @@ public class CacheConfiguration {
             );
     }
 
+    /**
+     * The directory of the disk tier, which keeps its data across restarts as long as the Liquibase changelog, the git
+     * commit and the build are the same.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.cache.disk", name = "directory")
+    public PersistentCacheDirectory persistentCacheDirectory() throws IOException {
+        String commit = null;
+        if (gitProperties != null) {
+            commit = gitProperties.getCommitId();
+        }
+        String build = null;
+        if (buildProperties != null) {
+            build = buildProperties.getVersion() + "@" + buildProperties.getTime();
+        }
+        Resource[] changelog = new PathMatchingResourcePatternResolver(getClass().getClassLoader()).getResources(LIQUIBASE_CHANGELOG);
+        PersistentCacheDirectory directory = new PersistentCacheDirectory(
+            Path.of(diskDirectory),
+            PersistentCacheDirectory.fingerprint(changelog, commit, build)
+        );
+        directory.open();
+        return directory;
+    }
+
+    /**
+     * The cache manager, replacing the one of Spring Boot when there is a disk tier: the persistence of the disk tier
+     * is a service of the Ehcache manager. Closed before the directory, which then marks the data as reusable.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.cache.disk", name = "directory")
+    public javax.cache.CacheManager jCacheCacheManager(
+        PersistentCacheDirectory directory,
+        ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers
+    ) {
+        EhcacheCachingProvider cachingProvider = (EhcacheCachingProvider) Caching.getCachingProvider(
+            EhcacheCachingProvider.class.getName()
+        );
+        org.ehcache.config.Configuration configuration = ConfigurationBuilder
+            .newConfigurationBuilder()
+            .withService(new CacheManagerPersistenceConfiguration(directory.getDirectory().toFile()))
+            .build();
+        javax.cache.CacheManager cacheManager = cachingProvider.getCacheManager(directory.getDirectory().toUri(), configuration);
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
+    }
+
+    /**
+     * Hibernate uses the cache manager of Spring, with the ids of the entities as keys: each entity has its own region,
+     * so that the ids are enough to tell the entries apart, and they can be sent to the other nodes on invalidation.
+     * Hibernate ignores {@code hibernate.cache.keys_factory}, so the keys factory is given to the region factory.
+     */
     @Bean
     public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
-        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        return hibernateProperties -> {
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, new JCacheRegionFactory(SimpleCacheKeysFactory.INSTANCE));
+        };
+    }
+
+    /**
+     * Report the metrics of every region, including the ones of the Hibernate second-level cache, which are Ehcache
+     * regions too: their hits, misses and puts are measured by the cache itself, without the Hibernate statistics.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public CacheMeterBinderProvider<JCacheCache> ehcacheMeterBinderProvider() {
+        return (cache, tags) -> new EhcacheMetrics(cache.getNativeCache(), tags);
     }
 
     @Bean
@@ -45,6 +154,8 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.UserRepository.USERS_NOT_FOUND_CACHE);
+            createCache(cm, com.mycompany.myapp.repository.UserRepository.ACCOUNTS_CACHE);
             createCache(cm, com.mycompany.myapp.domain.User.class.getName());
             createCache(cm, com.mycompany.myapp.domain.Authority.class.getName());
             createCache(cm, com.mycompany.myapp.domain.User.class.getName() + ".authorities");
@@ -59,8 +170,75 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * @return the configuration of the region of the given name, the default one when it has no settings of its own.
+     */
+    javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = regions.get(cacheName);
+        if (region == null && cacheName.startsWith(DOMAIN_PACKAGE)) {
+            region = regions.get(cacheName.substring(DOMAIN_PACKAGE.length()));
+        }
+        if (region == null) {
+            return jcacheConfiguration;
+        }
+        if (region.getHeapEntries() != null && region.getHeapSize() != null) {
+            throw new IllegalArgumentException("The cache " + cacheName + " cannot be sized both in entries and in bytes on the heap");
+        }
+        if (region.getTimeToLive() != null && region.getTimeToIdle() != null) {
+            throw new IllegalArgumentException("The cache " + cacheName + " cannot have both a time to live and a time to idle");
+        }
+
+        ResourcePoolsBuilder resourcePools;
+        if (region.getHeapSize() != null) {
+            resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder().heap(region.getHeapSize().toKilobytes(), MemoryUnit.KB);
+        } else {
+            resourcePools = ResourcePoolsBuilder.heap(region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries());
+        }
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toKilobytes(), MemoryUnit.KB);
+        }
+        if (region.getDiskSize() != null) {
+            if (diskDirectory == null) {
+                throw new IllegalArgumentException(
+                    "The cache " + cacheName + " has a disk tier, but application.cache.disk.directory is not set"
+                );
+            }
+            resourcePools = resourcePools.disk(region.getDiskSize().toKilobytes(), MemoryUnit.KB, true);
+        }
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(
+            Object.class,
+            Object.class,
+            resourcePools
+        );
+        if (region.getOffHeapSize() != null || region.getDiskSize() != null) {
+            // The off-heap and disk tiers store serialized entries, and the keys and values are only known as objects
+            ClassLoader classLoader = getClass().getClassLoader();
+            builder =
+                builder
+                    .withKeySerializer(new PlainJavaSerializer<>(classLoader))
+                    .withValueSerializer(new PlainJavaSerializer<>(classLoader));
+        }
+        if (region.getTimeToIdle() != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle()));
+        } else {
+            Duration timeToLive = region.getTimeToLive();
+            if (timeToLive == null) {
+                timeToLive = Duration.ofSeconds(ehcache.getTimeToLiveSeconds());
+            }
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive));
+        }
+        if (region.getEvictionAdvisor() != null) {
+            @SuppressWarnings("unchecked")
+            EvictionAdvisor<Object, Object> evictionAdvisor = beanFactory.getBean(region.getEvictionAdvisor(), EvictionAdvisor.class);
+            builder = builder.withEvictionAdvisor(evictionAdvisor);
         }
+        log.debug("Configured the cache {} with {}", cacheName, resourcePools.build());
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
     }
 
     @Autowired(required = false)
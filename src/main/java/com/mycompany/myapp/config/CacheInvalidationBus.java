@@ -0,0 +1,362 @@
+package com.mycompany.myapp.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A lightweight bus telling the other nodes of the cluster which cache entries to drop, so that the caches of every
+ * node can stay local.
+ * <p>
+ * Every removal of an entry, and every clear of a cache, is sent in a UDP datagram to each peer, which applies it to
+ * its own caches. The datagrams are signed with the secret shared by the nodes, and the unsigned ones are dropped.
+ * They also carry the time they were sent and a sequence number of their node, so that a captured datagram cannot be
+ * replayed: the ones older than {@link #MAX_AGE_MILLIS}, or already received, are dropped too.
+ * UDP does not guarantee delivery: a lost invalidation leaves an entry stale until it expires, so the time to live of
+ * the regions still bounds staleness, only much less often.
+ * <p>
+ * The clears also serve to notify the other nodes of changes to views other than the caches, on channels no cache is
+ * named after, see {@link #onClear(String, Runnable)}.
+ */
+public class CacheInvalidationBus implements Closeable {
+
+    /**
+     * Applies the invalidations received from the other nodes.
+     */
+    public interface Receiver {
+        void remove(String cacheName, Object key);
+
+        void clear(String cacheName);
+    }
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final int MAX_DATAGRAM_LENGTH = 8192;
+
+    /**
+     * The time a datagram is accepted for after being sent, which must exceed the differences between the clocks of
+     * the nodes.
+     */
+    static final long MAX_AGE_MILLIS = 30_000;
+
+    /**
+     * The number of sequence numbers, below the highest one received from a node, still accepted once.
+     */
+    private static final int SEQUENCE_WINDOW = 64;
+
+    private static final byte REMOVE = 1;
+
+    private static final byte CLEAR = 2;
+
+    /**
+     * The keys of the caches are the ids of the entities, which Hibernate uses as its cache keys, and the keys of Spring
+     * caching.
+     */
+    private static final ObjectInputFilter KEY_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=8;maxrefs=64;maxbytes=" +
+        MAX_DATAGRAM_LENGTH +
+        ";java.lang.*;java.time.*;java.util.UUID;org.springframework.cache.interceptor.SimpleKey;!*"
+    );
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final InetSocketAddress address;
+
+    private final List<String> peers;
+
+    private final SecretKeySpec secret;
+
+    private final UUID nodeId = UUID.randomUUID();
+
+    private final Map<String, List<Runnable>> clearListeners = new ConcurrentHashMap<>();
+
+    private final LongSupplier currentTimeMillis;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The sequence numbers received from each node, only used by the receiving thread.
+     */
+    private final Map<UUID, ReceivedSequences> receivedSequences = new HashMap<>();
+
+    private volatile DatagramSocket socket;
+
+    /**
+     * @param address the address on which to receive the invalidations.
+     * @param peers the other nodes, as host:port.
+     * @param secret the secret shared by the nodes.
+     */
+    public CacheInvalidationBus(InetSocketAddress address, List<String> peers, String secret) {
+        this(address, peers, secret, System::currentTimeMillis);
+    }
+
+    CacheInvalidationBus(InetSocketAddress address, List<String> peers, String secret, LongSupplier currentTimeMillis) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("The cache invalidations cannot be received without a secret to check their signature");
+        }
+        this.address = address;
+        this.peers = List.copyOf(peers);
+        this.secret = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Start receiving the invalidations of the other nodes.
+     *
+     * @param receiver the receiver of the invalidations.
+     * @throws IOException if the socket cannot be opened.
+     */
+    public synchronized void start(Receiver receiver) throws IOException {
+        if (socket != null) {
+            throw new IllegalStateException("The cache invalidation bus is already started");
+        }
+        socket = new DatagramSocket(address);
+        DatagramSocket receiving = socket;
+        Thread thread = new Thread(() -> receive(receiving, receiver), "cache-invalidation");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Receiving the cache invalidations on {}, and sending them to {}", socket.getLocalSocketAddress(), peers);
+    }
+
+    /**
+     * Run a listener whenever another node clears a cache, or notifies a channel through {@link #publishClear(String)}.
+     * The listener runs on the receiving thread, so it must hand any long work over.
+     *
+     * @param cacheName the name of the cache, or of the channel.
+     * @param listener the listener.
+     */
+    public void onClear(String cacheName, Runnable listener) {
+        clearListeners.computeIfAbsent(cacheName, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Tell the other nodes to remove an entry, or to clear its cache if its key would be rejected by them.
+     *
+     * @param cacheName the name of the cache.
+     * @param key the key of the entry.
+     */
+    public void publishRemoval(String cacheName, Object key) {
+        byte[] serializedKey;
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (ObjectOutputStream keyOutput = new ObjectOutputStream(output)) {
+                keyOutput.writeObject(key);
+            }
+            serializedKey = output.toByteArray();
+            readKey(new ByteArrayInputStream(serializedKey));
+        } catch (IOException e) {
+            log.warn("Could not send the key {} of the cache {}, clearing it on the other nodes: {}", key, cacheName, e.getMessage());
+            publishClear(cacheName);
+            return;
+        }
+        publish(REMOVE, cacheName, serializedKey);
+    }
+
+    /**
+     * Tell the other nodes to clear a cache.
+     *
+     * @param cacheName the name of the cache.
+     */
+    public void publishClear(String cacheName) {
+        publish(CLEAR, cacheName, new byte[0]);
+    }
+
+    @Override
+    public void close() {
+        DatagramSocket current = socket;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void publish(byte operation, String cacheName, byte[] key) {
+        DatagramSocket current = socket;
+        if (current == null || peers.isEmpty()) {
+            return;
+        }
+        byte[] datagram;
+        try {
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(message);
+            output.writeLong(nodeId.getMostSignificantBits());
+            output.writeLong(nodeId.getLeastSignificantBits());
+            output.writeLong(currentTimeMillis.getAsLong());
+            output.writeLong(sequence.incrementAndGet());
+            output.writeByte(operation);
+            output.writeUTF(cacheName);
+            output.write(key);
+            datagram = sign(message.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        if (datagram.length > MAX_DATAGRAM_LENGTH) {
+            log.warn("The key of the cache {} is too large to be sent, clearing it on the other nodes", cacheName);
+            publishClear(cacheName);
+            return;
+        }
+        for (String peer : peers) {
+            try {
+                int separator = peer.lastIndexOf(':');
+                // Resolved on every send, so that a peer can change of address
+                InetAddress host = InetAddress.getByName(peer.substring(0, separator));
+                int port = Integer.parseInt(peer.substring(separator + 1));
+                current.send(new DatagramPacket(datagram, datagram.length, host, port));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not send a cache invalidation to {}: {}", peer, e.getMessage());
+            }
+        }
+    }
+
+    private void receive(DatagramSocket receiving, Receiver receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM_LENGTH];
+        while (!receiving.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                receiving.receive(packet);
+                apply(Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength()), receiver);
+            } catch (IOException e) {
+                if (!receiving.isClosed()) {
+                    log.warn("Could not receive a cache invalidation: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not apply a cache invalidation", e);
+            }
+        }
+    }
+
+    private void apply(byte[] datagram, Receiver receiver) throws IOException {
+        if (datagram.length < SIGNATURE_LENGTH) {
+            return;
+        }
+        byte[] message = Arrays.copyOfRange(datagram, SIGNATURE_LENGTH, datagram.length);
+        if (!MessageDigest.isEqual(Arrays.copyOf(datagram, SIGNATURE_LENGTH), mac(message))) {
+            log.warn("Dropped a cache invalidation with an invalid signature");
+            return;
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(message));
+        UUID sender = new UUID(input.readLong(), input.readLong());
+        if (nodeId.equals(sender)) {
+            return;
+        }
+        long sentAt = input.readLong();
+        long senderSequence = input.readLong();
+        long now = currentTimeMillis.getAsLong();
+        if (Math.abs(now - sentAt) > MAX_AGE_MILLIS) {
+            log.warn("Dropped a cache invalidation sent at {}, too old or ahead of this node", sentAt);
+            return;
+        }
+        receivedSequences.values().removeIf(sequences -> now - sequences.lastReceived > MAX_AGE_MILLIS);
+        if (!receivedSequences.computeIfAbsent(sender, node -> new ReceivedSequences()).accept(senderSequence, now)) {
+            log.warn("Dropped a cache invalidation already received");
+            return;
+        }
+        byte operation = input.readByte();
+        String cacheName = input.readUTF();
+        if (operation == CLEAR) {
+            log.debug("Clearing the cache {} for another node", cacheName);
+            receiver.clear(cacheName);
+            clearListeners.getOrDefault(cacheName, List.of()).forEach(Runnable::run);
+        } else if (operation == REMOVE) {
+            Object key = readKey(input);
+            log.debug("Removing the key {} of the cache {} for another node", key, cacheName);
+            receiver.remove(cacheName, key);
+        }
+    }
+
+    /**
+     * Read a key through the filter of the receiving nodes.
+     *
+     * @throws InvalidClassException if the key is rejected by the filter.
+     */
+    private static Object readKey(InputStream input) throws IOException {
+        try (ObjectInputStream keyInput = new ObjectInputStream(input)) {
+            keyInput.setObjectInputFilter(KEY_FILTER);
+            return keyInput.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private byte[] sign(byte[] message) {
+        byte[] signature = mac(message);
+        byte[] datagram = Arrays.copyOf(signature, SIGNATURE_LENGTH + message.length);
+        System.arraycopy(message, 0, datagram, SIGNATURE_LENGTH, message.length);
+        return datagram;
+    }
+
+    private byte[] mac(byte[] message) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            return mac.doFinal(message);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The sequence numbers received from a node: the highest one, and which of the {@link #SEQUENCE_WINDOW} ones
+     * below it were received, as they can arrive out of order.
+     */
+    private static final class ReceivedSequences {
+
+        private long highest;
+
+        private long window;
+
+        private long lastReceived;
+
+        /**
+         * Record a sequence number.
+         *
+         * @return whether it was not received yet.
+         */
+        private boolean accept(long sequence, long now) {
+            if (sequence > highest) {
+                long shift = sequence - highest;
+                window = shift >= SEQUENCE_WINDOW ? 0 : window << shift;
+                // The bit 0 stands for the highest sequence number
+                window |= 1;
+                highest = sequence;
+            } else {
+                long offset = highest - sequence;
+                if (offset >= SEQUENCE_WINDOW || (window & (1L << offset)) != 0) {
+                    return false;
+                }
+                window |= 1L << offset;
+            }
+            lastReceived = now;
+            return true;
+        }
+    }
+}
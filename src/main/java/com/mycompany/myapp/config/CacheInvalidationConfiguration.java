@@ -0,0 +1,67 @@
+package com.mycompany.myapp.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import javax.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the invalidation of the caches across the nodes of a cluster, enabled by setting
+ * {@code application.cache.invalidation.port}.
+ * <p>
+ * The caches stay local to every node, and the entries changed on a node are removed from the caches of the others.
+ * On a single host, each node needs its own port, with the others as peers:
+ * {@code --application.cache.invalidation.port=47101 --application.cache.invalidation.peers=127.0.0.1:47102}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.cache.invalidation", name = "port")
+public class CacheInvalidationConfiguration {
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Cache.Invalidation invalidation = applicationProperties.getCache().getInvalidation();
+        InetSocketAddress address;
+        if (invalidation.getBindAddress() != null) {
+            address = new InetSocketAddress(invalidation.getBindAddress(), invalidation.getPort());
+        } else {
+            address = new InetSocketAddress(invalidation.getPort());
+        }
+        return new CacheInvalidationBus(address, invalidation.getPeers(), invalidation.getSecret());
+    }
+
+    /**
+     * Wrap the cache manager, used by both Hibernate and Spring caching, so that it publishes its removals.
+     */
+    @Bean
+    public static BeanPostProcessor invalidatingCacheManagerPostProcessor(ObjectProvider<CacheInvalidationBus> cacheInvalidationBus) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof javax.cache.CacheManager) || bean instanceof InvalidatingCacheManager) {
+                    return bean;
+                }
+                CacheInvalidationBus bus = cacheInvalidationBus.getObject();
+                InvalidatingCacheManager cacheManager = new InvalidatingCacheManager((javax.cache.CacheManager) bean, bus);
+                try {
+                    bus.start(cacheManager);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return cacheManager;
+            }
+        };
+    }
+
+    @Bean
+    public CommittedEntityCacheInvalidator committedEntityCacheInvalidator(
+        EntityManagerFactory entityManagerFactory,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
+        return new CommittedEntityCacheInvalidator(entityManagerFactory, cacheInvalidationBus);
+    }
+}
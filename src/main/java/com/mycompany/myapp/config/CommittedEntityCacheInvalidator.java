@@ -0,0 +1,116 @@
+package com.mycompany.myapp.config;
+
+import java.io.Serializable;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.access.CollectionDataAccess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.support.RegionNameQualifier;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.CollectionType;
+import org.hibernate.type.Type;
+
+/**
+ * Publishes on the {@link CacheInvalidationBus} the cached entities updated or deleted by a committed transaction,
+ * along with their cached collections.
+ * <p>
+ * Hibernate removes from the cache the entities with a nonstrict read-write strategy, which the
+ * {@link InvalidatingCacheManager} publishes, but overwrites the ones with a read-write strategy: those are only known
+ * to be stale for the other nodes once the transaction is committed.
+ */
+public class CommittedEntityCacheInvalidator {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final CacheInvalidationBus bus;
+
+    public CommittedEntityCacheInvalidator(EntityManagerFactory entityManagerFactory, CacheInvalidationBus bus) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.bus = bus;
+    }
+
+    @PostConstruct
+    public void registerEntityListeners() {
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        CommittedChangesListener listener = new CommittedChangesListener(this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    private void onCommitted(EntityPersister persister, Serializable id, String tenantIdentifier) {
+        EntityDataAccess entityAccess = persister.getCacheAccessStrategy();
+        Object entityKey = entityAccess.generateCacheKey(id, persister, sessionFactory, tenantIdentifier);
+        bus.publishRemoval(cacheName(entityAccess.getRegion().getName()), entityKey);
+        for (Type type : persister.getPropertyTypes()) {
+            if (type instanceof CollectionType) {
+                String role = ((CollectionType) type).getRole();
+                CollectionPersister collectionPersister = sessionFactory.getMetamodel().collectionPersister(role);
+                if (collectionPersister.hasCache()) {
+                    CollectionDataAccess collectionAccess = collectionPersister.getCacheAccessStrategy();
+                    Object collectionKey = collectionAccess.generateCacheKey(id, collectionPersister, sessionFactory, tenantIdentifier);
+                    bus.publishRemoval(cacheName(collectionAccess.getRegion().getName()), collectionKey);
+                }
+            }
+        }
+    }
+
+    private String cacheName(String regionName) {
+        return RegionNameQualifier.INSTANCE.qualify(regionName, sessionFactory.getSessionFactoryOptions());
+    }
+
+    /**
+     * Reports the committed changes of the cached entities to the invalidator.
+     */
+    private static final class CommittedChangesListener implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CommittedEntityCacheInvalidator invalidator;
+
+        private CommittedChangesListener(CommittedEntityCacheInvalidator invalidator) {
+            this.invalidator = invalidator;
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            invalidator.onCommitted(event.getPersister(), event.getId(), event.getSession().getTenantIdentifier());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            invalidator.onCommitted(event.getPersister(), event.getId(), event.getSession().getTenantIdentifier());
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // Nothing was written, the other nodes are not stale
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // Nothing was written, the other nodes are not stale
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return persister.canWriteToCache();
+        }
+
+        /**
+         * Still abstract in Hibernate 5.4, deprecated for its misspelling.
+         */
+        @Override
+        @Deprecated
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return requiresPostCommitHandling(persister);
+        }
+    }
+}
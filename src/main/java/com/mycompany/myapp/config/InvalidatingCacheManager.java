@@ -0,0 +1,327 @@
+package com.mycompany.myapp.config;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.configuration.CacheEntryListenerConfiguration;
+import javax.cache.configuration.Configuration;
+import javax.cache.integration.CompletionListener;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.spi.CachingProvider;
+
+/**
+ * A {@link CacheManager} publishing on a {@link CacheInvalidationBus} the entries removed from its caches, and
+ * applying the ones removed by the other nodes.
+ * <p>
+ * Both Hibernate and Spring caching remove the entries which change, and clear the caches of bulk changes: the
+ * removals and clears made through the caches of this manager are published, while the ones received from the other
+ * nodes are applied to the underlying caches, and not published again. The entries changed in place by Hibernate
+ * are published on commit by the {@link CommittedEntityCacheInvalidator}.
+ */
+public class InvalidatingCacheManager implements CacheManager, CacheInvalidationBus.Receiver {
+
+    private final CacheManager cacheManager;
+
+    private final CacheInvalidationBus bus;
+
+    private final Map<String, InvalidatingCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public InvalidatingCacheManager(CacheManager cacheManager, CacheInvalidationBus bus) {
+        this.cacheManager = cacheManager;
+        this.bus = bus;
+    }
+
+    /**
+     * @return the bus on which the removals are published.
+     */
+    public CacheInvalidationBus getBus() {
+        return bus;
+    }
+
+    @Override
+    public void remove(String cacheName, Object key) {
+        Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.remove(key);
+        }
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public CachingProvider getCachingProvider() {
+        return cacheManager.getCachingProvider();
+    }
+
+    @Override
+    public URI getURI() {
+        return cacheManager.getURI();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return cacheManager.getClassLoader();
+    }
+
+    @Override
+    public Properties getProperties() {
+        return cacheManager.getProperties();
+    }
+
+    @Override
+    public <K, V, C extends Configuration<K, V>> Cache<K, V> createCache(String cacheName, C configuration) {
+        return wrap(cacheManager.createCache(cacheName, configuration));
+    }
+
+    @Override
+    public <K, V> Cache<K, V> getCache(String cacheName, Class<K> keyType, Class<V> valueType) {
+        return wrap(cacheManager.getCache(cacheName, keyType, valueType));
+    }
+
+    @Override
+    public <K, V> Cache<K, V> getCache(String cacheName) {
+        return wrap(cacheManager.getCache(cacheName));
+    }
+
+    @Override
+    public Iterable<String> getCacheNames() {
+        return cacheManager.getCacheNames();
+    }
+
+    @Override
+    public void destroyCache(String cacheName) {
+        caches.remove(cacheName);
+        cacheManager.destroyCache(cacheName);
+    }
+
+    @Override
+    public void enableManagement(String cacheName, boolean enabled) {
+        cacheManager.enableManagement(cacheName, enabled);
+    }
+
+    @Override
+    public void enableStatistics(String cacheName, boolean enabled) {
+        cacheManager.enableStatistics(cacheName, enabled);
+    }
+
+    @Override
+    public void close() {
+        cacheManager.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return cacheManager.isClosed();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+        if (clazz.isInstance(this)) {
+            return clazz.cast(this);
+        }
+        return cacheManager.unwrap(clazz);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> Cache<K, V> wrap(Cache<K, V> cache) {
+        if (cache == null) {
+            return null;
+        }
+        InvalidatingCache<?, ?> wrapper = caches.get(cache.getName());
+        if (wrapper == null || wrapper.cache != cache) {
+            wrapper = new InvalidatingCache<>(cache, this);
+            caches.put(cache.getName(), wrapper);
+        }
+        return (Cache<K, V>) wrapper;
+    }
+
+    /**
+     * A cache publishing its removals and clears.
+     */
+    private static final class InvalidatingCache<K, V> implements Cache<K, V> {
+
+        private final Cache<K, V> cache;
+
+        private final InvalidatingCacheManager cacheManager;
+
+        private InvalidatingCache(Cache<K, V> cache, InvalidatingCacheManager cacheManager) {
+            this.cache = cache;
+            this.cacheManager = cacheManager;
+        }
+
+        @Override
+        public V get(K key) {
+            return cache.get(key);
+        }
+
+        @Override
+        public Map<K, V> getAll(Set<? extends K> keys) {
+            return cache.getAll(keys);
+        }
+
+        @Override
+        public boolean containsKey(K key) {
+            return cache.containsKey(key);
+        }
+
+        @Override
+        public void loadAll(Set<? extends K> keys, boolean replaceExistingValues, CompletionListener completionListener) {
+            cache.loadAll(keys, replaceExistingValues, completionListener);
+        }
+
+        @Override
+        public void put(K key, V value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public V getAndPut(K key, V value) {
+            return cache.getAndPut(key, value);
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> map) {
+            cache.putAll(map);
+        }
+
+        @Override
+        public boolean putIfAbsent(K key, V value) {
+            return cache.putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean remove(K key) {
+            boolean removed = cache.remove(key);
+            publishRemoval(key);
+            return removed;
+        }
+
+        @Override
+        public boolean remove(K key, V oldValue) {
+            boolean removed = cache.remove(key, oldValue);
+            if (removed) {
+                publishRemoval(key);
+            }
+            return removed;
+        }
+
+        @Override
+        public V getAndRemove(K key) {
+            V value = cache.getAndRemove(key);
+            publishRemoval(key);
+            return value;
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            return cache.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public boolean replace(K key, V value) {
+            return cache.replace(key, value);
+        }
+
+        @Override
+        public V getAndReplace(K key, V value) {
+            return cache.getAndReplace(key, value);
+        }
+
+        @Override
+        public void removeAll(Set<? extends K> keys) {
+            cache.removeAll(keys);
+            keys.forEach(this::publishRemoval);
+        }
+
+        @Override
+        public void removeAll() {
+            cache.removeAll();
+            cacheManager.bus.publishClear(cache.getName());
+        }
+
+        @Override
+        public void clear() {
+            cache.clear();
+            cacheManager.bus.publishClear(cache.getName());
+        }
+
+        @Override
+        public <C extends Configuration<K, V>> C getConfiguration(Class<C> clazz) {
+            return cache.getConfiguration(clazz);
+        }
+
+        @Override
+        public <T> T invoke(K key, EntryProcessor<K, V, T> entryProcessor, Object... arguments) throws EntryProcessorException {
+            return cache.invoke(key, entryProcessor, arguments);
+        }
+
+        @Override
+        public <T> Map<K, EntryProcessorResult<T>> invokeAll(
+            Set<? extends K> keys,
+            EntryProcessor<K, V, T> entryProcessor,
+            Object... arguments
+        ) {
+            return cache.invokeAll(keys, entryProcessor, arguments);
+        }
+
+        @Override
+        public String getName() {
+            return cache.getName();
+        }
+
+        @Override
+        public CacheManager getCacheManager() {
+            return cacheManager;
+        }
+
+        @Override
+        public void close() {
+            cache.close();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return cache.isClosed();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+            if (clazz.isInstance(this)) {
+                return clazz.cast(this);
+            }
+            return cache.unwrap(clazz);
+        }
+
+        @Override
+        public void registerCacheEntryListener(CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration) {
+            cache.registerCacheEntryListener(cacheEntryListenerConfiguration);
+        }
+
+        @Override
+        public void deregisterCacheEntryListener(CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration) {
+            cache.deregisterCacheEntryListener(cacheEntryListenerConfiguration);
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return cache.iterator();
+        }
+
+        private void publishRemoval(K key) {
+            cacheManager.bus.publishRemoval(cache.getName(), key);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.mycompany.myapp.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * The directory of the persistent disk tier of the caches, with a marker telling whether the cached data can be
+ * reused.
+ * <p>
+ * The marker holds the fingerprint of the application which wrote the data, and is only written once the caches have
+ * been closed cleanly. When opened, the directory keeps its data if the marker matches the fingerprint of the running
+ * application, and is emptied otherwise: after a crash, or when the schema, the version or the build changed. The
+ * marker is removed while the caches are open, so that a crash leaves no marker behind.
+ */
+public class PersistentCacheDirectory implements Closeable {
+
+    static final String MARKER_FILE = "cache.marker";
+
+    private final Logger log = LoggerFactory.getLogger(PersistentCacheDirectory.class);
+
+    private final Path directory;
+
+    private final String fingerprint;
+
+    public PersistentCacheDirectory(Path directory, String fingerprint) {
+        this.directory = directory;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Compute the fingerprint of the data written by the application.
+     *
+     * @param resources the resources the cached data depends on, such as the Liquibase changelog.
+     * @param versions the versions of the application, such as its git commit; {@code null} ones are ignored.
+     * @return the fingerprint.
+     * @throws IOException if a resource cannot be read.
+     */
+    public static String fingerprint(Resource[] resources, String... versions) throws IOException {
+        // Each resource is digested on its own, so that the fingerprint does not depend on the order they are listed in
+        List<String> entries = new ArrayList<>();
+        for (Resource resource : resources) {
+            try (InputStream content = resource.getInputStream()) {
+                entries.add(resource.getFilename() + ":" + digest(content.readAllBytes()));
+            }
+        }
+        Collections.sort(entries);
+        for (String version : versions) {
+            if (version != null) {
+                entries.add(version);
+            }
+        }
+        return digest(String.join("\n", entries).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            return new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(bytes)).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Prepare the directory for the caches to be opened, emptying it unless its data can be reused.
+     *
+     * @return whether the data of the directory is kept.
+     * @throws IOException if the directory cannot be prepared.
+     */
+    public boolean open() throws IOException {
+        Files.createDirectories(directory);
+        Path marker = directory.resolve(MARKER_FILE);
+        boolean reusable = Files.exists(marker) && fingerprint.equals(Files.readString(marker, StandardCharsets.UTF_8));
+        if (reusable) {
+            log.info("Reusing the persistent caches of {}", directory);
+            Files.delete(marker);
+        } else {
+            log.info("Discarding the persistent caches of {}, which were not written by this version or not closed cleanly", directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    FileSystemUtils.deleteRecursively(file);
+                }
+            }
+        }
+        return reusable;
+    }
+
+    /**
+     * Mark the data of the directory as reusable, once the caches have been closed.
+     */
+    @Override
+    public void close() throws IOException {
+        Files.writeString(directory.resolve(MARKER_FILE), fingerprint, StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,7 @@ package com.mycompany.myapp.config;
 
 import com.mycompany.myapp.security.*;
 import com.mycompany.myapp.security.jwt.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
@@ -44,8 +45,20 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Security.PasswordHashing passwordHashing = applicationProperties.getSecurity().getPasswordHashing();
+        return new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(passwordHashing.getStrength()),
+            passwordHashing.getThreads(),
+            passwordHashing.getQueueCapacity(),
+            passwordHashing.getRetryAfter(),
+            meterRegistry
+        );
+    }
+
+    @Bean
+    public LoginRateLimitStore loginRateLimitStore(ApplicationProperties applicationProperties) {
+        return new SketchLoginRateLimitStore(applicationProperties.getSecurity().getLoginRateLimit().getBuckets());
     }
 
     @Override
@@ -17,7 +17,8 @@ public class Modelo implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -38,7 +39,8 @@ public class Modelo implements Serializable {
     @Column(name = "precio")
     private Double precio;
 
-    @Column(name = "numero_serie")
+    @Size(max = 50)
+    @Column(name = "numero_serie", length = 50, unique = true)
     private String numero_serie;
 
     public String getNumero_serie() {
@@ -0,0 +1,35 @@
+package com.mycompany.myapp.management;
+
+import com.mycompany.myapp.service.CacheWarmUpService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the application out of service while the caches are warming up. Part of the {@code readiness} health group,
+ * so that no traffic is routed to an instance with cold caches.
+ */
+@Component
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    public CacheWarmUpHealthIndicator(CacheWarmUpService cacheWarmUpService) {
+        this.cacheWarmUpService = cacheWarmUpService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder;
+        if (cacheWarmUpService.isComplete()) {
+            builder = Health.up();
+        } else {
+            builder = Health.outOfService();
+        }
+        builder.withDetail("progress", cacheWarmUpService.getProgress()).withDetail("loaded", cacheWarmUpService.getLoaded());
+        if (cacheWarmUpService.getDuration() != null) {
+            builder.withDetail("duration", cacheWarmUpService.getDuration().toMillis() + "ms");
+        }
+        return builder.build();
+    }
+}
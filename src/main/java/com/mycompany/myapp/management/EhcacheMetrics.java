@@ -0,0 +1,79 @@
+package com.mycompany.myapp.management;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.ehcache.core.internal.statistics.DefaultTierStatistics;
+import org.ehcache.core.internal.statistics.StatsUtils;
+import org.ehcache.core.statistics.TierStatistics;
+
+/**
+ * Metrics of an Ehcache region: the JCache statistics of {@link JCacheMetrics}, with the size and the get latency
+ * that JCache does not report.
+ * <p>
+ * The size is the number of mappings of the lowest tier of the region, which holds every entry, and the get latency
+ * is the average time of the recent gets measured by Ehcache. Both need the statistics of the region to be enabled.
+ */
+public class EhcacheMetrics extends JCacheMetrics {
+
+    public static final String GET_LATENCY_METER_NAME = "cache.gets.latency";
+
+    private final Cache<?, ?> cache;
+
+    private final ObjectName statisticsName;
+
+    private final TierStatistics authorityTier;
+
+    public EhcacheMetrics(Cache<?, ?> cache, Iterable<Tag> tags) {
+        super(cache, tags);
+        this.cache = cache;
+        this.statisticsName = statisticsName(cache);
+        org.ehcache.Cache<?, ?> ehcache = cache.unwrap(org.ehcache.Cache.class);
+        this.authorityTier = new DefaultTierStatistics(ehcache, StatsUtils.findLowestTier(StatsUtils.findTiers(ehcache)));
+    }
+
+    @Override
+    protected Long size() {
+        return authorityTier.getMappings();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        super.bindImplementationSpecificMetrics(registry);
+        ObjectName name = statisticsName;
+        TimeGauge
+            .builder(GET_LATENCY_METER_NAME, cache, TimeUnit.MICROSECONDS, c -> averageGetTime(name))
+            .tags(getTagsWithCacheName())
+            .description("The average time taken by the recent cache gets")
+            .register(registry);
+    }
+
+    /**
+     * @return the name of the JCache statistics bean of the cache, as registered by Ehcache and read by {@link JCacheMetrics}.
+     */
+    private static ObjectName statisticsName(Cache<?, ?> cache) {
+        try {
+            String cacheManager = cache.getCacheManager().getURI().toString().replace(':', '.');
+            return new ObjectName("javax.cache:type=CacheStatistics,CacheManager=" + cacheManager + ",Cache=" + cache.getName());
+        } catch (JMException e) {
+            return null;
+        }
+    }
+
+    private static double averageGetTime(ObjectName name) {
+        if (name == null) {
+            return Double.NaN;
+        }
+        try {
+            return ((Number) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "AverageGetTime")).doubleValue();
+        } catch (JMException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -13,16 +13,46 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String TOKEN_CACHE_METER_NAME = "security.authentication.token-cache";
+    public static final String TOKEN_CACHE_METER_DESCRIPTION =
+        "Indicates whether the tokens presented by the clients were already verified, or had to be parsed and verified.";
+    public static final String TOKEN_CACHE_METER_RESULT_DIMENSION = "result";
+
+    public static final String RATE_LIMITED_LOGINS_METER_NAME = "security.authentication.rate-limited-logins";
+    public static final String RATE_LIMITED_LOGINS_METER_DESCRIPTION =
+        "Indicates the count of the login attempts rejected before verifying their password, as too many were made.";
+    public static final String RATE_LIMITED_LOGINS_METER_BASE_UNIT = "attempts";
+    public static final String RATE_LIMITED_LOGINS_METER_KEY_DIMENSION = "key";
+
+    public static final String REVOKED_TOKENS_METER_NAME = "security.authentication.revoked-tokens";
+    public static final String REVOKED_TOKENS_METER_DESCRIPTION = "Indicates the count of the revoked tokens presented by the clients.";
+    public static final String REVOKED_TOKENS_METER_BASE_UNIT = "errors";
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
+    private final Counter tokenCacheHitCounter;
+    private final Counter tokenCacheMissCounter;
+    private final Counter rateLimitedLoginCounter;
+    private final Counter rateLimitedClientCounter;
+    private final Counter tokenRevokedCounter;
 
     public SecurityMetersService(MeterRegistry registry) {
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.tokenCacheHitCounter = tokenCacheCounterForResultBuilder("hit").register(registry);
+        this.tokenCacheMissCounter = tokenCacheCounterForResultBuilder("miss").register(registry);
+        this.rateLimitedLoginCounter = rateLimitedLoginsCounterForKeyBuilder("login").register(registry);
+        this.rateLimitedClientCounter = rateLimitedLoginsCounterForKeyBuilder("client").register(registry);
+        this.tokenRevokedCounter =
+            Counter
+                .builder(REVOKED_TOKENS_METER_NAME)
+                .baseUnit(REVOKED_TOKENS_METER_BASE_UNIT)
+                .description(REVOKED_TOKENS_METER_DESCRIPTION)
+                .register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -33,6 +63,21 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder tokenCacheCounterForResultBuilder(String result) {
+        return Counter
+            .builder(TOKEN_CACHE_METER_NAME)
+            .description(TOKEN_CACHE_METER_DESCRIPTION)
+            .tag(TOKEN_CACHE_METER_RESULT_DIMENSION, result);
+    }
+
+    private Counter.Builder rateLimitedLoginsCounterForKeyBuilder(String key) {
+        return Counter
+            .builder(RATE_LIMITED_LOGINS_METER_NAME)
+            .baseUnit(RATE_LIMITED_LOGINS_METER_BASE_UNIT)
+            .description(RATE_LIMITED_LOGINS_METER_DESCRIPTION)
+            .tag(RATE_LIMITED_LOGINS_METER_KEY_DIMENSION, key);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -48,4 +93,24 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackTokenCacheHit() {
+        this.tokenCacheHitCounter.increment();
+    }
+
+    public void trackTokenCacheMiss() {
+        this.tokenCacheMissCounter.increment();
+    }
+
+    public void trackLoginRateLimitedLogin() {
+        this.rateLimitedLoginCounter.increment();
+    }
+
+    public void trackLoginRateLimitedClient() {
+        this.rateLimitedClientCounter.increment();
+    }
+
+    public void trackTokenRevoked() {
+        this.tokenRevokedCounter.increment();
+    }
 }
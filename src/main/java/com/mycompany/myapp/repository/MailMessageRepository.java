@@ -0,0 +1,40 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.MailMessage;
+import java.time.Instant;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JPA repository for the {@link MailMessage} entity.
+ */
+public interface MailMessageRepository extends JpaRepository<MailMessage, Long> {
+    /**
+     * Lock the mails due by now, oldest first, skipping the ones locked by another node where the database supports it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select mail from MailMessage mail where mail.nextAttemptDate <= :now order by mail.nextAttemptDate")
+    List<MailMessage> findAllDueForUpdate(@Param("now") Instant now, Pageable pageable);
+
+    long countByNextAttemptDateNotNull();
+
+    long countByNextAttemptDateNull();
+
+    /**
+     * Delete the given up mails queued before a date.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from MailMessage mail where mail.nextAttemptDate is null and mail.createdDate < :before")
+    int deleteAllGivenUpBefore(@Param("before") Instant before);
+}
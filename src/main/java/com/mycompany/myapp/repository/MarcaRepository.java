@@ -1,7 +1,10 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Marca;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +12,10 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MarcaRepository extends JpaRepository<Marca, Long> {}
+public interface MarcaRepository extends JpaRepository<Marca, Long> {
+    /**
+     * Find the marcas by name whatever their case, the names being given in lower case.
+     */
+    @Query("select marca from Marca marca where lower(marca.marca) in :marcas")
+    List<Marca> findAllByLowerCaseMarcaIn(@Param("marcas") Collection<String> marcas);
+}
@@ -1,12 +1,77 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Modelo;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data SQL repository for the Modelo entity.
+ * <p>
+ * The read methods used by the REST API fetch the {@code marca} in the same statement, so that listing modelos
+ * never issues one extra select per brand.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ModeloRepository extends JpaRepository<Modelo, Long> {}
+public interface ModeloRepository extends JpaRepository<Modelo, Long>, JpaSpecificationExecutor<Modelo> {
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming the whole catalog.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    @EntityGraph(attributePaths = "marca")
+    Optional<Modelo> findOneWithMarcaById(Long id);
+
+    @EntityGraph(attributePaths = "marca")
+    Page<Modelo> findAllWithMarcaBy(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "marca")
+    List<Modelo> findAll(Specification<Modelo> spec);
+
+    /**
+     * Find the modelo with the given serial number, served by the unique index on {@code numero_serie}.
+     */
+    @Query("select modelo from Modelo modelo left join fetch modelo.marca where modelo.numero_serie = :numeroSerie")
+    Optional<Modelo> findByNumeroSerie(@Param("numeroSerie") String numeroSerie);
+
+    @Query("select modelo from Modelo modelo left join fetch modelo.marca where modelo.id in :ids")
+    List<Modelo> findAllWithMarcaByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select modelo.id from Modelo modelo where modelo.marca.id in :marcaIds")
+    List<Long> findIdsByMarcaIdIn(@Param("marcaIds") Collection<Long> marcaIds);
+
+    @Query("select modelo.id from Modelo modelo where modelo.numero_serie in :numeroSeries")
+    List<Long> findIdsByNumeroSerieIn(@Param("numeroSeries") Collection<String> numeroSeries);
+
+    @Query("select modelo.numero_serie from Modelo modelo where modelo.numero_serie in :numeroSeries")
+    List<String> findNumeroSeriesByNumeroSerieIn(@Param("numeroSeries") Collection<String> numeroSeries);
+
+    /**
+     * Stream every modelo, with its marca, through a forward-only cursor.
+     * <p>
+     * Must be consumed inside a transaction and closed afterwards. On MySQL the fetch size is only honoured with
+     * {@code useCursorFetch=true} on the JDBC URL, otherwise the driver buffers the whole result set.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    @Query("select modelo from Modelo modelo left join fetch modelo.marca order by modelo.id")
+    Stream<Modelo> streamAllWithMarca();
+
+    @Override
+    @EntityGraph(attributePaths = "marca")
+    Page<Modelo> findAll(Specification<Modelo> spec, Pageable pageable);
+}
@@ -0,0 +1,125 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Modelo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+
+/**
+ * SQL repository merging {@link Modelo} rows on their serial number with the native upsert of the database.
+ * <p>
+ * Each batch of rows is sent as a single JDBC batch, without reading the existing rows first: MySQL and MariaDB
+ * use {@code INSERT ... ON DUPLICATE KEY UPDATE}, and H2 uses {@code MERGE}. Other databases fall back to a lookup
+ * by serial number and a merge per row.
+ */
+@Repository
+public class ModeloUpsertRepository {
+
+    private final Logger log = LoggerFactory.getLogger(ModeloUpsertRepository.class);
+
+    private static final String MYSQL_UPSERT =
+        "insert into modelo (id, modelo, color, potencia, plazas, precio, numero_serie, marca_id) values (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "on duplicate key update modelo = values(modelo), color = values(color), potencia = values(potencia), " +
+        "plazas = values(plazas), precio = values(precio), marca_id = values(marca_id)";
+
+    private static final String H2_UPSERT =
+        "merge into modelo t using (select cast(? as bigint) id, cast(? as varchar) modelo, cast(? as varchar) color, " +
+        "cast(? as int) potencia, cast(? as int) plazas, cast(? as double) precio, cast(? as varchar) numero_serie, " +
+        "cast(? as bigint) marca_id) s on t.numero_serie = s.numero_serie " +
+        "when matched then update set modelo = s.modelo, color = s.color, potencia = s.potencia, plazas = s.plazas, " +
+        "precio = s.precio, marca_id = s.marca_id " +
+        "when not matched then insert (id, modelo, color, potencia, plazas, precio, numero_serie, marca_id) " +
+        "values (s.id, s.modelo, s.color, s.potencia, s.plazas, s.precio, s.numero_serie, s.marca_id)";
+
+    private final EntityManager entityManager;
+
+    private final ModeloRepository modeloRepository;
+
+    public ModeloUpsertRepository(EntityManager entityManager, ModeloRepository modeloRepository) {
+        this.entityManager = entityManager;
+        this.modeloRepository = modeloRepository;
+    }
+
+    /**
+     * Insert the modelos, or update the existing ones with the same serial number. Must be called inside a
+     * transaction, and the marcas of the modelos must already be persisted.
+     * <p>
+     * The new rows take their ids from the Modelo id generator. The second-level cache of Modelo is evicted, since
+     * the rows are written behind Hibernate's back.
+     *
+     * @param modelos the modelos, each with a serial number.
+     */
+    public void upsertAllByNumeroSerie(List<Modelo> modelos) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        Dialect dialect = session.getJdbcServices().getDialect();
+        String sql = dialect instanceof MySQLDialect ? MYSQL_UPSERT : dialect instanceof H2Dialect ? H2_UPSERT : null;
+        if (sql == null) {
+            log.debug("No native upsert for {}, merging the Modelos one by one", dialect);
+            upsertOneByOne(modelos);
+            return;
+        }
+        // The marcas created in this transaction must be visible to the foreign key
+        session.flush();
+        IdentifierGenerator idGenerator = session.getFactory().getMetamodel().entityPersister(Modelo.class).getIdentifierGenerator();
+        long[] ids = new long[modelos.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (Long) idGenerator.generate(session, modelos.get(i));
+        }
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < ids.length; i++) {
+                    Modelo modelo = modelos.get(i);
+                    statement.setLong(1, ids[i]);
+                    setNullable(statement, 2, modelo.getModelo(), Types.VARCHAR);
+                    setNullable(statement, 3, modelo.getColor(), Types.VARCHAR);
+                    setNullable(statement, 4, modelo.getPotencia(), Types.INTEGER);
+                    setNullable(statement, 5, modelo.getPlazas(), Types.INTEGER);
+                    setNullable(statement, 6, modelo.getPrecio(), Types.DOUBLE);
+                    setNullable(statement, 7, modelo.getNumero_serie(), Types.VARCHAR);
+                    setNullable(statement, 8, modelo.getMarca() == null ? null : modelo.getMarca().getId(), Types.BIGINT);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+        entityManager.getEntityManagerFactory().getCache().evict(Modelo.class);
+    }
+
+    private void upsertOneByOne(List<Modelo> modelos) {
+        Session session = entityManager.unwrap(Session.class);
+        for (Modelo modelo : modelos) {
+            modeloRepository
+                .findByNumeroSerie(modelo.getNumero_serie())
+                .ifPresentOrElse(
+                    existing ->
+                        existing
+                            .modelo(modelo.getModelo())
+                            .color(modelo.getColor())
+                            .potencia(modelo.getPotencia())
+                            .plazas(modelo.getPlazas())
+                            .precio(modelo.getPrecio())
+                            .marca(modelo.getMarca()),
+                    () -> session.persist(modelo)
+                );
+        }
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, sqlType);
+        } else {
+            statement.setObject(index, value, sqlType);
+        }
+    }
+}
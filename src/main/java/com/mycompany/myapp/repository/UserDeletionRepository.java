@@ -0,0 +1,48 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.User;
+import java.util.Collection;
+import javax.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository deleting {@link User} rows in bulk, with one statement per table instead of one per user.
+ * <p>
+ * The second-level cache of User and of its authorities is evicted as a whole by Hibernate after each statement.
+ */
+@Repository
+public class UserDeletionRepository {
+
+    private final EntityManager entityManager;
+
+    public UserDeletionRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Delete the users with the given ids which are still not activated, and their authorities. The users activated
+     * since their ids were read are kept. Must be called inside a transaction.
+     *
+     * @param ids the ids of the users.
+     * @return the number of users deleted.
+     */
+    public int deleteNotActivatedByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        entityManager
+            .createNativeQuery(
+                "delete from jhi_user_authority where user_id in (select id from jhi_user where id in (:ids) and activated = false)"
+            )
+            .unwrap(NativeQuery.class)
+            // Only the caches of User are evicted, instead of every region as for an unknown native statement
+            .addSynchronizedEntityClass(User.class)
+            .setParameter("ids", ids)
+            .executeUpdate();
+        return entityManager
+            .createQuery("delete from User user where user.id in :ids and user.activated = false")
+            .setParameter("ids", ids)
+            .executeUpdate();
+    }
+}
@@ -0,0 +1,105 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+/**
+ * SQL repository inserting new {@link User} rows, and their authorities, in JDBC batches.
+ * <p>
+ * The ids of the users are generated by the database, which keeps Hibernate from batching their inserts: the users
+ * are inserted in one batch, then their authorities in another one, looking the new ids up by login.
+ */
+@Repository
+public class UserInsertRepository {
+
+    private static final String INSERT_USER =
+        "insert into jhi_user (login, password_hash, first_name, last_name, email, image_url, activated, lang_key, " +
+        "activation_key, reset_key, reset_date, created_by, created_date, last_modified_by, last_modified_date) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER_AUTHORITY =
+        "insert into jhi_user_authority (user_id, authority_name) select id, ? from jhi_user where login = ?";
+
+    private final EntityManager entityManager;
+
+    public UserInsertRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Insert new users, with the audit columns already set. Must be called inside a transaction, and the
+     * authorities of the users must already exist. The ids of the users are not set.
+     *
+     * @param users the users.
+     */
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        // The changes pending in this transaction must be visible to the unique constraints
+        session.flush();
+        // As Hibernate with hibernate.jdbc.time_zone
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_USER)) {
+                for (User user : users) {
+                    statement.setString(1, user.getLogin());
+                    statement.setString(2, user.getPassword());
+                    setNullable(statement, 3, user.getFirstName());
+                    setNullable(statement, 4, user.getLastName());
+                    setNullable(statement, 5, user.getEmail());
+                    setNullable(statement, 6, user.getImageUrl());
+                    statement.setBoolean(7, user.isActivated());
+                    setNullable(statement, 8, user.getLangKey());
+                    setNullable(statement, 9, user.getActivationKey());
+                    setNullable(statement, 10, user.getResetKey());
+                    setTimestamp(statement, 11, user.getResetDate(), utc);
+                    statement.setString(12, user.getCreatedBy());
+                    setTimestamp(statement, 13, user.getCreatedDate(), utc);
+                    setNullable(statement, 14, user.getLastModifiedBy());
+                    setTimestamp(statement, 15, user.getLastModifiedDate(), utc);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_USER_AUTHORITY)) {
+                for (User user : users) {
+                    for (Authority authority : user.getAuthorities()) {
+                        statement.setString(1, authority.getName());
+                        statement.setString(2, user.getLogin());
+                        statement.addBatch();
+                    }
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, Instant value, Calendar calendar) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index, Timestamp.from(value), calendar);
+        }
+    }
+}
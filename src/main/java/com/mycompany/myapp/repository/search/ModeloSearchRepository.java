@@ -0,0 +1,344 @@
+package com.mycompany.myapp.repository.search;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Embedded Lucene full-text index of the {@link Modelo} catalog.
+ * <p>
+ * Every modelo is a document holding its name, color, serial number, the name of its marca and its plazas and
+ * potencia as words, all folded to lower case without accents. The modelos are stored in the documents too, so that a
+ * search is answered from the index alone. Changes are visible to searches once {@link #refresh()} is called, and
+ * durable once {@link #commit()} is called.
+ */
+@Repository
+public class ModeloSearchRepository {
+
+    /**
+     * The deepest result a search can page to, each result up to the requested page being collected and ranked.
+     */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    private static final String ID = "id";
+    private static final String MODELO = "modelo";
+    private static final String COLOR = "color";
+    private static final String NUMERO_SERIE = "numero_serie";
+    private static final String MARCA = "marca";
+    private static final String MARCA_ID = "marca_id";
+    private static final String CARACTERISTICAS = "caracteristicas";
+    private static final String POTENCIA = "potencia";
+    private static final String PLAZAS = "plazas";
+    private static final String PRECIO = "precio";
+    private static final String GENERATION = "generation";
+
+    private static final String[] SEARCHED_FIELDS = { MODELO, MARCA, COLOR, CARACTERISTICAS, NUMERO_SERIE };
+    private static final float[] SEARCHED_FIELD_BOOSTS = { 3f, 3f, 2f, 1f, 1f };
+
+    private final Logger log = LoggerFactory.getLogger(ModeloSearchRepository.class);
+
+    private final Analyzer analyzer = new FoldingAnalyzer();
+
+    private final Directory directory;
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    private volatile long generation;
+
+    public ModeloSearchRepository(ApplicationProperties applicationProperties) {
+        String indexDirectory = applicationProperties.getSearch().getIndexDirectory();
+        try {
+            if (indexDirectory == null || indexDirectory.isBlank()) {
+                this.directory = new ByteBuffersDirectory();
+            } else {
+                this.directory = FSDirectory.open(Paths.get(indexDirectory));
+            }
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the search index in " + indexDirectory, e);
+        }
+        log.debug("Opened the search index in {}", indexDirectory == null ? "memory" : indexDirectory);
+    }
+
+    /**
+     * Start a new generation of the index: the documents written from now on belong to it, and the older ones can be
+     * deleted with {@link #deleteOlderGenerations(long)} once every modelo has been indexed again.
+     *
+     * @return the new generation.
+     */
+    public synchronized long startGeneration() {
+        generation = Math.max(generation + 1, System.currentTimeMillis());
+        return generation;
+    }
+
+    /**
+     * Add or replace the documents of the given modelos.
+     *
+     * @param modelos the modelos, with their marca loaded.
+     */
+    public void saveAll(Collection<Modelo> modelos) {
+        try {
+            for (Modelo modelo : modelos) {
+                writer.updateDocument(new Term(ID, modelo.getId().toString()), toDocument(modelo));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete the documents of the given modelos.
+     *
+     * @param ids the ids of the modelos.
+     */
+    public void deleteAllById(Collection<Long> ids) {
+        try {
+            Term[] terms = ids.stream().map(id -> new Term(ID, id.toString())).toArray(Term[]::new);
+            writer.deleteDocuments(terms);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete the documents written before the given generation started.
+     *
+     * @param generation the generation to keep.
+     */
+    public void deleteOlderGenerations(long generation) {
+        try {
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, generation - 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Make the changes written so far visible to the searches.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the changes made so far to the directory, if there are any.
+     */
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Search the modelos matching a free-text query, best matches first.
+     * <p>
+     * Every word of the query is looked for in every searched field, as typed, with typos, and as a prefix for the
+     * last word. Most of the words must match: all of them up to two words, and then all but a third of them.
+     *
+     * @param text the query.
+     * @param pageable the page, within the first {@link #MAX_RESULT_WINDOW} results, the sort being ignored.
+     * @return the matching modelos.
+     */
+    public Page<Modelo> search(String text, Pageable pageable) {
+        Query query = buildQuery(text);
+        if (query == null) {
+            return Page.empty(pageable);
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int offset = (int) pageable.getOffset();
+                int size = pageable.getPageSize();
+                TopScoreDocCollector collector = TopScoreDocCollector.create(offset + size, Integer.MAX_VALUE);
+                searcher.search(query, collector);
+                TopDocs topDocs = collector.topDocs(offset, size);
+                List<Modelo> content = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    content.add(toModelo(searcher.doc(scoreDoc.doc)));
+                }
+                return new PageImpl<>(content, pageable, collector.getTotalHits());
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        log.debug("Closing the search index");
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query buildQuery(String text) {
+        List<String> words = analyze(text == null ? "" : text);
+        if (words.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            int maxEdits = word.length() <= 2 ? 0 : (word.length() <= 5 ? 1 : 2);
+            BooleanQuery.Builder wordQuery = new BooleanQuery.Builder();
+            for (int f = 0; f < SEARCHED_FIELDS.length; f++) {
+                Term term = new Term(SEARCHED_FIELDS[f], word);
+                float boost = SEARCHED_FIELD_BOOSTS[f];
+                wordQuery.add(new BoostQuery(new TermQuery(term), boost), BooleanClause.Occur.SHOULD);
+                if (maxEdits > 0) {
+                    wordQuery.add(new BoostQuery(new FuzzyQuery(term, maxEdits, 1), boost / 2), BooleanClause.Occur.SHOULD);
+                }
+                if (i == words.size() - 1) {
+                    wordQuery.add(new BoostQuery(new PrefixQuery(term), boost / 2), BooleanClause.Occur.SHOULD);
+                }
+            }
+            query.add(wordQuery.build(), BooleanClause.Occur.SHOULD);
+        }
+        query.setMinimumNumberShouldMatch(words.size() <= 2 ? words.size() : words.size() - words.size() / 3);
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> words = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(MODELO, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                words.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return words;
+    }
+
+    private Document toDocument(Modelo modelo) {
+        Document document = new Document();
+        document.add(new StringField(ID, modelo.getId().toString(), Field.Store.YES));
+        document.add(new LongPoint(GENERATION, generation));
+        addText(document, MODELO, modelo.getModelo());
+        addText(document, COLOR, modelo.getColor());
+        addText(document, NUMERO_SERIE, modelo.getNumero_serie());
+        StringBuilder caracteristicas = new StringBuilder();
+        if (modelo.getPlazas() != null) {
+            document.add(new StoredField(PLAZAS, modelo.getPlazas()));
+            caracteristicas.append(modelo.getPlazas()).append(" plazas ");
+        }
+        if (modelo.getPotencia() != null) {
+            document.add(new StoredField(POTENCIA, modelo.getPotencia()));
+            caracteristicas.append(modelo.getPotencia()).append(" cv");
+        }
+        document.add(new TextField(CARACTERISTICAS, caracteristicas.toString(), Field.Store.NO));
+        if (modelo.getPrecio() != null) {
+            document.add(new StoredField(PRECIO, modelo.getPrecio()));
+        }
+        if (modelo.getMarca() != null) {
+            document.add(new StoredField(MARCA_ID, modelo.getMarca().getId()));
+            addText(document, MARCA, modelo.getMarca().getMarca());
+        }
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.YES));
+        }
+    }
+
+    private static Modelo toModelo(Document document) {
+        Modelo modelo = new Modelo()
+            .id(Long.valueOf(document.get(ID)))
+            .modelo(document.get(MODELO))
+            .color(document.get(COLOR))
+            .potencia(intValue(document.getField(POTENCIA)))
+            .plazas(intValue(document.getField(PLAZAS)))
+            .precio(document.getField(PRECIO) == null ? null : document.getField(PRECIO).numericValue().doubleValue());
+        modelo.setNumero_serie(document.get(NUMERO_SERIE));
+        IndexableField marcaId = document.getField(MARCA_ID);
+        if (marcaId != null) {
+            modelo.setMarca(new Marca().id(marcaId.numericValue().longValue()).marca(document.get(MARCA)));
+        }
+        return modelo;
+    }
+
+    private static Integer intValue(IndexableField field) {
+        return field == null ? null : field.numericValue().intValue();
+    }
+
+    /**
+     * Splits the text in words, folded to lower case without accents.
+     */
+    private static final class FoldingAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
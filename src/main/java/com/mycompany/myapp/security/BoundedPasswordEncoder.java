@@ -0,0 +1,123 @@
+package com.mycompany.myapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A {@link PasswordEncoder} hashing and verifying the passwords on a bounded pool of threads.
+ * <p>
+ * Hashing a password takes hundreds of milliseconds of CPU: a burst of logins would otherwise run as many hashes at the
+ * same time as there are request threads, and keep all of them busy. Here at most {@code threads} passwords are hashed
+ * at the same time, and at most {@code queueCapacity} wait for their turn, the calling threads waiting with them. The
+ * others are rejected at once with a {@link PasswordHashingUnavailableException}, telling the clients when to retry.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    public static final String QUEUE_METER_NAME = "security.password-hashing.queue";
+
+    public static final String DURATION_METER_NAME = "security.password-hashing.duration";
+
+    public static final String REJECTED_METER_NAME = "security.password-hashing.rejected";
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration retryAfter;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejectedCounter;
+
+    /**
+     * @param passwordEncoder the encoder hashing the passwords.
+     * @param threads the number of passwords hashed at the same time.
+     * @param queueCapacity the number of passwords waiting to be hashed, beyond which they are rejected.
+     * @param retryAfter the delay after which the rejected passwords can be retried.
+     * @param registry the registry of the metrics.
+     */
+    public BoundedPasswordEncoder(
+        PasswordEncoder passwordEncoder,
+        int threads,
+        int queueCapacity,
+        Duration retryAfter,
+        MeterRegistry registry
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfter = retryAfter;
+        this.executor =
+            new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new CustomizableThreadFactory("password-hashing-")
+            );
+        Gauge
+            .builder(QUEUE_METER_NAME, executor, pool -> pool.getQueue().size())
+            .description("Number of passwords waiting to be hashed or verified")
+            .register(registry);
+        this.encodeTimer = timer("encode").register(registry);
+        this.matchesTimer = timer("matches").register(registry);
+        this.rejectedCounter =
+            Counter
+                .builder(REJECTED_METER_NAME)
+                .description("Number of passwords rejected as too many were waiting to be hashed or verified")
+                .register(registry);
+    }
+
+    private static Timer.Builder timer(String operation) {
+        return Timer.builder(DURATION_METER_NAME).description("Time taken to hash or verify a password").tag("operation", operation);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Timer timer, Callable<T> hashing) {
+        try {
+            return executor.submit(timer.wrap(hashing)).get();
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingUnavailableException(retryAfter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password to be hashed", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mycompany.myapp.security;
+
+import java.time.Duration;
+
+/**
+ * The token buckets of the {@link LoginRateLimiter}, by key.
+ * <p>
+ * The buckets are kept in memory by the {@link SketchLoginRateLimitStore}, and so are limited per node: a store shared
+ * by the nodes would limit the attempts across the cluster.
+ */
+public interface LoginRateLimitStore {
+    /**
+     * Take a token from the bucket of a key.
+     *
+     * @param key the key, such as a login or a client address.
+     * @param capacity the number of tokens of a full bucket.
+     * @param refillPeriod the time taken to refill an empty bucket.
+     * @return {@link Duration#ZERO} if a token was taken, or the time after which one will be available otherwise.
+     */
+    Duration tryConsume(String key, int capacity, Duration refillPeriod);
+}
@@ -0,0 +1,95 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.management.SecurityMetersService;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits the login attempts of every login and every client address, before their passwords are verified.
+ * <p>
+ * The address of a client is the one the request comes from, unless it comes from one of the
+ * {@code application.security.login-rate-limit.trusted-proxies}: the address is then the last one of the
+ * {@code X-Forwarded-For} header not added by one of them, the previous ones being written by the client.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final Logger log = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private final ApplicationProperties.Security.LoginRateLimit properties;
+
+    private final Set<String> trustedProxies;
+
+    private final LoginRateLimitStore store;
+
+    private final SecurityMetersService securityMetersService;
+
+    public LoginRateLimiter(
+        ApplicationProperties applicationProperties,
+        LoginRateLimitStore store,
+        SecurityMetersService securityMetersService
+    ) {
+        this.properties = applicationProperties.getSecurity().getLoginRateLimit();
+        this.trustedProxies = Set.copyOf(properties.getTrustedProxies());
+        this.store = store;
+        this.securityMetersService = securityMetersService;
+    }
+
+    /**
+     * Resolve the address of the client making a request.
+     *
+     * @param request the request.
+     * @return the address of the client, as far as the trusted proxies tell.
+     */
+    public String getClientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor == null || !trustedProxies.contains(address)) {
+            return address;
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0 && trustedProxies.contains(address); i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty()) {
+                address = hop;
+            }
+        }
+        return address;
+    }
+
+    /**
+     * Count a login attempt.
+     *
+     * @param login the login, or email, of the attempt.
+     * @param clientAddress the address of the client making the attempt.
+     * @throws LoginRateLimitExceededException if the login or the client made too many attempts.
+     */
+    public void acquire(String login, String clientAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        ApplicationProperties.Security.LoginRateLimit.Bucket client = properties.getClient();
+        Duration retryAfter = store.tryConsume("client:" + clientAddress, client.getCapacity(), client.getRefillPeriod());
+        if (!retryAfter.isZero()) {
+            log.debug("Too many login attempts from {}", clientAddress);
+            securityMetersService.trackLoginRateLimitedClient();
+            throw new LoginRateLimitExceededException(retryAfter);
+        }
+        ApplicationProperties.Security.LoginRateLimit.Bucket bucket = properties.getLogin();
+        String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
+        retryAfter = store.tryConsume("login:" + lowercaseLogin, bucket.getCapacity(), bucket.getRefillPeriod());
+        if (!retryAfter.isZero()) {
+            log.debug("Too many login attempts for {}", lowercaseLogin);
+            securityMetersService.trackLoginRateLimitedLogin();
+            throw new LoginRateLimitExceededException(retryAfter);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mycompany.myapp.security;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link LoginRateLimitStore} keeping the buckets in a fixed amount of memory, whatever the number of keys.
+ * <p>
+ * Every bucket is a single timestamp, the theoretical arrival time of the generic cell rate algorithm: an attempt is
+ * allowed while it is no later than a full bucket ahead of now, and pushes it back by the time a token takes to refill.
+ * The buckets are updated with compare-and-set, without locks: an attempt whose buckets changed since they were read is
+ * decided again on their new values.
+ * <p>
+ * The keys are not stored: like in a count-min sketch, each key is hashed to one bucket of each of two rows, with seeds
+ * drawn at startup so that the collisions cannot be chosen. An attempt is only rejected when both of its buckets are
+ * full, so that a key is only limited by another one colliding with it in both rows.
+ */
+public class SketchLoginRateLimitStore implements LoginRateLimitStore {
+
+    private static final int ROWS = 2;
+
+    private final AtomicLongArray buckets;
+
+    private final int width;
+
+    private final long[] seeds = new long[ROWS];
+
+    private final LongSupplier nanoTime;
+
+    private final long origin;
+
+    /**
+     * @param width the number of buckets of each row.
+     */
+    public SketchLoginRateLimitStore(int width) {
+        this(width, System::nanoTime);
+    }
+
+    SketchLoginRateLimitStore(int width, LongSupplier nanoTime) {
+        this.width = width;
+        this.buckets = new AtomicLongArray(ROWS * width);
+        SecureRandom random = new SecureRandom();
+        for (int row = 0; row < ROWS; row++) {
+            seeds[row] = random.nextLong();
+        }
+        this.nanoTime = nanoTime;
+        this.origin = nanoTime.getAsLong();
+    }
+
+    @Override
+    public Duration tryConsume(String key, int capacity, Duration refillPeriod) {
+        long interval = refillPeriod.toNanos() / capacity;
+        long tolerance = refillPeriod.toNanos() - interval;
+        long now = nanoTime.getAsLong() - origin;
+        int[] indexes = new int[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            indexes[row] = row * width + Math.floorMod(hash(key, seeds[row]), width);
+        }
+        long[] values = new long[ROWS];
+        while (true) {
+            long arrival = Long.MAX_VALUE;
+            for (int row = 0; row < ROWS; row++) {
+                values[row] = buckets.get(indexes[row]);
+                arrival = Math.min(arrival, Math.max(values[row], now));
+            }
+            if (arrival - now > tolerance) {
+                return Duration.ofNanos(arrival - now - tolerance);
+            }
+            if (advance(indexes, values, arrival + interval)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    /**
+     * Push back the buckets which are behind the next arrival time, as long as they still hold the values read.
+     * <p>
+     * Conservative update: the buckets already further ahead, because of colliding keys, are left as they are. A
+     * bucket pushed back before another one changed stays so, which only limits the key a little more.
+     *
+     * @return whether every bucket still held the value read, and the attempt is allowed.
+     */
+    private boolean advance(int[] indexes, long[] values, long next) {
+        for (int row = 0; row < ROWS; row++) {
+            if (values[row] < next && !buckets.compareAndSet(indexes[row], values[row], next)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String key, long seed) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash = Long.rotateLeft((hash ^ key.charAt(i)) * 0x9E3779B97F4A7C15L, 31);
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
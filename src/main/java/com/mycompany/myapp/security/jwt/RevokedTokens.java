@@ -0,0 +1,151 @@
+package com.mycompany.myapp.security.jwt;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ids of the revoked tokens which have not expired yet, checked on every request.
+ * <p>
+ * Nearly all the tokens are not revoked: they are told apart by a Bloom filter, which never misses a revoked id, and
+ * only the ids it reports as probably revoked are looked up in the exact set. Both are read and updated without
+ * locks, and replaced as a whole when rebuilt from the database, which also drops the expired ids.
+ */
+@Component
+public class RevokedTokens {
+
+    private static final int MIN_EXPECTED_IDS = 1024;
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private volatile Snapshot snapshot = new Snapshot(MIN_EXPECTED_IDS);
+
+    /**
+     * @param tokenId the id of a token.
+     * @return whether the token is revoked.
+     */
+    public boolean isRevoked(String tokenId) {
+        Snapshot current = snapshot;
+        return current.filter.mightContain(tokenId) && current.expirations.containsKey(tokenId);
+    }
+
+    /**
+     * Revoke a token.
+     *
+     * @param tokenId the id of the token.
+     * @param expiration the expiration of the token, after which it no longer needs to be tracked.
+     */
+    public void revoke(String tokenId, Instant expiration) {
+        Snapshot current;
+        do {
+            current = snapshot;
+            current.add(tokenId, expiration);
+            // Added again if the snapshot was replaced in the meantime, so that a revocation is never lost
+        } while (current != snapshot);
+    }
+
+    /**
+     * Replace the revoked tokens with the ones read from the database, keeping the ones revoked since then.
+     *
+     * @param expirations the expiration of the revoked tokens, by id.
+     */
+    public void rebuild(Map<String, Instant> expirations) {
+        Snapshot previous = snapshot;
+        Instant now = Instant.now();
+        Snapshot rebuilt = new Snapshot(Math.max(MIN_EXPECTED_IDS, 2 * (expirations.size() + previous.expirations.size())));
+        expirations.forEach(rebuilt::add);
+        previous.copyUnexpiredTo(rebuilt, now);
+        snapshot = rebuilt;
+        // The revocations added to the previous snapshot while it was copied
+        previous.copyUnexpiredTo(rebuilt, now);
+    }
+
+    /**
+     * @return the number of revoked tokens.
+     */
+    public int size() {
+        return snapshot.expirations.size();
+    }
+
+    private static final class Snapshot {
+
+        private final BloomFilter filter;
+
+        private final ConcurrentMap<String, Instant> expirations = new ConcurrentHashMap<>();
+
+        private Snapshot(int expectedIds) {
+            this.filter = new BloomFilter(expectedIds, FALSE_POSITIVE_PROBABILITY);
+        }
+
+        private void add(String tokenId, Instant expiration) {
+            // In the filter first, so that the id is never in the set without being in the filter
+            filter.put(tokenId);
+            expirations.put(tokenId, expiration);
+        }
+
+        private void copyUnexpiredTo(Snapshot target, Instant now) {
+            expirations.forEach((tokenId, expiration) -> {
+                if (expiration.isAfter(now)) {
+                    target.add(tokenId, expiration);
+                }
+            });
+        }
+    }
+
+    /**
+     * A Bloom filter of strings, its bits being set with atomic operations.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((optimalBits + 63) / 64));
+            this.bitCount = 64L * bits.length();
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String value) {
+            long hash = hash(value);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(first + i * second, bitCount);
+                long mask = 1L << bit;
+                bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(first + i * second, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
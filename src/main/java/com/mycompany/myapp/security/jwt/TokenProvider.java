@@ -7,7 +7,11 @@ import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +33,12 @@ public class TokenProvider {
 
     private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
+    /**
+     * The maximum number of verified tokens kept. The expired ones are swept when it is reached, and an arbitrary one
+     * is dropped to make room for a new one only if none has expired.
+     */
+    static final int MAX_VERIFIED_TOKENS = 10_000;
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -39,7 +49,18 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    private final RevokedTokens revokedTokens;
+
+    private final ConcurrentMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private final int maxVerifiedTokens;
+
+    /**
+     * The earliest expiration of the kept tokens, as of the last sweep, before which sweeping would remove nothing.
+     */
+    private volatile long nextSweep = Long.MAX_VALUE;
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService, RevokedTokens revokedTokens) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -60,6 +81,8 @@ public class TokenProvider {
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+        this.revokedTokens = revokedTokens;
+        this.maxVerifiedTokens = MAX_VERIFIED_TOKENS;
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -75,6 +98,7 @@ public class TokenProvider {
 
         return Jwts
             .builder()
+            .setId(UUID.randomUUID().toString())
             .setSubject(authentication.getName())
             .claim(AUTHORITIES_KEY, authorities)
             .signWith(key, SignatureAlgorithm.HS512)
@@ -82,25 +106,42 @@ public class TokenProvider {
             .compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
-
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Parse and verify a token.
+     *
+     * @param token the token.
+     * @return the claims of the token.
+     * @throws JwtException if the token is invalid or expired.
+     */
+    public Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Validate a token and get its authentication, parsing and verifying it only the first time it is presented until
+     * it expires. Its revocation is checked every time.
+     *
+     * @param authToken the token.
+     * @return the authentication of the token, or empty if it is invalid.
+     */
+    public Optional<Authentication> authenticate(String authToken) {
+        String digest = digest(authToken);
+        VerifiedToken verifiedToken = verifiedTokens.get(digest);
+        if (verifiedToken != null && verifiedToken.expiration > System.currentTimeMillis()) {
+            this.securityMetersService.trackTokenCacheHit();
+            return authenticationIfNotRevoked(verifiedToken, authToken);
+        }
+        if (verifiedToken != null) {
+            verifiedTokens.remove(digest, verifiedToken);
+        }
+        this.securityMetersService.trackTokenCacheMiss();
         try {
-            jwtParser.parseClaimsJws(authToken);
-
-            return true;
+            verifiedToken = verifiedToken(jwtParser.parseClaimsJws(authToken).getBody());
+            // Tokens without an expiration are not kept, as nothing would tell when to drop them
+            if (verifiedToken.expiration != Long.MAX_VALUE) {
+                keep(digest, verifiedToken);
+            }
+            return authenticationIfNotRevoked(verifiedToken, authToken);
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -121,6 +162,81 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    private void keep(String digest, VerifiedToken verifiedToken) {
+        if (verifiedTokens.size() >= maxVerifiedTokens) {
+            long now = System.currentTimeMillis();
+            if (nextSweep <= now) {
+                verifiedTokens.values().removeIf(kept -> kept.expiration <= now);
+                nextSweep =
+                    verifiedTokens.values().stream().mapToLong(kept -> kept.expiration).min().orElse(Long.MAX_VALUE);
+            }
+            if (verifiedTokens.size() >= maxVerifiedTokens) {
+                verifiedTokens.keySet().stream().findAny().ifPresent(verifiedTokens::remove);
+            }
+        }
+        verifiedTokens.put(digest, verifiedToken);
+        if (verifiedToken.expiration < nextSweep) {
+            nextSweep = verifiedToken.expiration;
+        }
+    }
+
+    private Optional<Authentication> authenticationIfNotRevoked(VerifiedToken verifiedToken, String token) {
+        if (verifiedToken.id != null && revokedTokens.isRevoked(verifiedToken.id)) {
+            this.securityMetersService.trackTokenRevoked();
+            log.trace("Revoked JWT token {}", verifiedToken.id);
+            return Optional.empty();
+        }
+        return Optional.of(authentication(verifiedToken, token));
+    }
+
+    private static VerifiedToken verifiedToken(Claims claims) {
+        Collection<GrantedAuthority> authorities = Arrays
+            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .filter(auth -> !auth.trim().isEmpty())
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toUnmodifiableList());
+
+        User principal = new User(claims.getSubject(), "", authorities);
+
+        long expiration = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        return new VerifiedToken(claims.getId(), principal, authorities, expiration);
+    }
+
+    private static Authentication authentication(VerifiedToken verifiedToken, String token) {
+        // A new authentication for every request, as it is mutable
+        return new UsernamePasswordAuthenticationToken(verifiedToken.principal, token, verifiedToken.authorities);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The id, principal and authorities of a token whose signature was verified, until it expires.
+     */
+    private static final class VerifiedToken {
+
+        private final String id;
+
+        private final User principal;
+
+        private final Collection<GrantedAuthority> authorities;
+
+        private final long expiration;
+
+        private VerifiedToken(String id, User principal, Collection<GrantedAuthority> authorities, long expiration) {
+            this.id = id;
+            this.principal = principal;
+            this.authorities = authorities;
+            this.expiration = expiration;
+        }
     }
 }
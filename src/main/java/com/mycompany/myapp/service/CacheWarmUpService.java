@@ -0,0 +1,241 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service preloading the cache regions at startup, so that the first requests after a deploy do not all miss the
+ * second-level cache.
+ * <p>
+ * The entities of the {@link #ENTITY_REGIONS} are read in batches of increasing ids, each batch in its own
+ * transaction, Hibernate putting them in their region as they are loaded. The users listed in
+ * {@code application.cache.warm-up.logins} are then put in the {@link UserRepository#USERS_BY_LOGIN_CACHE} cache.
+ * The application is not ready until the warm-up is complete, see
+ * {@link com.mycompany.myapp.management.CacheWarmUpHealthIndicator}.
+ */
+@Service
+public class CacheWarmUpService {
+
+    public static final String PROGRESS_GAUGE_NAME = "cache.warmup.progress";
+    public static final String DURATION_TIMER_NAME = "cache.warmup.duration";
+
+    /**
+     * The preloaded entities, in this order: the marcas are loaded before the modelos, which refer to them.
+     */
+    static final List<Class<?>> ENTITY_REGIONS = List.of(Authority.class, Marca.class, Modelo.class);
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final EntityManager entityManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final UserRepository userRepository;
+
+    private final CacheManager cacheManager;
+
+    private final ApplicationProperties.Cache.WarmUp warmUp;
+
+    private final Executor taskExecutor;
+
+    private final Timer durationTimer;
+
+    private final Map<String, Long> loaded = new ConcurrentHashMap<>();
+
+    private final AtomicLong loadedTotal = new AtomicLong();
+
+    private volatile long expectedTotal;
+
+    private volatile boolean complete;
+
+    private volatile Duration duration;
+
+    public CacheWarmUpService(
+        EntityManager entityManager,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        UserRepository userRepository,
+        CacheManager cacheManager,
+        ApplicationProperties applicationProperties,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        MeterRegistry registry
+    ) {
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.warmUp = applicationProperties.getCache().getWarmUp();
+        this.taskExecutor = taskExecutor;
+        this.complete = !warmUp.isEnabled();
+        this.durationTimer = Timer.builder(DURATION_TIMER_NAME).description("Time taken to preload the caches.").register(registry);
+        Gauge
+            .builder(PROGRESS_GAUGE_NAME, this, CacheWarmUpService::getProgress)
+            .description("Fraction of the entries preloaded in the caches.")
+            .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (warmUp.isEnabled()) {
+            taskExecutor.execute(this::warmUp);
+        }
+    }
+
+    /**
+     * Preload the caches, and mark the warm-up as complete, even when it fails: the caches are then filled by the
+     * requests, as they are without warm-up.
+     */
+    public void warmUp() {
+        log.info("Warming up the caches");
+        long start = System.nanoTime();
+        try {
+            boolean secondLevelCache = entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getSessionFactoryOptions()
+                .isSecondLevelCacheEnabled();
+            List<Class<?>> entities = secondLevelCache ? ENTITY_REGIONS : List.of();
+            long expected = warmUp.getLogins().size();
+            for (Class<?> entity : entities) {
+                expected += transactionTemplate.execute(status -> count(entity));
+            }
+            expectedTotal = expected;
+            for (Class<?> entity : entities) {
+                warmUpRegion(entity);
+            }
+            warmUpUsers();
+        } catch (RuntimeException e) {
+            log.error("Could not warm up the caches", e);
+        } finally {
+            duration = Duration.ofNanos(System.nanoTime() - start);
+            durationTimer.record(duration);
+            complete = true;
+        }
+        log.info("Warmed up the caches in {} ms: {}", duration.toMillis(), loaded);
+    }
+
+    /**
+     * @return whether the warm-up is over, or disabled.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the fraction of the entries preloaded so far, from 0 to 1.
+     */
+    public double getProgress() {
+        if (complete) {
+            return 1;
+        }
+        long expected = expectedTotal;
+        if (expected == 0) {
+            return 0;
+        }
+        return Math.min(1, (double) loadedTotal.get() / expected);
+    }
+
+    /**
+     * @return the number of entries preloaded so far, by cache name.
+     */
+    public Map<String, Long> getLoaded() {
+        return new LinkedHashMap<>(loaded);
+    }
+
+    /**
+     * @return the duration of the warm-up, or {@code null} while it runs.
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    private long count(Class<?> entity) {
+        return entityManager
+            .createQuery("select count(e) from " + entityManager.getMetamodel().entity(entity).getName() + " e", Long.class)
+            .getSingleResult();
+    }
+
+    private void warmUpRegion(Class<?> entity) {
+        EntityType<?> type = entityManager.getMetamodel().entity(entity);
+        String id = type.getId(type.getIdType().getJavaType()).getName();
+        String select = "select e from " + type.getName() + " e ";
+        String order = "order by e." + id;
+        Object after = null;
+        while (true) {
+            Object last = after;
+            List<?> batch = transactionTemplate.execute(
+                status -> {
+                    TypedQuery<?> query;
+                    if (last == null) {
+                        query = entityManager.createQuery(select + order, entity);
+                    } else {
+                        query = entityManager.createQuery(select + "where e." + id + " > :after " + order, entity);
+                        query.setParameter("after", last);
+                    }
+                    return query.setMaxResults(warmUp.getBatchSize()).getResultList();
+                }
+            );
+            if (batch.isEmpty()) {
+                return;
+            }
+            addLoaded(entity.getName(), batch.size());
+            after = entityManagerFactory.getPersistenceUnitUtil().getIdentifier(batch.get(batch.size() - 1));
+            if (batch.size() < warmUp.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    private void warmUpUsers() {
+        List<String> logins = warmUp.getLogins();
+        if (logins.isEmpty()) {
+            return;
+        }
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE));
+        for (int from = 0; from < logins.size(); from += warmUp.getBatchSize()) {
+            List<String> chunk = logins.subList(from, Math.min(from + warmUp.getBatchSize(), logins.size()));
+            List<User> users = transactionTemplate.execute(status -> userRepository.findAllWithAuthoritiesByLoginIn(chunk));
+            // Cached as UserRepository#findOneWithAuthoritiesByLogin caches them: the user itself, by login
+            users.forEach(user -> cache.put(user.getLogin(), user));
+            addLoaded(UserRepository.USERS_BY_LOGIN_CACHE, users.size());
+        }
+    }
+
+    private void addLoaded(String cacheName, long count) {
+        loaded.merge(cacheName, count, Long::sum);
+        loadedTotal.addAndGet(count);
+    }
+}
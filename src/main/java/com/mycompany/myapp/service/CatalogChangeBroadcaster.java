@@ -0,0 +1,47 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.CacheInvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Service telling the other nodes that the catalog changed, so that they refresh their in-memory views of it.
+ * <p>
+ * Every committed {@link CatalogChangedEvent} is sent on the {@link CacheInvalidationBus} as a clear of the
+ * {@link #CHANNEL}, which no cache is named after. Nothing is sent when the bus is not configured, the node being
+ * then alone, or left to the periodic rebuilds.
+ */
+@Service
+public class CatalogChangeBroadcaster {
+
+    public static final String CHANNEL = "catalog";
+
+    private final Logger log = LoggerFactory.getLogger(CatalogChangeBroadcaster.class);
+
+    private final ObjectProvider<CacheInvalidationBus> cacheInvalidationBus;
+
+    public CatalogChangeBroadcaster(ObjectProvider<CacheInvalidationBus> cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * Run a listener whenever another node changes the catalog. The listener runs on the thread receiving the
+     * invalidations, so it must hand any long work over.
+     *
+     * @param listener the listener.
+     */
+    public void onRemoteChange(Runnable listener) {
+        cacheInvalidationBus.ifAvailable(bus -> bus.onClear(CHANNEL, listener));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        cacheInvalidationBus.ifAvailable(bus -> {
+            log.debug("Telling the other nodes that the catalog changed: {}", event);
+            bus.publishClear(CHANNEL);
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.mycompany.myapp.service;
+
+/**
+ * Event published when modelos or marcas are written, so that the in-memory views of the catalog are refreshed
+ * once the transaction commits.
+ */
+public final class CatalogChangedEvent {
+
+    private final Class<?> entity;
+
+    public CatalogChangedEvent(Class<?> entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * @return the type of the entity that changed.
+     */
+    public Class<?> getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogChangedEvent{entity=" + entity.getSimpleName() + "}";
+    }
+}
@@ -0,0 +1,636 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.service.criteria.ModeloCriteria;
+import com.mycompany.myapp.service.dto.ModeloFacetsDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * An immutable, column oriented copy of the whole {@link Modelo} catalog.
+ * <p>
+ * Every column is a primitive array indexed by row, rows being in id order. Colors and marcas are dictionary
+ * encoded, with the set of rows of each dictionary value kept as a {@link BitSet}, and the rows are pre-sorted on
+ * every sortable column. A query is then a pass over the columns: the filters clear bits of a single {@link BitSet}
+ * of candidate rows, and a page is read by walking the pre-sorted rows, without any per-row allocation.
+ * <p>
+ * Filters follow the semantics of {@link ModeloQueryService}, so that the same {@link ModeloCriteria} selects the
+ * same modelos from the snapshot and from the database.
+ */
+public final class CatalogSnapshot {
+
+    private static final String ID = "id";
+
+    private final int size;
+
+    private final Instant builtAt;
+
+    private final long[] id;
+
+    private final String[] modelo;
+
+    private final String[] numeroSerie;
+
+    private final int[] potencia;
+
+    private final BitSet potenciaNull;
+
+    private final int[] plazas;
+
+    private final BitSet plazasNull;
+
+    private final double[] precio;
+
+    private final BitSet precioNull;
+
+    private final Dictionary<String> color;
+
+    private final Dictionary<Long> marca;
+
+    private final String[] marcaNames;
+
+    private final Map<String, int[]> sortedRows;
+
+    private CatalogSnapshot(Builder builder, Instant builtAt) {
+        this.size = builder.size;
+        this.builtAt = builtAt;
+        this.id = Arrays.copyOf(builder.id, size);
+        this.modelo = Arrays.copyOf(builder.modelo, size);
+        this.numeroSerie = Arrays.copyOf(builder.numeroSerie, size);
+        this.potencia = Arrays.copyOf(builder.potencia, size);
+        this.potenciaNull = builder.potenciaNull;
+        this.plazas = Arrays.copyOf(builder.plazas, size);
+        this.plazasNull = builder.plazasNull;
+        this.precio = Arrays.copyOf(builder.precio, size);
+        this.precioNull = builder.precioNull;
+        this.color = builder.color.build(size);
+        this.marca = builder.marca.build(size);
+        this.marcaNames = builder.marcaNames.toArray(new String[0]);
+
+        Map<String, int[]> sorted = new LinkedHashMap<>();
+        int[] byId = new int[size];
+        Arrays.setAll(byId, row -> row);
+        sorted.put(ID, byId);
+        sorted.put("modelo", sortRows((a, b) -> compareNullsFirst(modelo[a], modelo[b])));
+        sorted.put("color", sortRows((a, b) -> compareNullsFirst(color.valueOf(a), color.valueOf(b))));
+        sorted.put("potencia", sortRows((a, b) -> compareNullsFirst(potenciaNull, a, b, Integer.compare(potencia[a], potencia[b]))));
+        sorted.put("plazas", sortRows((a, b) -> compareNullsFirst(plazasNull, a, b, Integer.compare(plazas[a], plazas[b]))));
+        sorted.put("precio", sortRows((a, b) -> compareNullsFirst(precioNull, a, b, Double.compare(precio[a], precio[b]))));
+        this.sortedRows = Collections.unmodifiableMap(sorted);
+    }
+
+    /**
+     * @return an empty snapshot.
+     */
+    public static CatalogSnapshot empty() {
+        return builder().build(Instant.EPOCH);
+    }
+
+    /**
+     * @return a builder, to which the modelos must be added in id order.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of modelos in the snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return when the catalog was read from the database.
+     */
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * @return the properties a page of the snapshot can be sorted on.
+     */
+    public Set<String> getSortableProperties() {
+        return sortedRows.keySet();
+    }
+
+    /**
+     * Return a {@link Page} of the modelos matching the criteria, sorted on the first order of the pageable, then
+     * on id.
+     *
+     * @param criteria the filters, or {@code null} for the whole catalog.
+     * @param pageable the page, sorted on at most one of the sortable properties.
+     * @return the matching modelos.
+     * @throws IllegalArgumentException if the sort property is not sortable.
+     */
+    public Page<Modelo> findAll(ModeloCriteria criteria, Pageable pageable) {
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc(ID));
+        int[] rows = sortedRows.get(order.getProperty());
+        if (rows == null) {
+            throw new IllegalArgumentException("The catalog cannot be sorted on " + order.getProperty());
+        }
+        BitSet matches = match(criteria);
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : size;
+        List<Modelo> content = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < size && content.size() < limit; i++) {
+            int row = rows[order.isAscending() ? i : size - 1 - i];
+            if (!matches.get(row)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+            } else {
+                content.add(toModelo(row));
+            }
+        }
+        return new PageImpl<>(content, pageable, matches.cardinality());
+    }
+
+    /**
+     * Return the number of modelos matching the criteria.
+     *
+     * @param criteria the filters, or {@code null} for the whole catalog.
+     * @return the number of matching modelos.
+     */
+    public long count(ModeloCriteria criteria) {
+        return match(criteria).cardinality();
+    }
+
+    /**
+     * Compute the facets of the modelos matching the criteria, in a single pass over the matching rows.
+     *
+     * @param criteria the filters, or {@code null} for the whole catalog.
+     * @return the facets.
+     */
+    public ModeloFacetsDTO facets(ModeloCriteria criteria) {
+        BitSet matches = match(criteria);
+        long[] colorCounts = new long[color.values.size() + 1];
+        long[] marcaCounts = new long[marca.values.size() + 1];
+        long[] precioCounts = new long[ModeloFacetsBuilder.PRECIO_BUCKETS.length + 1];
+        Map<Integer, long[]> plazasCounts = new HashMap<>();
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            colorCounts[color.codes[row] + 1]++;
+            marcaCounts[marca.codes[row] + 1]++;
+            precioCounts[precioNull.get(row) ? 0 : ModeloFacetsBuilder.precioBucket(precio[row]) + 1]++;
+            plazasCounts.computeIfAbsent(plazasNull.get(row) ? null : plazas[row], p -> new long[1])[0]++;
+        }
+
+        ModeloFacetsBuilder facets = new ModeloFacetsBuilder().addTotal(matches.cardinality());
+        for (int code = -1; code < color.values.size(); code++) {
+            facets.addColor(code < 0 ? null : color.values.get(code), colorCounts[code + 1]);
+        }
+        for (int code = -1; code < marca.values.size(); code++) {
+            facets.addMarca(code < 0 ? null : marca.values.get(code), code < 0 ? null : marcaNames[code], marcaCounts[code + 1]);
+        }
+        for (int bucket = -1; bucket < ModeloFacetsBuilder.PRECIO_BUCKETS.length; bucket++) {
+            facets.addPrecioBucket(bucket, precioCounts[bucket + 1]);
+        }
+        plazasCounts.forEach((plaza, count) -> facets.addPlazas(plaza, count[0]));
+        return facets.build();
+    }
+
+    private BitSet match(ModeloCriteria criteria) {
+        BitSet matches = new BitSet(size);
+        matches.set(0, size);
+        if (criteria == null) {
+            return matches;
+        }
+        color.filter(matches, criteria.getColor());
+        marca.filter(matches, criteria.getMarcaId());
+        filterNumeric(matches, criteria.getId(), row -> false, row -> id[row]);
+        filterNumeric(matches, criteria.getPotencia(), potenciaNull::get, row -> potencia[row]);
+        filterNumeric(matches, criteria.getPlazas(), plazasNull::get, row -> plazas[row]);
+        filterNumeric(matches, criteria.getPrecio(), precioNull::get, row -> precio[row]);
+        StringFilter modeloFilter = criteria.getModelo();
+        if (modeloFilter != null) {
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                if (!test(modeloFilter, modelo[row])) {
+                    matches.clear(row);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void filterNumeric(BitSet matches, RangeFilter<? extends Number> filter, RowTest isNull, RowValue value) {
+        if (filter == null) {
+            return;
+        }
+        NumericPredicate predicate = new NumericPredicate(filter);
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            if (!predicate.test(value.get(row), isNull.test(row))) {
+                matches.clear(row);
+            }
+        }
+    }
+
+    private Modelo toModelo(int row) {
+        Modelo result = new Modelo()
+            .id(id[row])
+            .modelo(modelo[row])
+            .color(color.valueOf(row))
+            .potencia(potenciaNull.get(row) ? null : potencia[row])
+            .plazas(plazasNull.get(row) ? null : plazas[row])
+            .precio(precioNull.get(row) ? null : precio[row]);
+        result.setNumero_serie(numeroSerie[row]);
+        int marcaCode = marca.codes[row];
+        if (marcaCode >= 0) {
+            result.setMarca(new Marca().id(marca.values.get(marcaCode)).marca(marcaNames[marcaCode]));
+        }
+        return result;
+    }
+
+    private int[] sortRows(RowComparator comparator) {
+        // Bottom-up merge sort of the row numbers: stable, so rows comparing equal stay in id order
+        int[] rows = new int[size];
+        Arrays.setAll(rows, row -> row);
+        int[] buffer = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size - width; low += 2 * width) {
+                int middle = low + width;
+                int high = Math.min(low + 2 * width, size);
+                int i = low;
+                int j = middle;
+                int k = low;
+                while (i < middle && j < high) {
+                    buffer[k++] = comparator.compare(rows[j], rows[i]) < 0 ? rows[j++] : rows[i++];
+                }
+                while (i < middle) {
+                    buffer[k++] = rows[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = rows[j++];
+                }
+                System.arraycopy(buffer, low, rows, low, high - low);
+            }
+        }
+        return rows;
+    }
+
+    private static <T extends Comparable<? super T>> int compareNullsFirst(T a, T b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static int compareNullsFirst(BitSet nulls, int a, int b, int comparison) {
+        boolean aNull = nulls.get(a);
+        boolean bNull = nulls.get(b);
+        if (aNull || bNull) {
+            return aNull ? (bNull ? 0 : -1) : 1;
+        }
+        return comparison;
+    }
+
+    /**
+     * Test a value against a filter, as {@link tech.jhipster.service.QueryService} does in SQL: {@code equals} then
+     * {@code in} take precedence, and a {@code null} value only matches {@code specified=false} or an empty filter.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <T> boolean test(Filter<T> filter, T value) {
+        if (filter.getEquals() != null) {
+            return value != null && filter.getEquals().equals(value);
+        }
+        if (filter.getIn() != null) {
+            return value != null && filter.getIn().contains(value);
+        }
+        RangeFilter range = filter instanceof RangeFilter ? (RangeFilter) filter : null;
+        StringFilter string = filter instanceof StringFilter ? (StringFilter) filter : null;
+        if (value == null) {
+            boolean conditions =
+                filter.getNotEquals() != null ||
+                filter.getNotIn() != null ||
+                (range != null &&
+                    (range.getGreaterThan() != null ||
+                        range.getGreaterThanOrEqual() != null ||
+                        range.getLessThan() != null ||
+                        range.getLessThanOrEqual() != null)) ||
+                (string != null && (string.getContains() != null || string.getDoesNotContain() != null));
+            return !conditions && !Boolean.TRUE.equals(filter.getSpecified());
+        }
+        if (Boolean.FALSE.equals(filter.getSpecified())) {
+            return false;
+        }
+        if (filter.getNotEquals() != null && filter.getNotEquals().equals(value)) {
+            return false;
+        }
+        if (filter.getNotIn() != null && filter.getNotIn().contains(value)) {
+            return false;
+        }
+        if (string != null) {
+            String text = (String) value;
+            if (string.getContains() != null && !containsIgnoreCase(text, string.getContains())) {
+                return false;
+            }
+            if (string.getDoesNotContain() != null && containsIgnoreCase(text, string.getDoesNotContain())) {
+                return false;
+            }
+        }
+        if (range != null) {
+            Comparable comparable = (Comparable) value;
+            return (
+                (range.getGreaterThan() == null || comparable.compareTo(range.getGreaterThan()) > 0) &&
+                (range.getGreaterThanOrEqual() == null || comparable.compareTo(range.getGreaterThanOrEqual()) >= 0) &&
+                (range.getLessThan() == null || comparable.compareTo(range.getLessThan()) < 0) &&
+                (range.getLessThanOrEqual() == null || comparable.compareTo(range.getLessThanOrEqual()) <= 0)
+            );
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(String text, String part) {
+        for (int i = 0; i + part.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A {@link RangeFilter} on a numeric column, unboxed once so that testing a row does not allocate.
+     */
+    private static final class NumericPredicate {
+
+        private final Boolean specified;
+
+        private final double equals;
+
+        private final double[] in;
+
+        private final double notEquals;
+
+        private final double[] notIn;
+
+        private final double greaterThan;
+
+        private final double greaterThanOrEqual;
+
+        private final double lessThan;
+
+        private final double lessThanOrEqual;
+
+        private final boolean conditions;
+
+        NumericPredicate(RangeFilter<? extends Number> filter) {
+            this.specified = filter.getSpecified();
+            this.equals = unbox(filter.getEquals());
+            this.in = unbox(filter.getIn());
+            this.notEquals = unbox(filter.getNotEquals());
+            this.notIn = unbox(filter.getNotIn());
+            this.greaterThan = unbox(filter.getGreaterThan());
+            this.greaterThanOrEqual = unbox(filter.getGreaterThanOrEqual());
+            this.lessThan = unbox(filter.getLessThan());
+            this.lessThanOrEqual = unbox(filter.getLessThanOrEqual());
+            this.conditions =
+                notIn != null ||
+                !Double.isNaN(notEquals) ||
+                !Double.isNaN(greaterThan) ||
+                !Double.isNaN(greaterThanOrEqual) ||
+                !Double.isNaN(lessThan) ||
+                !Double.isNaN(lessThanOrEqual);
+        }
+
+        boolean test(double value, boolean isNull) {
+            if (!Double.isNaN(equals)) {
+                return !isNull && value == equals;
+            }
+            if (in != null) {
+                return !isNull && contains(in, value);
+            }
+            if (isNull) {
+                return !conditions && !Boolean.TRUE.equals(specified);
+            }
+            return (
+                !Boolean.FALSE.equals(specified) &&
+                (Double.isNaN(notEquals) || value != notEquals) &&
+                (notIn == null || !contains(notIn, value)) &&
+                (Double.isNaN(greaterThan) || value > greaterThan) &&
+                (Double.isNaN(greaterThanOrEqual) || value >= greaterThanOrEqual) &&
+                (Double.isNaN(lessThan) || value < lessThan) &&
+                (Double.isNaN(lessThanOrEqual) || value <= lessThanOrEqual)
+            );
+        }
+
+        private static boolean contains(double[] values, double value) {
+            for (double candidate : values) {
+                if (candidate == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static double unbox(Number value) {
+            return value == null ? Double.NaN : value.doubleValue();
+        }
+
+        private static double[] unbox(List<? extends Number> values) {
+            return values == null ? null : values.stream().mapToDouble(Number::doubleValue).toArray();
+        }
+    }
+
+    /**
+     * A dictionary encoded column: the distinct values, the code of each row ({@code -1} for {@code null}), and the
+     * rows of each value.
+     */
+    private static final class Dictionary<T> {
+
+        private final List<T> values;
+
+        private final int[] codes;
+
+        private final BitSet[] rows;
+
+        private final BitSet nullRows;
+
+        private Dictionary(List<T> values, int[] codes, BitSet[] rows, BitSet nullRows) {
+            this.values = values;
+            this.codes = codes;
+            this.rows = rows;
+            this.nullRows = nullRows;
+        }
+
+        T valueOf(int row) {
+            return codes[row] < 0 ? null : values.get(codes[row]);
+        }
+
+        /**
+         * Keep the rows whose value matches the filter: the filter is tested once per distinct value, and the rows
+         * of the matching values are kept with their bitsets.
+         */
+        void filter(BitSet matches, Filter<T> filter) {
+            if (filter == null) {
+                return;
+            }
+            BitSet allowed = new BitSet(matches.size());
+            if (test(filter, null)) {
+                allowed.or(nullRows);
+            }
+            for (int code = 0; code < values.size(); code++) {
+                if (test(filter, values.get(code))) {
+                    allowed.or(rows[code]);
+                }
+            }
+            matches.and(allowed);
+        }
+    }
+
+    private static final class DictionaryBuilder<T> {
+
+        private final Map<T, Integer> codesByValue = new HashMap<>();
+
+        private final List<T> values = new ArrayList<>();
+
+        private int[] codes = new int[Builder.INITIAL_CAPACITY];
+
+        /**
+         * @return the code of the value, a new one for a value not seen yet.
+         */
+        int add(int row, T value) {
+            if (row == codes.length) {
+                codes = Arrays.copyOf(codes, row * 2);
+            }
+            int code = -1;
+            if (value != null) {
+                code =
+                    codesByValue.computeIfAbsent(
+                        value,
+                        v -> {
+                            values.add(v);
+                            return values.size() - 1;
+                        }
+                    );
+            }
+            codes[row] = code;
+            return code;
+        }
+
+        Dictionary<T> build(int size) {
+            BitSet[] rows = new BitSet[values.size()];
+            Arrays.setAll(rows, code -> new BitSet(size));
+            BitSet nullRows = new BitSet(size);
+            for (int row = 0; row < size; row++) {
+                if (codes[row] < 0) {
+                    nullRows.set(row);
+                } else {
+                    rows[codes[row]].set(row);
+                }
+            }
+            return new Dictionary<>(List.copyOf(values), Arrays.copyOf(codes, size), rows, nullRows);
+        }
+    }
+
+    /**
+     * Builder of a {@link CatalogSnapshot}, filled one modelo at a time.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int size;
+
+        private long[] id = new long[INITIAL_CAPACITY];
+
+        private String[] modelo = new String[INITIAL_CAPACITY];
+
+        private String[] numeroSerie = new String[INITIAL_CAPACITY];
+
+        private int[] potencia = new int[INITIAL_CAPACITY];
+
+        private final BitSet potenciaNull = new BitSet();
+
+        private int[] plazas = new int[INITIAL_CAPACITY];
+
+        private final BitSet plazasNull = new BitSet();
+
+        private double[] precio = new double[INITIAL_CAPACITY];
+
+        private final BitSet precioNull = new BitSet();
+
+        private final DictionaryBuilder<String> color = new DictionaryBuilder<>();
+
+        private final DictionaryBuilder<Long> marca = new DictionaryBuilder<>();
+
+        private final List<String> marcaNames = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * Add a modelo, with a greater id than the ones already added.
+         *
+         * @param source the modelo, with its marca loaded.
+         * @return this builder.
+         */
+        public Builder add(Modelo source) {
+            if (size == id.length) {
+                int capacity = size * 2;
+                id = Arrays.copyOf(id, capacity);
+                modelo = Arrays.copyOf(modelo, capacity);
+                numeroSerie = Arrays.copyOf(numeroSerie, capacity);
+                potencia = Arrays.copyOf(potencia, capacity);
+                plazas = Arrays.copyOf(plazas, capacity);
+                precio = Arrays.copyOf(precio, capacity);
+            }
+            int row = size++;
+            id[row] = source.getId();
+            modelo[row] = source.getModelo();
+            numeroSerie[row] = source.getNumero_serie();
+            potencia[row] = Objects.requireNonNullElse(source.getPotencia(), 0);
+            potenciaNull.set(row, source.getPotencia() == null);
+            plazas[row] = Objects.requireNonNullElse(source.getPlazas(), 0);
+            plazasNull.set(row, source.getPlazas() == null);
+            precio[row] = Objects.requireNonNullElse(source.getPrecio(), 0d);
+            precioNull.set(row, source.getPrecio() == null);
+            color.add(row, source.getColor());
+            Marca sourceMarca = source.getMarca();
+            int marcaCode = marca.add(row, sourceMarca == null ? null : sourceMarca.getId());
+            if (marcaCode == marcaNames.size()) {
+                marcaNames.add(sourceMarca.getMarca());
+            }
+            return this;
+        }
+
+        /**
+         * @param builtAt when the modelos were read.
+         * @return the snapshot of the added modelos.
+         */
+        public CatalogSnapshot build(Instant builtAt) {
+            return new CatalogSnapshot(this, builtAt);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    @FunctionalInterface
+    private interface RowTest {
+        boolean test(int row);
+    }
+
+    @FunctionalInterface
+    private interface RowValue {
+        double get(int row);
+    }
+}
@@ -0,0 +1,277 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.repository.MarcaRepository;
+import com.mycompany.myapp.repository.ModeloRepository;
+import com.mycompany.myapp.service.criteria.ModeloCriteria;
+import com.mycompany.myapp.service.dto.CatalogSuggestionDTO;
+import com.mycompany.myapp.service.dto.ModeloFacetsDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service serving the catalog reads from an in-memory {@link CatalogSnapshot} and {@link CatalogSuggestIndex}, so that
+ * browsing the catalog does not reach the database.
+ * <p>
+ * Both are replaced copy-on-write: new ones are built in the background after every committed
+ * {@link CatalogChangedEvent}, while the queries keep reading the previous ones. Bursts of changes are coalesced into
+ * a single rebuild. The changes made by the other nodes, notified by the {@link CatalogChangeBroadcaster}, are
+ * rebuilt the same way, and a rebuild every {@code application.catalog.refresh-period} catches up with the ones whose
+ * notice was lost.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    public static final String REBUILD_TIMER_NAME = "catalog.snapshot.rebuild";
+    public static final String QUERY_TIMER_NAME = "catalog.snapshot.query";
+    public static final String SIZE_GAUGE_NAME = "catalog.snapshot.size";
+    public static final String SUGGEST_TIMER_NAME = "catalog.suggest";
+
+    /**
+     * The maximum number of suggestions returned at once.
+     */
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final ModeloRepository modeloRepository;
+
+    private final MarcaRepository marcaRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final TaskScheduler taskScheduler;
+
+    private final CatalogChangeBroadcaster catalogChangeBroadcaster;
+
+    private final Duration refreshPeriod;
+
+    private final Timer rebuildTimer;
+
+    private final Timer queryTimer;
+
+    private final Timer suggestTimer;
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Catalog catalog;
+
+    public CatalogSnapshotService(
+        ModeloRepository modeloRepository,
+        MarcaRepository marcaRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        TaskScheduler taskScheduler,
+        CatalogChangeBroadcaster catalogChangeBroadcaster,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.modeloRepository = modeloRepository;
+        this.marcaRepository = marcaRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        this.taskScheduler = taskScheduler;
+        this.catalogChangeBroadcaster = catalogChangeBroadcaster;
+        this.refreshPeriod = applicationProperties.getCatalog().getRefreshPeriod();
+        this.rebuildTimer =
+            Timer.builder(REBUILD_TIMER_NAME).description("Time taken to rebuild the catalog snapshot.").register(registry);
+        this.queryTimer =
+            Timer
+                .builder(QUERY_TIMER_NAME)
+                .description("Time taken to query the catalog snapshot.")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.suggestTimer =
+            Timer
+                .builder(SUGGEST_TIMER_NAME)
+                .description("Time taken to suggest names of the catalog.")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge
+            .builder(SIZE_GAUGE_NAME, this, service -> service.catalog == null ? 0 : service.catalog.snapshot.size())
+            .description("Number of modelos in the catalog snapshot.")
+            .register(registry);
+    }
+
+    /**
+     * Return a {@link Page} of the modelos matching the criteria, from the snapshot.
+     *
+     * @param criteria the filters, or {@code null} for the whole catalog.
+     * @param pageable the page, sorted on at most one of the {@link CatalogSnapshot#getSortableProperties()}.
+     * @return the matching modelos.
+     * @throws IllegalArgumentException if the sort property is not sortable.
+     */
+    public Page<Modelo> findAll(ModeloCriteria criteria, Pageable pageable) {
+        log.debug("Request to get a page of the catalog by criteria : {}, page: {}", criteria, pageable);
+        return queryTimer.record(() -> getSnapshot().findAll(criteria, pageable));
+    }
+
+    /**
+     * Compute the facets of the modelos matching the criteria, from the snapshot.
+     *
+     * @param criteria the filters, or {@code null} for the whole catalog.
+     * @return the facets.
+     */
+    public ModeloFacetsDTO findFacets(ModeloCriteria criteria) {
+        log.debug("Request to get the facets of the catalog by criteria : {}", criteria);
+        return queryTimer.record(() -> getSnapshot().facets(criteria));
+    }
+
+    /**
+     * Suggest the names of marcas and modelos having a word starting with the query, ignoring case and accents.
+     *
+     * @param query the text typed so far.
+     * @param limit the maximum number of suggestions, capped to {@link #MAX_SUGGESTIONS}.
+     * @return the suggested names, the ones starting with the query and the most common first.
+     */
+    public List<CatalogSuggestionDTO> suggest(String query, int limit) {
+        log.debug("Request to suggest names of the catalog for : {}", query);
+        return suggestTimer.record(() -> getCatalog().suggestions.suggest(query, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * @return the current snapshot, built on the spot if there is none yet.
+     */
+    public CatalogSnapshot getSnapshot() {
+        return getCatalog().snapshot;
+    }
+
+    /**
+     * Read the whole catalog and replace the snapshot and the suggestions.
+     */
+    public synchronized void rebuild() {
+        catalog = rebuildTimer.record(() -> transactionTemplate.execute(status -> readCatalog()));
+        log.debug("Rebuilt the catalog snapshot with {} Modelos", catalog.snapshot.size());
+    }
+
+    /**
+     * Request a rebuild in the background. Requests made while a rebuild runs are served by one more rebuild.
+     */
+    public void requestRebuild() {
+        rebuildRequested.set(true);
+        if (rebuilding.compareAndSet(false, true)) {
+            taskExecutor.execute(this::rebuildWhileRequested);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+        catalogChangeBroadcaster.onRemoteChange(this::requestRebuild);
+        if (refreshPeriod != null) {
+            taskScheduler.scheduleWithFixedDelay(this::requestRebuild, Instant.now().plus(refreshPeriod), refreshPeriod);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        log.debug("Catalog changed: {}", event);
+        requestRebuild();
+    }
+
+    private void rebuildWhileRequested() {
+        try {
+            while (rebuildRequested.getAndSet(false)) {
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the catalog snapshot", e);
+        } finally {
+            rebuilding.set(false);
+        }
+        // A request may have come after the last check and before the flag was released
+        if (rebuildRequested.get() && rebuilding.compareAndSet(false, true)) {
+            taskExecutor.execute(this::rebuildWhileRequested);
+        }
+    }
+
+    private Catalog getCatalog() {
+        Catalog current = catalog;
+        if (current == null) {
+            synchronized (this) {
+                if (catalog == null) {
+                    rebuild();
+                }
+                current = catalog;
+            }
+        }
+        return current;
+    }
+
+    private Catalog readCatalog() {
+        Instant builtAt = Instant.now();
+        CatalogSnapshot.Builder snapshot = CatalogSnapshot.builder();
+        CatalogSuggestIndex.Builder suggestions = CatalogSuggestIndex.builder();
+        Map<Long, Long> modelosPerMarca = new HashMap<>();
+        long count = 0;
+        try (Stream<Modelo> modelos = modeloRepository.streamAllWithMarca()) {
+            Iterator<Modelo> iterator = modelos.iterator();
+            while (iterator.hasNext()) {
+                Modelo modelo = iterator.next();
+                snapshot.add(modelo);
+                suggestions.addModelo(modelo.getModelo());
+                if (modelo.getMarca() != null) {
+                    modelosPerMarca.merge(modelo.getMarca().getId(), 1L, Long::sum);
+                }
+                if (++count % ModeloRepository.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        for (Marca marca : marcaRepository.findAll()) {
+            suggestions.addMarca(marca.getId(), marca.getMarca(), modelosPerMarca.getOrDefault(marca.getId(), 0L));
+        }
+        return new Catalog(snapshot.build(builtAt), suggestions.build());
+    }
+
+    /**
+     * The snapshot and the suggestions read together, swapped at once.
+     */
+    private static final class Catalog {
+
+        private final CatalogSnapshot snapshot;
+
+        private final CatalogSuggestIndex suggestions;
+
+        private Catalog(CatalogSnapshot snapshot, CatalogSuggestIndex suggestions) {
+            this.snapshot = snapshot;
+            this.suggestions = suggestions;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.dto.CatalogSuggestionDTO;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable prefix index over the names of the marcas and of the modelos, to suggest names while typing.
+ * <p>
+ * Names are normalized to lower case without accents, and indexed from the start of each of their words: "A3
+ * Sportback" is found with "a3 sp" as well as with "sport". The keys are kept in a sorted array, so the keys starting
+ * with a prefix are a contiguous range found with two binary searches. Every key also has a rank, matches at the
+ * start of the name first and then the most common names, and the suggestions are the best ranked keys of the range:
+ * a narrow range is scanned, while a wide one is served by walking the keys in rank order until enough of them fall
+ * in the range.
+ */
+public final class CatalogSuggestIndex {
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator
+        .comparingLong((Entry entry) -> entry.count)
+        .reversed()
+        .thenComparingInt(entry -> entry.label.length())
+        .thenComparing(entry -> entry.label)
+        .thenComparing(entry -> entry.type);
+
+    private final Entry[] entries;
+
+    private final String[] keys;
+
+    private final int[] keyEntries;
+
+    private final int[] keyRanks;
+
+    private final int[] keysByRank;
+
+    private CatalogSuggestIndex(List<Entry> entries) {
+        List<Key> sortedKeys = new ArrayList<>();
+        for (Entry entry : entries) {
+            String name = normalize(entry.label);
+            for (int start = 0; start < name.length(); start++) {
+                if (start == 0 || name.charAt(start - 1) == ' ') {
+                    sortedKeys.add(new Key(name.substring(start), entry, start == 0));
+                }
+            }
+        }
+        sortedKeys.sort(Comparator.comparing(key -> key.text));
+        this.entries = entries.toArray(new Entry[0]);
+        this.keys = new String[sortedKeys.size()];
+        this.keyEntries = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Key key = sortedKeys.get(i);
+            key.index = i;
+            keys[i] = key.text;
+            keyEntries[i] = key.entry.index;
+        }
+
+        List<Key> rankedKeys = new ArrayList<>(sortedKeys);
+        rankedKeys.sort(Comparator.comparing((Key key) -> !key.atStart).thenComparing(key -> key.entry, ENTRY_ORDER));
+        this.keyRanks = new int[keys.length];
+        this.keysByRank = new int[keys.length];
+        for (int rank = 0; rank < keys.length; rank++) {
+            int index = rankedKeys.get(rank).index;
+            keyRanks[index] = rank;
+            keysByRank[rank] = index;
+        }
+    }
+
+    /**
+     * @return an empty index.
+     */
+    public static CatalogSuggestIndex empty() {
+        return builder().build();
+    }
+
+    /**
+     * @return a builder of an index.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Normalize a name or a query: lower case, without accents, and with the words separated by single spaces.
+     *
+     * @param text the text to normalize.
+     * @return the normalized text.
+     */
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean separator = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * @return the number of indexed names.
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Suggest the names having a word starting with the query.
+     *
+     * @param query the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the best ranked names, without duplicates.
+     */
+    public List<CatalogSuggestionDTO> suggest(String query, int limit) {
+        String prefix = query == null ? "" : normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int from = lowerBound(prefix);
+        int to = upperBound(prefix, from);
+        if (from == to) {
+            return List.of();
+        }
+        int[] best;
+        if ((long) (to - from) * (to - from) <= (long) limit * keys.length) {
+            best = scanRange(from, to, limit);
+        } else {
+            best = walkRanks(from, to, limit);
+        }
+
+        List<CatalogSuggestionDTO> suggestions = new ArrayList<>(best.length);
+        for (int key : best) {
+            Entry entry = entries[keyEntries[key]];
+            suggestions.add(new CatalogSuggestionDTO(entry.type, entry.id, entry.label, entry.count));
+        }
+        return suggestions;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Keep the best ranked keys of the range, one per name, in a small array sorted on rank.
+     */
+    private int[] scanRange(int from, int to, int limit) {
+        int[] best = new int[Math.min(limit, to - from)];
+        int size = 0;
+        for (int key = from; key < to; key++) {
+            int rank = keyRanks[key];
+            if (size == best.length && rank > keyRanks[best[size - 1]]) {
+                continue;
+            }
+            int duplicate = indexOfEntry(best, size, keyEntries[key]);
+            if (duplicate >= 0) {
+                if (rank > keyRanks[best[duplicate]]) {
+                    continue;
+                }
+                System.arraycopy(best, duplicate + 1, best, duplicate, size - duplicate - 1);
+                size--;
+            }
+            int position = size < best.length ? size++ : size - 1;
+            while (position > 0 && keyRanks[best[position - 1]] > rank) {
+                best[position] = best[position - 1];
+                position--;
+            }
+            best[position] = key;
+        }
+        return Arrays.copyOf(best, size);
+    }
+
+    /**
+     * Walk all the keys in rank order, keeping the ones in the range: the first ones found are the best ranked.
+     */
+    private int[] walkRanks(int from, int to, int limit) {
+        int[] best = new int[limit];
+        int size = 0;
+        for (int rank = 0; rank < keysByRank.length && size < limit; rank++) {
+            int key = keysByRank[rank];
+            if (key >= from && key < to && indexOfEntry(best, size, keyEntries[key]) < 0) {
+                best[size++] = key;
+            }
+        }
+        return Arrays.copyOf(best, size);
+    }
+
+    private int indexOfEntry(int[] best, int size, int entry) {
+        for (int i = 0; i < size; i++) {
+            if (keyEntries[best[i]] == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Entry {
+
+        private final int index;
+
+        private final CatalogSuggestionDTO.Type type;
+
+        private final Long id;
+
+        private final String label;
+
+        private long count;
+
+        private Entry(int index, CatalogSuggestionDTO.Type type, Long id, String label, long count) {
+            this.index = index;
+            this.type = type;
+            this.id = id;
+            this.label = label;
+            this.count = count;
+        }
+    }
+
+    private static final class Key {
+
+        private final String text;
+
+        private final Entry entry;
+
+        private final boolean atStart;
+
+        private int index;
+
+        private Key(String text, Entry entry, boolean atStart) {
+            this.text = text;
+            this.entry = entry;
+            this.atStart = atStart;
+        }
+    }
+
+    /**
+     * Builder of a {@link CatalogSuggestIndex}.
+     */
+    public static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private final Map<String, Entry> modelos = new HashMap<>();
+
+        private Builder() {}
+
+        /**
+         * Add the name of a marca.
+         *
+         * @param id the id of the marca.
+         * @param name the name of the marca.
+         * @param count the number of modelos of the marca.
+         * @return this builder.
+         */
+        public Builder addMarca(Long id, String name, long count) {
+            if (name != null) {
+                entries.add(new Entry(entries.size(), CatalogSuggestionDTO.Type.MARCA, id, name, count));
+            }
+            return this;
+        }
+
+        /**
+         * Add the name of a modelo, counting the modelos sharing the same name.
+         *
+         * @param name the name of the modelo.
+         * @return this builder.
+         */
+        public Builder addModelo(String name) {
+            if (name != null) {
+                Entry entry = modelos.get(name);
+                if (entry == null) {
+                    entry = new Entry(entries.size(), CatalogSuggestionDTO.Type.MODELO, null, name, 0);
+                    entries.add(entry);
+                    modelos.put(name, entry);
+                }
+                entry.count++;
+            }
+            return this;
+        }
+
+        /**
+         * @return the index of the added names.
+         */
+        public CatalogSuggestIndex build() {
+            return new CatalogSuggestIndex(entries);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.mycompany.myapp.service;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a keyset (cursor) paginated listing.
+ * <p>
+ * A cursor records the sort property and direction, plus the sort value and id of the last row returned,
+ * so the next page can be read with a {@code WHERE (key, id) > (value, lastId)} predicate instead of an offset.
+ * It travels to the client as an opaque, URL-safe token.
+ */
+public final class KeysetCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SEPARATOR = "\n";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final String value;
+
+    private final Long id;
+
+    private KeysetCursor(String property, Sort.Direction direction, String value, Long id) {
+        this.property = property;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * Create the cursor of the first page, ordered by the first order of the given sort, or by id if unsorted.
+     *
+     * @param sort the requested sort.
+     * @param idProperty the name of the id property, used when the sort is empty.
+     * @return the cursor positioned before the first row.
+     */
+    public static KeysetCursor first(Sort sort, String idProperty) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc(idProperty));
+        return new KeysetCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token the opaque token.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static KeysetCursor decode(String token) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split(SEPARATOR, 4);
+        if (parts.length != 4 || parts[0].isEmpty() || parts[3].isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        // The value is prefixed with 'v', or is a lone 'n' for a null sort value
+        String value;
+        if ("n".equals(parts[3])) {
+            value = null;
+        } else if (parts[3].startsWith("v")) {
+            value = parts[3].substring(1);
+        } else {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), value, Long.valueOf(parts[2]));
+    }
+
+    /**
+     * Create the cursor positioned after the given row.
+     *
+     * @param value the string form of the row's sort value, or {@code null}.
+     * @param id the row's id.
+     * @return the cursor of the following page.
+     */
+    public KeysetCursor after(String value, Long id) {
+        return new KeysetCursor(property, direction, value, Objects.requireNonNull(id));
+    }
+
+    /**
+     * Encode this cursor as an opaque, URL-safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        if (id == null) {
+            throw new IllegalStateException("The first page cursor cannot be encoded");
+        }
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + (value == null ? "n" : "v" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor that = (KeysetCursor) o;
+        return (
+            property.equals(that.property) && direction == that.direction && Objects.equals(value, that.value) && Objects.equals(id, that.id)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, value, id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", value='" + value + "'" +
+            ", id=" + id +
+            "}";
+    }
+}
@@ -0,0 +1,167 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for reading entities with keyset (cursor) pagination.
+ * <p>
+ * Each page is read with a predicate on the last (sort value, id) seen and a {@code LIMIT} of one more row than
+ * requested, so the database never scans and discards the preceding rows and no {@code count(*)} is issued.
+ * {@code NULL} sort values are assumed to sort low, as they do in MySQL and H2.
+ */
+@Service
+@Transactional(readOnly = true)
+public class KeysetPaginationService {
+
+    private final Logger log = LoggerFactory.getLogger(KeysetPaginationService.class);
+
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+    private final EntityManager entityManager;
+
+    public KeysetPaginationService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Create the cursor of the first page for the given entity and sort.
+     *
+     * @param domainClass the entity class.
+     * @param sort the requested sort, only its first order is used.
+     * @return the first page cursor.
+     * @throws IllegalArgumentException if the entity cannot be sorted by the requested property.
+     */
+    public KeysetCursor firstCursor(Class<?> domainClass, Sort sort) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(domainClass);
+        KeysetCursor cursor = KeysetCursor.first(sort, idAttribute(entityType).getName());
+        sortAttribute(entityType, cursor.getProperty());
+        return cursor;
+    }
+
+    /**
+     * Read the page following the given cursor.
+     *
+     * @param domainClass the entity class.
+     * @param specification the filter applied to the listing, may be {@code null}.
+     * @param cursor the cursor to read after.
+     * @param size the page size.
+     * @return the page and the cursor of the next one.
+     * @throws IllegalArgumentException if the cursor does not match the entity.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public <T> KeysetSlice<T> findSlice(Class<T> domainClass, Specification<T> specification, KeysetCursor cursor, int size) {
+        log.debug("Request to get a keyset slice of {} after {}", domainClass.getSimpleName(), cursor);
+        EntityType<T> entityType = entityManager.getMetamodel().entity(domainClass);
+        SingularAttribute<? super T, ?> idAttribute = idAttribute(entityType);
+        SingularAttribute<? super T, ?> sortAttribute = sortAttribute(entityType, cursor.getProperty());
+        boolean sortById = sortAttribute.getName().equals(idAttribute.getName());
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        Path<Comparable> key = root.get((SingularAttribute) sortAttribute);
+        Path<Comparable> id = root.get((SingularAttribute) idAttribute);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (!cursor.isFirst()) {
+            Comparable value = cursor.getValue() == null
+                ? null
+                : (Comparable) conversionService.convert(cursor.getValue(), sortAttribute.getJavaType());
+            predicates.add(sortById ? after(cb, id, cursor.getId(), cursor.getDirection()) : after(cb, key, value, id, cursor));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        List<Order> orders = new ArrayList<>();
+        orders.add(order(cb, key, cursor.getDirection()));
+        if (!sortById) {
+            orders.add(order(cb, id, cursor.getDirection()));
+        }
+        query.orderBy(orders);
+
+        List<T> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        if (rows.size() <= size) {
+            return new KeysetSlice<>(rows, null);
+        }
+        T last = rows.get(size - 1);
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Object lastValue = new BeanWrapperImpl(last).getPropertyValue(sortAttribute.getName());
+        KeysetCursor next = cursor.after(
+            lastValue == null ? null : conversionService.convert(lastValue, String.class),
+            (Long) persistenceUnitUtil.getIdentifier(last)
+        );
+        return new KeysetSlice<>(rows.subList(0, size), next);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate after(CriteriaBuilder cb, Path<Comparable> id, Long lastId, Sort.Direction direction) {
+        return direction.isAscending() ? cb.greaterThan((Expression) id, lastId) : cb.lessThan((Expression) id, lastId);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate after(CriteriaBuilder cb, Path<Comparable> key, Comparable value, Path<Comparable> id, KeysetCursor cursor) {
+        Predicate sameKeyAfterId = after(cb, id, cursor.getId(), cursor.getDirection());
+        if (cursor.getDirection().isAscending()) {
+            if (value == null) {
+                return cb.or(cb.and(cb.isNull(key), sameKeyAfterId), cb.isNotNull(key));
+            }
+            return cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), sameKeyAfterId));
+        }
+        if (value == null) {
+            return cb.and(cb.isNull(key), sameKeyAfterId);
+        }
+        return cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), sameKeyAfterId), cb.isNull(key));
+    }
+
+    private static Order order(CriteriaBuilder cb, Path<?> path, Sort.Direction direction) {
+        return direction.isAscending() ? cb.asc(path) : cb.desc(path);
+    }
+
+    private static <T> SingularAttribute<? super T, ?> idAttribute(EntityType<T> entityType) {
+        return entityType.getId(entityType.getIdType().getJavaType());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> SingularAttribute<? super T, ?> sortAttribute(EntityType<T> entityType, String property) {
+        Attribute<? super T, ?> attribute;
+        try {
+            attribute = entityType.getAttribute(property);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort property: " + property, e);
+        }
+        if (
+            attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC ||
+            !Comparable.class.isAssignableFrom(attribute.getJavaType())
+        ) {
+            throw new IllegalArgumentException("Cannot paginate by property: " + property);
+        }
+        return (SingularAttribute<? super T, ?>) attribute;
+    }
+}
@@ -0,0 +1,32 @@
+package com.mycompany.myapp.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of a keyset paginated listing: its rows, and the cursor of the next page if there is one.
+ * Unlike a {@link org.springframework.data.domain.Page}, it carries no total count.
+ */
+public final class KeysetSlice<T> {
+
+    private final List<T> content;
+
+    private final KeysetCursor next;
+
+    public KeysetSlice(List<T> content, KeysetCursor next) {
+        this.content = List.copyOf(content);
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public Optional<KeysetCursor> getNext() {
+        return Optional.ofNullable(next);
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,257 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.MailMessage;
+import com.mycompany.myapp.repository.MailMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service sending the mails of the outbox.
+ * <p>
+ * The due mails are claimed by batches, in a short transaction pushing their next attempt past the claim timeout, then
+ * sent over a single SMTP connection per batch. The sent mails are deleted, the failed ones are retried with an
+ * exponential backoff, and given up after {@code application.mail.outbox.max-attempts}. The given up mails are deleted
+ * once {@code application.mail.outbox.given-up-retention} has passed since they were queued.
+ */
+@Service
+public class MailDispatcherService {
+
+    public static final String SENT_COUNTER_NAME = "mail.outbox.sent";
+    public static final String FAILURES_COUNTER_NAME = "mail.outbox.failures";
+    public static final String LATENCY_TIMER_NAME = "mail.outbox.latency";
+    public static final String BATCH_TIMER_NAME = "mail.outbox.batch";
+    public static final String DEPTH_GAUGE_NAME = "mail.outbox.depth";
+    public static final String GIVEN_UP_GAUGE_NAME = "mail.outbox.given-up";
+
+    private static final int LAST_ERROR_MAX_LENGTH = 255;
+
+    private final Logger log = LoggerFactory.getLogger(MailDispatcherService.class);
+
+    private final MailMessageRepository mailMessageRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties.Mail.Outbox outbox;
+
+    private final TaskScheduler taskScheduler;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter givenUpCounter;
+
+    private final Timer latencyTimer;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong depth = new AtomicLong();
+
+    private final AtomicLong givenUp = new AtomicLong();
+
+    public MailDispatcherService(
+        MailMessageRepository mailMessageRepository,
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        TaskScheduler taskScheduler,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry
+    ) {
+        this.mailMessageRepository = mailMessageRepository;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.outbox = applicationProperties.getMail().getOutbox();
+        this.taskScheduler = taskScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = Counter.builder(SENT_COUNTER_NAME).baseUnit("mails").description("Number of mails sent.").register(registry);
+        this.retriedCounter =
+            Counter
+                .builder(FAILURES_COUNTER_NAME)
+                .tag("outcome", "retried")
+                .baseUnit("mails")
+                .description("Number of failed attempts to send a mail.")
+                .register(registry);
+        this.givenUpCounter =
+            Counter
+                .builder(FAILURES_COUNTER_NAME)
+                .tag("outcome", "given-up")
+                .baseUnit("mails")
+                .description("Number of failed attempts to send a mail.")
+                .register(registry);
+        this.latencyTimer =
+            Timer.builder(LATENCY_TIMER_NAME).description("Time between the queuing of a mail and its sending.").register(registry);
+        this.batchTimer = Timer.builder(BATCH_TIMER_NAME).description("Time taken to send a batch of mails.").register(registry);
+        Gauge
+            .builder(DEPTH_GAUGE_NAME, depth, AtomicLong::get)
+            .baseUnit("mails")
+            .description("Number of mails waiting in the outbox, as of the last drain.")
+            .register(registry);
+        Gauge
+            .builder(GIVEN_UP_GAUGE_NAME, givenUp, AtomicLong::get)
+            .baseUnit("mails")
+            .description("Number of given up mails kept in the outbox, as of the last drain.")
+            .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (outbox.isEnabled()) {
+            taskScheduler.scheduleWithFixedDelay(this::dispatchQuietly, outbox.getPollPeriod());
+        }
+    }
+
+    /**
+     * Send the due mails of the outbox, batch by batch, until none is left, then delete the given up mails past their
+     * retention.
+     *
+     * @return the number of mails sent.
+     */
+    public int dispatch() {
+        int sent = 0;
+        List<MailMessage> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                sent += send(batch);
+            }
+        } while (batch.size() == outbox.getBatchSize());
+        depth.set(mailMessageRepository.countByNextAttemptDateNotNull());
+        int deleted = mailMessageRepository.deleteAllGivenUpBefore(Instant.now().minus(outbox.getGivenUpRetention()));
+        if (deleted > 0) {
+            log.info("Deleted {} given up mails of the outbox", deleted);
+        }
+        givenUp.set(mailMessageRepository.countByNextAttemptDateNull());
+        return sent;
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            log.warn("Could not send the mails of the outbox: {}", e.getMessage());
+        }
+    }
+
+    private List<MailMessage> claim() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<MailMessage> batch = mailMessageRepository.findAllDueForUpdate(now, PageRequest.of(0, outbox.getBatchSize()));
+            batch.forEach(mailMessage -> {
+                mailMessage.setAttempts(mailMessage.getAttempts() + 1);
+                mailMessage.setNextAttemptDate(now.plus(outbox.getClaimTimeout()));
+            });
+            return batch;
+        });
+    }
+
+    private int send(List<MailMessage> batch) {
+        long start = System.nanoTime();
+        Map<MimeMessage, MailMessage> mimeMessages = new LinkedHashMap<>();
+        Map<MailMessage, Exception> failures = new LinkedHashMap<>();
+        for (MailMessage mailMessage : batch) {
+            try {
+                mimeMessages.put(createMimeMessage(mailMessage), mailMessage);
+            } catch (MessagingException e) {
+                failures.put(mailMessage, e);
+            }
+        }
+        if (!mimeMessages.isEmpty()) {
+            try {
+                javaMailSender.send(mimeMessages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    mimeMessages.values().forEach(mailMessage -> failures.put(mailMessage, e));
+                } else {
+                    e.getFailedMessages().forEach((mimeMessage, exception) -> failures.put(mimeMessages.get(mimeMessage), exception));
+                }
+            } catch (MailException e) {
+                mimeMessages.values().forEach(mailMessage -> failures.put(mailMessage, e));
+            }
+        }
+        List<MailMessage> sent = batch.stream().filter(mailMessage -> !failures.containsKey(mailMessage)).collect(Collectors.toList());
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            mailMessageRepository.deleteAllByIdInBatch(sent.stream().map(MailMessage::getId).collect(Collectors.toList()));
+            failures.forEach((mailMessage, exception) -> reschedule(mailMessage, exception, now));
+            mailMessageRepository.saveAll(failures.keySet());
+        });
+        sent.forEach(mailMessage -> latencyTimer.record(Duration.between(mailMessage.getCreatedDate(), now)));
+        sentCounter.increment(sent.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Sent {} mails of the outbox, {} failed", sent.size(), failures.size());
+        return sent.size();
+    }
+
+    private MimeMessage createMimeMessage(MailMessage mailMessage) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, mailMessage.isMultipart(), StandardCharsets.UTF_8.name());
+        message.setTo(mailMessage.getRecipient());
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(mailMessage.getSubject());
+        message.setText(mailMessage.getContent(), mailMessage.isHtml());
+        return mimeMessage;
+    }
+
+    private void reschedule(MailMessage mailMessage, Exception exception, Instant now) {
+        mailMessage.setLastError(StringUtils.abbreviate(String.valueOf(exception.getMessage()), LAST_ERROR_MAX_LENGTH));
+        if (mailMessage.getAttempts() >= outbox.getMaxAttempts()) {
+            log.error(
+                "Giving up the email to '{}' after {} attempts: {}",
+                mailMessage.getRecipient(),
+                mailMessage.getAttempts(),
+                exception.getMessage()
+            );
+            mailMessage.setNextAttemptDate(null);
+            givenUpCounter.increment();
+        } else {
+            log.warn(
+                "Email could not be sent to '{}' on attempt {}: {}",
+                mailMessage.getRecipient(),
+                mailMessage.getAttempts(),
+                exception.getMessage()
+            );
+            mailMessage.setNextAttemptDate(now.plus(backoff(mailMessage.getAttempts())));
+            retriedCounter.increment();
+        }
+    }
+
+    /**
+     * The delay before the next attempt to send a mail, doubled on each attempt.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = outbox.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(outbox.getMaxBackoff()) > 0 ? outbox.getMaxBackoff() : backoff;
+    }
+}
@@ -0,0 +1,224 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.User;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.unbescape.html.HtmlEscape;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Renders the mail templates of the users, processing each template only once per locale.
+ * <p>
+ * A template is first processed for a user whose fields hold markers, and split around the markers into static
+ * fragments: the mails are then rendered by joining the fragments with the escaped fields of their user, the way
+ * Thymeleaf escapes them. The first mail rendered this way is checked against the one of Thymeleaf, and the templates
+ * which do not match, using the fields of the user other than by printing them, are always processed by Thymeleaf.
+ * <p>
+ * The templates are processed by Thymeleaf on every mail when its cache is disabled, so that they can be edited.
+ */
+@Component
+public class MailTemplateRenderer {
+
+    static final String USER = "user";
+
+    static final String BASE_URL = "baseUrl";
+
+    private final Logger log = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final boolean cacheEnabled;
+
+    private final String markerPrefix;
+
+    private final Pattern markerPattern;
+
+    private final Map<TemplateKey, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(
+        SpringTemplateEngine templateEngine,
+        JHipsterProperties jHipsterProperties,
+        ThymeleafProperties thymeleafProperties
+    ) {
+        this.templateEngine = templateEngine;
+        this.jHipsterProperties = jHipsterProperties;
+        this.cacheEnabled = thymeleafProperties.isCache();
+        // Random, so that no user can write a marker in a field
+        this.markerPrefix = "mailfield" + Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36) + "x";
+        this.markerPattern = Pattern.compile(Pattern.quote(markerPrefix) + "(\\d+)x");
+    }
+
+    /**
+     * Render a mail template for a user.
+     *
+     * @param templateName the name of the template.
+     * @param locale the locale of the user.
+     * @param user the user.
+     * @return the rendered mail.
+     */
+    public String render(String templateName, Locale locale, User user) {
+        if (!cacheEnabled) {
+            return process(templateName, locale, user);
+        }
+        TemplateKey key = new TemplateKey(templateName, locale);
+        CompiledTemplate template = templates.computeIfAbsent(key, k -> compile(templateName, locale));
+        if (template == CompiledTemplate.NOT_COMPILABLE || !template.canRender(user)) {
+            return process(templateName, locale, user);
+        }
+        if (template.verified) {
+            return template.render(user);
+        }
+        String content = process(templateName, locale, user);
+        if (content.equals(template.render(user))) {
+            template.verified = true;
+        } else {
+            log.warn("The mail template {} is processed for every mail, since it does more than print the user fields", templateName);
+            templates.put(key, CompiledTemplate.NOT_COMPILABLE);
+        }
+        return content;
+    }
+
+    private String process(String templateName, Locale locale, User user) {
+        Context context = new Context(locale);
+        context.setVariable(USER, user);
+        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context);
+    }
+
+    private CompiledTemplate compile(String templateName, Locale locale) {
+        UserField[] fields = UserField.values();
+        User markers = new User();
+        for (UserField field : fields) {
+            field.setter.accept(markers, markerPrefix + field.ordinal() + "x");
+        }
+        String content = process(templateName, locale, markers);
+        List<String> fragments = new ArrayList<>();
+        List<UserField> fragmentFields = new ArrayList<>();
+        Matcher matcher = markerPattern.matcher(content);
+        int start = 0;
+        while (matcher.find()) {
+            fragments.add(content.substring(start, matcher.start()));
+            fragmentFields.add(fields[Integer.parseInt(matcher.group(1))]);
+            start = matcher.end();
+        }
+        fragments.add(content.substring(start));
+        log.debug("Compiled the mail template {} for {} into {} fragments", templateName, locale, fragments.size());
+        return new CompiledTemplate(fragments.toArray(new String[0]), fragmentFields.toArray(new UserField[0]));
+    }
+
+    /**
+     * The fields of the users the templates can print.
+     */
+    private enum UserField {
+        LOGIN(User::getLogin, User::setLogin),
+        FIRST_NAME(User::getFirstName, User::setFirstName),
+        LAST_NAME(User::getLastName, User::setLastName),
+        EMAIL(User::getEmail, User::setEmail),
+        IMAGE_URL(User::getImageUrl, User::setImageUrl),
+        LANG_KEY(User::getLangKey, User::setLangKey),
+        ACTIVATION_KEY(User::getActivationKey, User::setActivationKey),
+        RESET_KEY(User::getResetKey, User::setResetKey);
+
+        private final Function<User, String> getter;
+
+        private final BiConsumer<User, String> setter;
+
+        UserField(Function<User, String> getter, BiConsumer<User, String> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * The static fragments of a template, to be joined with the fields printed between them.
+     */
+    private static final class CompiledTemplate {
+
+        private static final CompiledTemplate NOT_COMPILABLE = new CompiledTemplate(new String[0], new UserField[0]);
+
+        private final String[] fragments;
+
+        private final UserField[] fields;
+
+        private final int length;
+
+        private volatile boolean verified;
+
+        private CompiledTemplate(String[] fragments, UserField[] fields) {
+            this.fragments = fragments;
+            this.fields = fields;
+            int fragmentsLength = 0;
+            for (String fragment : fragments) {
+                fragmentsLength += fragment.length();
+            }
+            this.length = fragmentsLength;
+        }
+
+        /**
+         * Whether the printed fields of the user are all set, Thymeleaf printing the missing ones differently in texts
+         * and in messages.
+         */
+        private boolean canRender(User user) {
+            for (UserField field : fields) {
+                if (field.getter.apply(user) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String render(User user) {
+            StringBuilder content = new StringBuilder(length + 64 * fields.length);
+            for (int i = 0; i < fields.length; i++) {
+                content.append(fragments[i]).append(HtmlEscape.escapeHtml4Xml(fields[i].getter.apply(user)));
+            }
+            return content.append(fragments[fields.length]).toString();
+        }
+    }
+
+    private static final class TemplateKey {
+
+        private final String templateName;
+
+        private final Locale locale;
+
+        private TemplateKey(String templateName, Locale locale) {
+            this.templateName = templateName;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey) o;
+            return templateName.equals(that.templateName) && locale.equals(that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(templateName, locale);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.repository.ModeloRepository;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for exporting the whole {@link Modelo} catalog.
+ * <p>
+ * Rows are streamed from a forward-only cursor straight to the output, and the persistence context is cleared
+ * after every fetch, so heap use does not grow with the size of the catalog.
+ */
+@Service
+public class ModeloExportService {
+
+    private final Logger log = LoggerFactory.getLogger(ModeloExportService.class);
+
+    private static final String CSV_HEADER = "id,modelo,color,potencia,plazas,precio,numero_serie,marca_id,marca";
+
+    private final ModeloRepository modeloRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectWriter ndjsonWriter;
+
+    private final ObjectMapper objectMapper;
+
+    public ModeloExportService(ModeloRepository modeloRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.modeloRepository = modeloRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.ndjsonWriter = objectMapper.writerFor(Modelo.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write every modelo as newline delimited JSON.
+     *
+     * @param out the output, left open.
+     * @return the number of rows written.
+     * @throws IOException if the output cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        log.debug("Request to export all Modelos as NDJSON");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            return export(
+                generator::flush,
+                modelo -> {
+                    ndjsonWriter.writeValue(generator, modelo);
+                    generator.writeRaw('\n');
+                }
+            );
+        }
+    }
+
+    /**
+     * Write every modelo as CSV, with a header line.
+     *
+     * @param out the output, left open.
+     * @return the number of rows written.
+     * @throws IOException if the output cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(OutputStream out) throws IOException {
+        log.debug("Request to export all Modelos as CSV");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long count = export(writer::flush, modelo -> writeCsvLine(writer, modelo));
+        writer.flush();
+        return count;
+    }
+
+    private long export(IOAction flush, RowWriter rowWriter) throws IOException {
+        long count = 0;
+        try (Stream<Modelo> modelos = modeloRepository.streamAllWithMarca()) {
+            Iterator<Modelo> iterator = modelos.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.write(iterator.next());
+                count++;
+                // Send the first row immediately, then release the managed entities after every fetch
+                if (count == 1 || count % ModeloRepository.STREAM_FETCH_SIZE == 0) {
+                    flush.run();
+                    entityManager.clear();
+                }
+            }
+        }
+        flush.run();
+        log.debug("Exported {} Modelos", count);
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Modelo modelo) throws IOException {
+        Marca marca = modelo.getMarca();
+        writer.write(String.valueOf(modelo.getId()));
+        writeCsvField(writer, modelo.getModelo());
+        writeCsvField(writer, modelo.getColor());
+        writeCsvField(writer, modelo.getPotencia());
+        writeCsvField(writer, modelo.getPlazas());
+        writeCsvField(writer, modelo.getPrecio());
+        writeCsvField(writer, modelo.getNumero_serie());
+        writeCsvField(writer, marca == null ? null : marca.getId());
+        writeCsvField(writer, marca == null ? null : marca.getMarca());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Modelo modelo) throws IOException;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.*; // for static metamodels
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.service.criteria.ModeloCriteria;
+import com.mycompany.myapp.service.dto.ModeloFacetsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service computing the navigation facets of the {@link Modelo} catalog: counts per marca, color, plazas and price
+ * bucket of the modelos matching a {@link ModeloCriteria}.
+ * <p>
+ * All the facets come from a single statement: the matching rows are grouped once on every faceted column, which
+ * is what {@code GROUP BY GROUPING SETS} would do but neither MySQL nor H2 supports, and the groups are then added
+ * up per facet in memory. The number of groups is bounded by the distinct combinations, not by the number of rows.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ModeloFacetService {
+
+    public static final String FACETS_TIMER_NAME = "catalog.facets";
+    public static final String FACETS_TIMER_DESCRIPTION = "Time taken to compute the facets of the modelo catalog.";
+
+    private final Logger log = LoggerFactory.getLogger(ModeloFacetService.class);
+
+    private final EntityManager entityManager;
+
+    private final ModeloQueryService modeloQueryService;
+
+    private final Timer facetsTimer;
+
+    public ModeloFacetService(EntityManager entityManager, ModeloQueryService modeloQueryService, MeterRegistry registry) {
+        this.entityManager = entityManager;
+        this.modeloQueryService = modeloQueryService;
+        this.facetsTimer =
+            Timer
+                .builder(FACETS_TIMER_NAME)
+                .description(FACETS_TIMER_DESCRIPTION)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Compute the facets of the modelos matching the criteria.
+     *
+     * @param criteria the filter, or {@code null} for the whole catalog.
+     * @return the facets.
+     */
+    public ModeloFacetsDTO findFacets(ModeloCriteria criteria) {
+        log.debug("find facets by criteria : {}", criteria);
+        return facetsTimer.record(() -> aggregate(queryGroups(criteria)));
+    }
+
+    private List<Tuple> queryGroups(ModeloCriteria criteria) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Modelo> root = query.from(Modelo.class);
+        Join<Modelo, Marca> marca = root.join(Modelo_.marca, JoinType.LEFT);
+        Path<Long> marcaId = marca.get(Marca_.id);
+        Path<String> marcaName = marca.get(Marca_.marca);
+        Path<String> color = root.get(Modelo_.color);
+        Path<Integer> plazas = root.get(Modelo_.plazas);
+        Expression<Integer> precioBucket = precioBucket(builder, root.get(Modelo_.precio));
+
+        Predicate predicate = modeloQueryService.createSpecification(criteria).toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query
+            .distinct(false)
+            .multiselect(marcaId, marcaName, color, plazas, precioBucket, builder.count(root))
+            .groupBy(marcaId, marcaName, color, plazas, precioBucket);
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static Expression<Integer> precioBucket(CriteriaBuilder builder, Path<Double> precio) {
+        double[] buckets = ModeloFacetsBuilder.PRECIO_BUCKETS;
+        CriteriaBuilder.Case<Integer> bucket = builder.<Integer>selectCase().when(builder.isNull(precio), ModeloFacetsBuilder.NO_PRECIO);
+        for (int i = 1; i < buckets.length; i++) {
+            bucket = bucket.when(builder.lessThan(precio, buckets[i]), i - 1);
+        }
+        return bucket.otherwise(buckets.length - 1);
+    }
+
+    private static ModeloFacetsDTO aggregate(List<Tuple> groups) {
+        ModeloFacetsBuilder facets = new ModeloFacetsBuilder();
+        for (Tuple group : groups) {
+            long count = group.get(5, Long.class);
+            facets
+                .addTotal(count)
+                .addMarca(group.get(0, Long.class), group.get(1, String.class), count)
+                .addColor(group.get(2, String.class), count)
+                .addPlazas(group.get(3, Integer.class), count)
+                .addPrecioBucket(group.get(4, Integer.class), count);
+        }
+        return facets.build();
+    }
+}
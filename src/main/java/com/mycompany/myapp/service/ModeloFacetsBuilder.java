@@ -0,0 +1,115 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.dto.FacetCountDTO;
+import com.mycompany.myapp.service.dto.ModeloFacetsDTO;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Adds up counts into the facets of the modelo catalog, whatever the source of the counts.
+ */
+class ModeloFacetsBuilder {
+
+    /**
+     * Lower bounds of the price buckets, the last bucket being open ended.
+     */
+    static final double[] PRECIO_BUCKETS = { 0, 10000, 20000, 30000, 50000, 75000, 100000 };
+
+    /**
+     * Bucket of the modelos without a price.
+     */
+    static final int NO_PRECIO = -1;
+
+    private final Map<Long, FacetCountDTO> marcas = new HashMap<>();
+
+    private final Map<String, FacetCountDTO> colors = new HashMap<>();
+
+    private final Map<Integer, FacetCountDTO> plazas = new HashMap<>();
+
+    private final long[] precios = new long[PRECIO_BUCKETS.length];
+
+    private long noPrecio;
+
+    private long total;
+
+    /**
+     * @return the price bucket of the given price.
+     */
+    static int precioBucket(double precio) {
+        int bucket = 0;
+        while (bucket + 1 < PRECIO_BUCKETS.length && precio >= PRECIO_BUCKETS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    ModeloFacetsBuilder addTotal(long count) {
+        total += count;
+        return this;
+    }
+
+    ModeloFacetsBuilder addMarca(Long marcaId, String marca, long count) {
+        add(marcas, marcaId, Objects.toString(marcaId, null), marca, count);
+        return this;
+    }
+
+    ModeloFacetsBuilder addColor(String color, long count) {
+        add(colors, color, color, null, count);
+        return this;
+    }
+
+    ModeloFacetsBuilder addPlazas(Integer plaza, long count) {
+        add(plazas, plaza, Objects.toString(plaza, null), null, count);
+        return this;
+    }
+
+    ModeloFacetsBuilder addPrecioBucket(int bucket, long count) {
+        if (bucket == NO_PRECIO) {
+            noPrecio += count;
+        } else {
+            precios[bucket] += count;
+        }
+        return this;
+    }
+
+    ModeloFacetsDTO build() {
+        ModeloFacetsDTO facets = new ModeloFacetsDTO();
+        facets.setTotal(total);
+        facets.setMarca(sortByCount(marcas));
+        facets.setColor(sortByCount(colors));
+        facets.setPlazas(sortByCount(plazas));
+        for (int i = 0; i < PRECIO_BUCKETS.length; i++) {
+            if (precios[i] > 0) {
+                String to = i + 1 < PRECIO_BUCKETS.length ? String.valueOf((long) PRECIO_BUCKETS[i + 1]) : "";
+                facets.getPrecio().add(new FacetCountDTO((long) PRECIO_BUCKETS[i] + "-" + to, null, precios[i]));
+            }
+        }
+        if (noPrecio > 0) {
+            facets.getPrecio().add(new FacetCountDTO(null, null, noPrecio));
+        }
+        return facets;
+    }
+
+    private static <K> void add(Map<K, FacetCountDTO> facet, K key, String value, String label, long count) {
+        if (count == 0) {
+            return;
+        }
+        FacetCountDTO facetCount = facet.computeIfAbsent(key, k -> new FacetCountDTO(value, label, 0));
+        facetCount.setCount(facetCount.getCount() + count);
+    }
+
+    private static List<FacetCountDTO> sortByCount(Map<?, FacetCountDTO> facet) {
+        List<FacetCountDTO> counts = new ArrayList<>(facet.values());
+        counts.sort(
+            Comparator
+                .comparingLong(FacetCountDTO::getCount)
+                .reversed()
+                .thenComparing(FacetCountDTO::getValue, Comparator.nullsLast(Comparator.naturalOrder()))
+        );
+        return counts;
+    }
+}
@@ -0,0 +1,504 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.repository.MarcaRepository;
+import com.mycompany.myapp.repository.ModeloRepository;
+import com.mycompany.myapp.repository.ModeloUpsertRepository;
+import com.mycompany.myapp.service.dto.ModeloImportReportDTO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for importing large feeds of {@link Modelo}.
+ * <p>
+ * The input is read as a stream and written in chunks, each in its own transaction, with the inserts sent in JDBC
+ * batches. The persistence context is cleared after every chunk, so heap use does not grow with the size of the feed.
+ * Marcas are resolved by name, and created when they do not exist yet. The rows whose serial number is already used,
+ * or repeated in the feed, are rejected, and a chunk the database rejects is written again row by row, so that only
+ * the rows at fault are rejected.
+ * <p>
+ * A feed can also be upserted: the modelos are then merged on their serial number with the native upsert of the
+ * database, so that re-sending the same feed updates the rows instead of duplicating them.
+ */
+@Service
+public class ModeloImportService {
+
+    private final Logger log = LoggerFactory.getLogger(ModeloImportService.class);
+
+    /**
+     * Number of rows written in each transaction.
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Number of inserts sent in each JDBC batch.
+     */
+    public static final int BATCH_SIZE = 100;
+
+    private final MarcaRepository marcaRepository;
+
+    private final ModeloRepository modeloRepository;
+
+    private final ModeloUpsertRepository modeloUpsertRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ObjectReader modeloReader;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ModeloSearchService modeloSearchService;
+
+    public ModeloImportService(
+        MarcaRepository marcaRepository,
+        ModeloRepository modeloRepository,
+        ModeloUpsertRepository modeloUpsertRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        Validator validator,
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        ModeloSearchService modeloSearchService
+    ) {
+        this.marcaRepository = marcaRepository;
+        this.modeloRepository = modeloRepository;
+        this.modeloUpsertRepository = modeloUpsertRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.modeloReader = objectMapper.readerFor(Modelo.class);
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.modeloSearchService = modeloSearchService;
+    }
+
+    /**
+     * Import modelos from newline delimited JSON, one modelo per line. The ids are ignored, and the marca is
+     * resolved by its name.
+     *
+     * @param reader the input, left open.
+     * @return the import report.
+     * @throws IOException if the input cannot be read.
+     */
+    public ModeloImportReportDTO importNdjson(Reader reader) throws IOException {
+        log.debug("Request to import Modelos from NDJSON");
+        return importRows(ndjsonRows(reader), false);
+    }
+
+    /**
+     * Import modelos from CSV, with a header line naming the columns, as written by the export. The {@code id} and
+     * {@code marca_id} columns are ignored, and the marca is resolved by the {@code marca} column.
+     *
+     * @param reader the input, left open.
+     * @return the import report.
+     * @throws IOException if the input cannot be read.
+     * @throws IllegalArgumentException if the header has no {@code modelo} column.
+     */
+    public ModeloImportReportDTO importCsv(Reader reader) throws IOException {
+        log.debug("Request to import Modelos from CSV");
+        return importRows(csvRows(reader), false);
+    }
+
+    /**
+     * Upsert modelos from newline delimited JSON, as {@link #importNdjson(Reader)}, merging them on their serial
+     * number. The rows without a serial number are rejected.
+     *
+     * @param reader the input, left open.
+     * @return the import report.
+     * @throws IOException if the input cannot be read.
+     */
+    public ModeloImportReportDTO upsertNdjson(Reader reader) throws IOException {
+        log.debug("Request to upsert Modelos from NDJSON");
+        return importRows(ndjsonRows(reader), true);
+    }
+
+    /**
+     * Upsert modelos from CSV, as {@link #importCsv(Reader)}, merging them on their serial number. The rows without
+     * a serial number are rejected.
+     *
+     * @param reader the input, left open.
+     * @return the import report.
+     * @throws IOException if the input cannot be read.
+     * @throws IllegalArgumentException if the header has no {@code modelo} column.
+     */
+    public ModeloImportReportDTO upsertCsv(Reader reader) throws IOException {
+        log.debug("Request to upsert Modelos from CSV");
+        return importRows(csvRows(reader), true);
+    }
+
+    private RowReader ndjsonRows(Reader reader) {
+        BufferedReader lines = new BufferedReader(reader);
+        return () -> {
+            String line = lines.readLine();
+            while (line != null && line.isBlank()) {
+                line = lines.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+            try {
+                return ParsedRow.of(modeloReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                return ParsedRow.INVALID;
+            }
+        };
+    }
+
+    private RowReader csvRows(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(reader));
+        List<String> header = csv.readRecord();
+        if (header == null || !header.contains("modelo")) {
+            throw new IllegalArgumentException("The CSV header must name a modelo column");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        return () -> {
+            List<String> record = csv.readRecord();
+            if (record == null) {
+                return null;
+            }
+            try {
+                Modelo modelo = new Modelo()
+                    .modelo(field(record, columns, "modelo"))
+                    .color(field(record, columns, "color"))
+                    .potencia(toInteger(field(record, columns, "potencia")))
+                    .plazas(toInteger(field(record, columns, "plazas")))
+                    .precio(toDouble(field(record, columns, "precio")));
+                modelo.setNumero_serie(field(record, columns, "numero_serie"));
+                String marca = field(record, columns, "marca");
+                if (marca != null) {
+                    modelo.setMarca(new Marca().marca(marca));
+                }
+                return ParsedRow.of(modelo);
+            } catch (NumberFormatException e) {
+                return ParsedRow.INVALID;
+            }
+        };
+    }
+
+    private ModeloImportReportDTO importRows(RowReader rowReader, boolean upsert) throws IOException {
+        ModeloImportReportDTO report = new ModeloImportReportDTO();
+        Map<String, Long> marcaIds = new HashMap<>();
+        Set<String> numeroSeries = new HashSet<>();
+        List<Modelo> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Long> chunkRows = new ArrayList<>(CHUNK_SIZE);
+        long start = System.nanoTime();
+        long row = 0;
+        ParsedRow parsed;
+        while ((parsed = rowReader.next()) != null) {
+            row++;
+            if (parsed.modelo == null || !isValid(parsed.modelo) || (upsert && parsed.modelo.getNumero_serie() == null)) {
+                report.reject(row);
+                continue;
+            }
+            // The upsert merges the repeated serial numbers, the inserts would clash on them
+            if (!upsert && parsed.modelo.getNumero_serie() != null && !numeroSeries.add(parsed.modelo.getNumero_serie())) {
+                report.reject(row);
+                continue;
+            }
+            chunk.add(parsed.modelo);
+            chunkRows.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, chunkRows, marcaIds, upsert, report);
+            }
+        }
+        writeChunk(chunk, chunkRows, marcaIds, upsert, report);
+        if (report.getImported() > 0) {
+            applicationEventPublisher.publishEvent(new CatalogChangedEvent(Modelo.class));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        report.setRows(row);
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getImported() * 1_000_000_000d / elapsedNanos);
+        log.info(
+            "Imported {} of {} Modelos in {} ms ({} rows/s), {} rejected, {} Marcas created",
+            report.getImported(),
+            report.getRows(),
+            report.getElapsedMillis(),
+            Math.round(report.getRowsPerSecond()),
+            report.getRejected(),
+            report.getMarcasCreated()
+        );
+        return report;
+    }
+
+    private boolean isValid(Modelo modelo) {
+        modelo.setId(null);
+        Marca marca = modelo.getMarca();
+        if (marca != null && (marca.getMarca() == null || !validator.validate(marca).isEmpty())) {
+            return false;
+        }
+        return validator.validate(modelo).isEmpty();
+    }
+
+    /**
+     * Write the chunk in one transaction, then empty it. The inserted rows whose serial number is already used are
+     * rejected, and when the chunk fails as a whole, its rows are written one by one so that only the ones failing are
+     * rejected.
+     */
+    private void writeChunk(
+        List<Modelo> chunk,
+        List<Long> chunkRows,
+        Map<String, Long> marcaIds,
+        boolean upsert,
+        ModeloImportReportDTO report
+    ) {
+        if (!upsert) {
+            rejectUsedNumeroSeries(chunk, chunkRows, report);
+        }
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            write(chunk, marcaIds, upsert, report);
+        } catch (DataAccessException | PersistenceException e) {
+            log.warn(
+                "Could not import the Modelos of rows {} to {}, importing them one by one: {}",
+                chunkRows.get(0),
+                chunkRows.get(chunkRows.size() - 1),
+                e.getMessage()
+            );
+            for (int i = 0; i < chunk.size(); i++) {
+                Modelo modelo = chunk.get(i);
+                // Given an id by the failed insert
+                modelo.setId(null);
+                try {
+                    write(List.of(modelo), marcaIds, upsert, report);
+                } catch (DataAccessException | PersistenceException rowException) {
+                    log.warn("Could not import the Modelo of row {}: {}", chunkRows.get(i), rowException.getMessage());
+                    report.reject(chunkRows.get(i));
+                }
+            }
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+
+    /**
+     * Reject the modelos of the chunk whose serial number is already used, removing them from the chunk.
+     */
+    private void rejectUsedNumeroSeries(List<Modelo> chunk, List<Long> chunkRows, ModeloImportReportDTO report) {
+        List<String> chunkNumeroSeries = chunk.stream().map(Modelo::getNumero_serie).filter(Objects::nonNull).collect(Collectors.toList());
+        if (chunkNumeroSeries.isEmpty()) {
+            return;
+        }
+        Set<String> used = new HashSet<>(modeloRepository.findNumeroSeriesByNumeroSerieIn(chunkNumeroSeries));
+        int kept = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (used.contains(chunk.get(i).getNumero_serie())) {
+                report.reject(chunkRows.get(i));
+            } else {
+                chunk.set(kept, chunk.get(i));
+                chunkRows.set(kept, chunkRows.get(i));
+                kept++;
+            }
+        }
+        chunk.subList(kept, chunk.size()).clear();
+        chunkRows.subList(kept, chunkRows.size()).clear();
+    }
+
+    /**
+     * Write modelos in one transaction.
+     */
+    private void write(List<Modelo> modelos, Map<String, Long> marcaIds, boolean upsert, ModeloImportReportDTO report) {
+        Map<String, Long> createdMarcaIds = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(BATCH_SIZE);
+            session.setCacheMode(CacheMode.IGNORE);
+            Map<String, Marca> marcas = resolveMarcas(modelos, marcaIds, createdMarcaIds);
+            for (Modelo modelo : modelos) {
+                if (modelo.getMarca() != null) {
+                    modelo.setMarca(marcas.get(marcaKey(modelo.getMarca().getMarca())));
+                }
+                if (!upsert) {
+                    entityManager.persist(modelo);
+                }
+            }
+            if (upsert) {
+                modeloUpsertRepository.upsertAllByNumeroSerie(modelos);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        // Only remember the new marcas once they are committed
+        marcaIds.putAll(createdMarcaIds);
+        if (upsert) {
+            // The native upsert bypasses the entity lifecycle the search index follows
+            modeloSearchService.requestIndexByNumeroSerie(modelos.stream().map(Modelo::getNumero_serie).collect(Collectors.toList()));
+        }
+        report.setImported(report.getImported() + modelos.size());
+        report.setMarcasCreated(report.getMarcasCreated() + createdMarcaIds.size());
+    }
+
+    /**
+     * Resolve the marcas of the chunk by name: from the ones already seen, then in one query, creating the missing ones.
+     * The names are compared whatever their case, as the database does, so that a marca is not created twice.
+     */
+    private Map<String, Marca> resolveMarcas(List<Modelo> chunk, Map<String, Long> marcaIds, Map<String, Long> createdMarcaIds) {
+        Map<String, Marca> marcas = new HashMap<>();
+        Map<String, String> unknown = new HashMap<>();
+        for (Modelo modelo : chunk) {
+            if (modelo.getMarca() == null) {
+                continue;
+            }
+            String name = modelo.getMarca().getMarca();
+            String key = marcaKey(name);
+            Long id = marcaIds.get(key);
+            if (id != null) {
+                marcas.putIfAbsent(key, entityManager.getReference(Marca.class, id));
+            } else {
+                unknown.putIfAbsent(key, name);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (Marca marca : marcaRepository.findAllByLowerCaseMarcaIn(unknown.keySet())) {
+                String key = marcaKey(marca.getMarca());
+                if (unknown.remove(key) != null) {
+                    marcas.put(key, marca);
+                    marcaIds.put(key, marca.getId());
+                }
+            }
+            unknown.forEach((key, name) -> {
+                Marca marca = new Marca().marca(name);
+                entityManager.persist(marca);
+                marcas.put(key, marca);
+                createdMarcaIds.put(key, marca.getId());
+            });
+        }
+        return marcas;
+    }
+
+    private static String marcaKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private static Integer toInteger(String value) {
+        return value == null ? null : Integer.valueOf(value.trim());
+    }
+
+    private static Double toDouble(String value) {
+        return value == null ? null : Double.valueOf(value.trim());
+    }
+
+    /**
+     * A row of the input: the parsed modelo, or {@code null} when the row could not be parsed.
+     */
+    private static final class ParsedRow {
+
+        static final ParsedRow INVALID = new ParsedRow(null);
+
+        final Modelo modelo;
+
+        private ParsedRow(Modelo modelo) {
+            this.modelo = modelo;
+        }
+
+        static ParsedRow of(Modelo modelo) {
+            return modelo == null ? INVALID : new ParsedRow(modelo);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        /**
+         * @return the next row, or {@code null} at the end of the input.
+         */
+        ParsedRow next() throws IOException;
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated fields, optionally quoted, with doubled quotes and line breaks inside
+     * quoted fields.
+     */
+    private static final class CsvReader {
+
+        private final Reader reader;
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return the fields of the next record, or {@code null} at the end of the input.
+         */
+        List<String> readRecord() throws IOException {
+            int c = reader.read();
+            while (c == '\r' || c == '\n') {
+                c = reader.read();
+            }
+            if (c < 0) {
+                return null;
+            }
+            List<String> record = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (; c >= 0; c = reader.read()) {
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            record.add(field.toString());
+            return record;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.*; // for static metamodels
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.repository.ModeloRepository;
+import com.mycompany.myapp.service.criteria.ModeloCriteria;
+import java.util.List;
+import javax.persistence.criteria.JoinType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Service for executing complex queries for {@link Modelo} entities in the database.
+ * The main input is a {@link ModeloCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link List} of {@link Modelo} or a {@link Page} of {@link Modelo} which fulfills the criteria.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ModeloQueryService extends QueryService<Modelo> {
+
+    private final Logger log = LoggerFactory.getLogger(ModeloQueryService.class);
+
+    private final ModeloRepository modeloRepository;
+
+    private final KeysetPaginationService keysetPaginationService;
+
+    public ModeloQueryService(ModeloRepository modeloRepository, KeysetPaginationService keysetPaginationService) {
+        this.modeloRepository = modeloRepository;
+        this.keysetPaginationService = keysetPaginationService;
+    }
+
+    /**
+     * Return a {@link List} of {@link Modelo} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public List<Modelo> findByCriteria(ModeloCriteria criteria) {
+        log.debug("find by criteria : {}", criteria);
+        final Specification<Modelo> specification = createSpecification(criteria);
+        return modeloRepository.findAll(specification);
+    }
+
+    /**
+     * Return a {@link Page} of {@link Modelo} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Modelo> findByCriteria(ModeloCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<Modelo> specification = createSpecification(criteria);
+        return modeloRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return a {@link KeysetSlice} of {@link Modelo} which matches the criteria from the database,
+     * read after the given cursor.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor to read after.
+     * @param size The page size.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Modelo> findSlice(ModeloCriteria criteria, KeysetCursor cursor, int size) {
+        log.debug("find slice by criteria : {}, cursor: {}", criteria, cursor);
+        final Specification<Modelo> specification = createSpecification(criteria).and(fetchMarca());
+        return keysetPaginationService.findSlice(Modelo.class, specification, cursor, size);
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long countByCriteria(ModeloCriteria criteria) {
+        log.debug("count by criteria : {}", criteria);
+        final Specification<Modelo> specification = createSpecification(criteria);
+        return modeloRepository.count(specification);
+    }
+
+    /**
+     * Function to convert {@link ModeloCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Modelo> createSpecification(ModeloCriteria criteria) {
+        Specification<Modelo> specification = Specification.where(null);
+        if (criteria != null) {
+            // This has to be called first, because the distinct method returns null
+            if (criteria.getDistinct() != null) {
+                specification = specification.and(distinct(criteria.getDistinct()));
+            }
+            if (criteria.getId() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getId(), Modelo_.id));
+            }
+            if (criteria.getModelo() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getModelo(), Modelo_.modelo));
+            }
+            if (criteria.getColor() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getColor(), Modelo_.color));
+            }
+            if (criteria.getPotencia() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getPotencia(), Modelo_.potencia));
+            }
+            if (criteria.getPlazas() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getPlazas(), Modelo_.plazas));
+            }
+            if (criteria.getPrecio() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getPrecio(), Modelo_.precio));
+            }
+            if (criteria.getMarcaId() != null) {
+                // Navigate the path instead of joining so the predicate lands on modelo.marca_id and can use its index
+                specification =
+                    specification.and(buildSpecification(criteria.getMarcaId(), root -> root.get(Modelo_.marca).get(Marca_.id)));
+            }
+        }
+        return specification;
+    }
+
+    /**
+     * Fetch the marca in the same statement, for the queries that are not covered by the repository entity graphs.
+     */
+    private static Specification<Modelo> fetchMarca() {
+        return (root, query, builder) -> {
+            root.fetch(Modelo_.marca, JoinType.LEFT);
+            return null;
+        };
+    }
+}
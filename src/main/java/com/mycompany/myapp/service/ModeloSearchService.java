@@ -0,0 +1,363 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.repository.ModeloRepository;
+import com.mycompany.myapp.repository.search.ModeloSearchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the full-text search of the {@link Modelo} catalog, keeping the {@link ModeloSearchRepository} index in
+ * step with the database.
+ * <p>
+ * The index follows the entity lifecycle: Hibernate reports every committed insert, update and delete of a
+ * {@link Modelo} or a {@link Marca}, and the modelos concerned are read again in the background and written to the
+ * index, which is refreshed right after. Modelos upserted with native statements are reported with
+ * {@link #requestIndexByNumeroSerie(Collection)}. The whole catalog is indexed again at startup, when the
+ * {@link CatalogChangeBroadcaster} tells that another node changed it, and every
+ * {@code application.catalog.refresh-period} to catch up with the changes whose notice was lost: before the changes
+ * reported meanwhile, so that it cannot overwrite them with what it read before.
+ */
+@Service
+public class ModeloSearchService {
+
+    public static final String SEARCH_TIMER_NAME = "catalog.search";
+
+    private static final int INDEX_CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(ModeloSearchService.class);
+
+    private final ModeloSearchRepository modeloSearchRepository;
+
+    private final ModeloRepository modeloRepository;
+
+    private final EntityManager entityManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final TaskScheduler taskScheduler;
+
+    private final CatalogChangeBroadcaster catalogChangeBroadcaster;
+
+    private final Duration refreshPeriod;
+
+    private final Timer searchTimer;
+
+    private final Set<Long> pendingModeloIds = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> pendingMarcaIds = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> pendingNumeroSeries = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean reindexRequested = new AtomicBoolean();
+
+    private final AtomicBoolean indexing = new AtomicBoolean();
+
+    public ModeloSearchService(
+        ModeloSearchRepository modeloSearchRepository,
+        ModeloRepository modeloRepository,
+        EntityManager entityManager,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        TaskScheduler taskScheduler,
+        CatalogChangeBroadcaster catalogChangeBroadcaster,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.modeloSearchRepository = modeloSearchRepository;
+        this.modeloRepository = modeloRepository;
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.taskExecutor = taskExecutor;
+        this.taskScheduler = taskScheduler;
+        this.catalogChangeBroadcaster = catalogChangeBroadcaster;
+        this.refreshPeriod = applicationProperties.getCatalog().getRefreshPeriod();
+        this.searchTimer =
+            Timer
+                .builder(SEARCH_TIMER_NAME)
+                .description("Time taken to search the catalog.")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void registerEntityListeners() {
+        EventListenerRegistry listeners = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        CommittedChangesListener listener = new CommittedChangesListener(this);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    /**
+     * Search the modelos matching a free-text query.
+     *
+     * @param query the query.
+     * @param pageable the page, the modelos being sorted on relevance.
+     * @return the matching modelos, best matches first.
+     * @throws IllegalArgumentException if the page is not within the first
+     * {@link ModeloSearchRepository#MAX_RESULT_WINDOW} results.
+     */
+    public Page<Modelo> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Modelos for query {}", query);
+        if (pageable.isUnpaged() || pageable.getOffset() + pageable.getPageSize() > ModeloSearchRepository.MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException(
+                "Only the first " + ModeloSearchRepository.MAX_RESULT_WINDOW + " results of a search can be paged to"
+            );
+        }
+        return searchTimer.record(() -> modeloSearchRepository.search(query, pageable));
+    }
+
+    /**
+     * Index again, in the background, the modelos with the given serial numbers.
+     *
+     * @param numeroSeries the serial numbers of modelos written without going through Hibernate.
+     */
+    public void requestIndexByNumeroSerie(Collection<String> numeroSeries) {
+        pendingNumeroSeries.addAll(numeroSeries);
+        requestIndexing();
+    }
+
+    /**
+     * Index the whole catalog again, and delete the documents of the modelos which no longer exist.
+     */
+    public void reindexAll() {
+        long generation = modeloSearchRepository.startGeneration();
+        long count = transactionTemplate.execute(
+            status -> {
+                List<Modelo> chunk = new ArrayList<>(INDEX_CHUNK_SIZE);
+                long indexed = 0;
+                try (Stream<Modelo> modelos = modeloRepository.streamAllWithMarca()) {
+                    Iterator<Modelo> iterator = modelos.iterator();
+                    while (iterator.hasNext()) {
+                        chunk.add(iterator.next());
+                        if (chunk.size() == INDEX_CHUNK_SIZE) {
+                            indexed += indexChunk(chunk);
+                        }
+                    }
+                }
+                return indexed + indexChunk(chunk);
+            }
+        );
+        modeloSearchRepository.deleteOlderGenerations(generation);
+        modeloSearchRepository.refresh();
+        modeloSearchRepository.commit();
+        log.info("Indexed {} Modelos for search", count);
+    }
+
+    /**
+     * Index the whole catalog again in the background, before the changes reported meanwhile.
+     */
+    public void requestReindexAll() {
+        reindexRequested.set(true);
+        requestIndexing();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestReindexAll();
+        catalogChangeBroadcaster.onRemoteChange(this::requestReindexAll);
+        if (refreshPeriod != null) {
+            taskScheduler.scheduleWithFixedDelay(this::requestReindexAll, Instant.now().plus(refreshPeriod), refreshPeriod);
+        }
+    }
+
+    /**
+     * The index is refreshed after every change, but only written to disk from time to time.
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void commitIndex() {
+        modeloSearchRepository.commit();
+    }
+
+    private void onCommitted(Object entity) {
+        if (entity instanceof Modelo) {
+            pendingModeloIds.add(((Modelo) entity).getId());
+            requestIndexing();
+        } else if (entity instanceof Marca) {
+            pendingMarcaIds.add(((Marca) entity).getId());
+            requestIndexing();
+        }
+    }
+
+    private void requestIndexing() {
+        if (indexing.compareAndSet(false, true)) {
+            taskExecutor.execute(this::indexWhilePending);
+        }
+    }
+
+    private void indexWhilePending() {
+        try {
+            while (hasPendingChanges()) {
+                if (reindexRequested.getAndSet(false)) {
+                    reindexAll();
+                }
+                Set<Long> modeloIds = drain(pendingModeloIds);
+                Set<Long> marcaIds = drain(pendingMarcaIds);
+                Set<String> numeroSeries = drain(pendingNumeroSeries);
+                transactionTemplate.executeWithoutResult(status -> indexPending(modeloIds, marcaIds, numeroSeries));
+                modeloSearchRepository.refresh();
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not update the search index", e);
+        } finally {
+            indexing.set(false);
+        }
+        // Changes may have come after the last check and before the flag was released
+        if (hasPendingChanges()) {
+            requestIndexing();
+        }
+    }
+
+    private boolean hasPendingChanges() {
+        return reindexRequested.get() || !pendingModeloIds.isEmpty() || !pendingMarcaIds.isEmpty() || !pendingNumeroSeries.isEmpty();
+    }
+
+    private void indexPending(Set<Long> modeloIds, Set<Long> marcaIds, Set<String> numeroSeries) {
+        if (!marcaIds.isEmpty()) {
+            modeloIds.addAll(modeloRepository.findIdsByMarcaIdIn(marcaIds));
+        }
+        if (!numeroSeries.isEmpty()) {
+            modeloIds.addAll(modeloRepository.findIdsByNumeroSerieIn(numeroSeries));
+        }
+        List<Long> ids = new ArrayList<>(modeloIds);
+        for (int from = 0; from < ids.size(); from += INDEX_CHUNK_SIZE) {
+            List<Long> chunkIds = ids.subList(from, Math.min(from + INDEX_CHUNK_SIZE, ids.size()));
+            List<Modelo> modelos = modeloRepository.findAllWithMarcaByIdIn(chunkIds);
+            Set<Long> found = modelos.stream().map(Modelo::getId).collect(Collectors.toSet());
+            modeloSearchRepository.saveAll(modelos);
+            modeloSearchRepository.deleteAllById(chunkIds.stream().filter(id -> !found.contains(id)).collect(Collectors.toList()));
+            entityManager.clear();
+        }
+        log.debug("Updated {} Modelos in the search index", ids.size());
+    }
+
+    private int indexChunk(List<Modelo> chunk) {
+        int size = chunk.size();
+        modeloSearchRepository.saveAll(chunk);
+        chunk.clear();
+        entityManager.clear();
+        return size;
+    }
+
+    private static <T> Set<T> drain(Set<T> pending) {
+        Set<T> drained = new HashSet<>();
+        Iterator<T> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    /**
+     * Reports the committed changes of modelos and marcas to the service.
+     */
+    private static final class CommittedChangesListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ModeloSearchService service;
+
+        private CommittedChangesListener(ModeloSearchService service) {
+            this.service = service;
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            service.onCommitted(event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            service.onCommitted(event.getEntity());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            service.onCommitted(event.getEntity());
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+            // Nothing was written, nothing to index
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // Nothing was written, nothing to index
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // Nothing was written, nothing to index
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            Class<?> entity = persister.getMappedClass();
+            return Modelo.class.equals(entity) || Marca.class.equals(entity);
+        }
+
+        /**
+         * Still abstract in Hibernate 5.4, deprecated for its misspelling.
+         */
+        @Override
+        @Deprecated
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return requiresPostCommitHandling(persister);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
+import com.mycompany.myapp.security.jwt.RevokedTokens;
+import com.mycompany.myapp.security.jwt.TokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service revoking the JWT tokens before they expire.
+ * <p>
+ * The revoked tokens are stored in the database, and checked in memory by the {@link RevokedTokens} on every request.
+ * A token revoked on a node is rejected at once on that node, and on the others once they reload the revoked tokens,
+ * every {@code application.security.token-revocation.refresh-period}.
+ */
+@Service
+public class TokenRevocationService {
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final RevokedTokens revokedTokens;
+
+    private final TokenProvider tokenProvider;
+
+    private final TaskScheduler taskScheduler;
+
+    private final ApplicationProperties applicationProperties;
+
+    public TokenRevocationService(
+        RevokedTokenRepository revokedTokenRepository,
+        RevokedTokens revokedTokens,
+        TokenProvider tokenProvider,
+        TaskScheduler taskScheduler,
+        ApplicationProperties applicationProperties
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revokedTokens = revokedTokens;
+        this.tokenProvider = tokenProvider;
+        this.taskScheduler = taskScheduler;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        taskScheduler.scheduleWithFixedDelay(this::refresh, applicationProperties.getSecurity().getTokenRevocation().getRefreshPeriod());
+    }
+
+    /**
+     * Revoke a token until it expires.
+     *
+     * @param token the token.
+     * @return {@code false} if the token cannot be revoked, being invalid, expired, or issued without an id.
+     */
+    public boolean revoke(String token) {
+        Claims claims;
+        try {
+            claims = tokenProvider.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Cannot revoke an invalid JWT token: {}", e.getMessage());
+            return false;
+        }
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            log.debug("Cannot revoke a JWT token without an id or an expiration");
+            return false;
+        }
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setId(claims.getId());
+        revokedToken.setLogin(claims.getSubject());
+        revokedToken.setExpiration(claims.getExpiration().toInstant());
+        revokedTokenRepository.save(revokedToken);
+        revokedTokens.revoke(revokedToken.getId(), revokedToken.getExpiration());
+        log.debug("Revoked JWT token {} of {}", revokedToken.getId(), revokedToken.getLogin());
+        return true;
+    }
+
+    /**
+     * Delete the expired revoked tokens, and reload the others, including the ones revoked on the other nodes.
+     */
+    public void refresh() {
+        try {
+            Instant now = Instant.now();
+            int deleted = revokedTokenRepository.deleteAllExpired(now);
+            Map<String, Instant> expirations = revokedTokenRepository
+                .findAllByExpirationAfter(now)
+                .stream()
+                .collect(Collectors.toMap(RevokedToken::getId, RevokedToken::getExpiration));
+            revokedTokens.rebuild(expirations);
+            log.debug("Reloaded {} revoked JWT tokens, deleted {} expired ones", expirations.size(), deleted);
+        } catch (RuntimeException e) {
+            log.warn("Could not reload the revoked JWT tokens: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.UserInsertRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.dto.UserImportReportDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.persistence.PersistenceException;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Service for creating many users at once, such as the staff of a whole dealer network.
+ * <p>
+ * The input is read as a stream and written in chunks, each in its own transaction, with the users and their
+ * authorities inserted in JDBC batches. The random initial passwords of a chunk are hashed in parallel, on a pool of
+ * {@code application.security.password-hashing.import-threads} of its own, and the authorities are only read once.
+ * A chunk the database rejects is written again row by row, so that only the rows at fault are rejected.
+ * As when creating a single user, the users are activated, and sent an email to choose their password.
+ */
+@Service
+public class UserImportService {
+
+    public static final String ROWS_COUNTER_NAME = "users.import.rows";
+    public static final String CHUNK_TIMER_NAME = "users.import.chunk";
+    public static final String HASHING_TIMER_NAME = "users.import.hashing";
+
+    /**
+     * Number of users written in each transaction.
+     */
+    public static final int CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserRepository userRepository;
+
+    private final UserInsertRepository userInsertRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final UserService userService;
+
+    private final MailService mailService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ObjectReader userReader;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor hashingExecutor;
+
+    private final Counter createdCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Timer chunkTimer;
+
+    private final Timer hashingTimer;
+
+    public UserImportService(
+        UserRepository userRepository,
+        UserInsertRepository userInsertRepository,
+        AuthorityRepository authorityRepository,
+        UserService userService,
+        MailService mailService,
+        PlatformTransactionManager transactionManager,
+        Validator validator,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.userRepository = userRepository;
+        this.userInsertRepository = userInsertRepository;
+        this.authorityRepository = authorityRepository;
+        this.userService = userService;
+        this.mailService = mailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.userReader = objectMapper.readerFor(AdminUserDTO.class);
+        ApplicationProperties.Security.PasswordHashing passwordHashing = applicationProperties.getSecurity().getPasswordHashing();
+        // The same hashes as the application password encoder, which only verifies them on login
+        this.passwordEncoder = new BCryptPasswordEncoder(passwordHashing.getStrength());
+        // The imports hash the passwords themselves when the queue is full, rather than piling up more of them
+        this.hashingExecutor =
+            new ThreadPoolExecutor(
+                passwordHashing.getImportThreads(),
+                passwordHashing.getImportThreads(),
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CHUNK_SIZE),
+                new CustomizableThreadFactory("user-import-hashing-"),
+                (hashing, executor) -> hashing.run()
+            );
+        this.createdCounter = rowsCounter("created").register(registry);
+        this.rejectedCounter = rowsCounter("rejected").register(registry);
+        this.chunkTimer = Timer.builder(CHUNK_TIMER_NAME).description("Time taken to import a chunk of users.").register(registry);
+        this.hashingTimer =
+            Timer.builder(HASHING_TIMER_NAME).description("Time taken to hash the passwords of a chunk of users.").register(registry);
+    }
+
+    private static Counter.Builder rowsCounter(String result) {
+        return Counter
+            .builder(ROWS_COUNTER_NAME)
+            .baseUnit("rows")
+            .description("Number of users imported or rejected.")
+            .tag("result", result);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    /**
+     * Create users from newline delimited JSON, one user per line. The ids are not allowed, and the authorities which
+     * do not exist are ignored.
+     *
+     * @param reader the input, left open.
+     * @return the import report.
+     * @throws IOException if the input cannot be read.
+     */
+    public UserImportReportDTO importNdjson(Reader reader) throws IOException {
+        log.debug("Request to import Users from NDJSON");
+        UserImportReportDTO report = new UserImportReportDTO();
+        Set<String> authorities = authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toSet());
+        String createdBy = SecurityUtils.getCurrentUserLogin().orElse(Constants.SYSTEM);
+        Set<String> logins = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<ParsedRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        BufferedReader lines = new BufferedReader(reader);
+        long start = System.nanoTime();
+        long row = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            AdminUserDTO userDTO;
+            try {
+                userDTO = userReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                reject(report, row, null, UserImportReportDTO.REASON_INVALID);
+                continue;
+            }
+            if (userDTO == null || userDTO.getId() != null || !validator.validate(userDTO).isEmpty()) {
+                reject(report, row, userDTO == null ? null : userDTO.getLogin(), UserImportReportDTO.REASON_INVALID);
+                continue;
+            }
+            ParsedRow parsed = new ParsedRow(row, userDTO);
+            if (!logins.add(parsed.login)) {
+                reject(report, row, parsed.login, UserImportReportDTO.REASON_LOGIN_ALREADY_USED);
+                continue;
+            }
+            if (parsed.email != null && !emails.add(parsed.email)) {
+                reject(report, row, parsed.login, UserImportReportDTO.REASON_EMAIL_ALREADY_USED);
+                continue;
+            }
+            chunk.add(parsed);
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, authorities, createdBy, report);
+            }
+        }
+        writeChunk(chunk, authorities, createdBy, report);
+
+        long elapsedNanos = System.nanoTime() - start;
+        report.setRows(row);
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getCreated() * 1_000_000_000d / elapsedNanos);
+        log.info(
+            "Imported {} of {} Users in {} ms ({} rows/s), {} rejected",
+            report.getCreated(),
+            report.getRows(),
+            report.getElapsedMillis(),
+            Math.round(report.getRowsPerSecond()),
+            report.getRejected()
+        );
+        return report;
+    }
+
+    /**
+     * Write the chunk, along with the creation emails of its users, in one transaction, then empty it. The rows whose login
+     * or email is already used are rejected, and when the chunk fails as a whole, its rows are written one by one so that
+     * only the ones failing are rejected.
+     */
+    private void writeChunk(List<ParsedRow> chunk, Set<String> authorities, String createdBy, UserImportReportDTO report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Set<String> usedLogins = new HashSet<>(
+            userRepository.findLoginsByLoginIn(chunk.stream().map(parsed -> parsed.login).collect(Collectors.toList()))
+        );
+        List<String> chunkEmails = chunk.stream().map(parsed -> parsed.email).filter(Objects::nonNull).collect(Collectors.toList());
+        Set<String> usedEmails = new HashSet<>(chunkEmails.isEmpty() ? List.of() : userRepository.findEmailsByEmailIn(chunkEmails));
+        List<ParsedRow> accepted = new ArrayList<>(chunk.size());
+        for (ParsedRow parsed : chunk) {
+            if (usedLogins.contains(parsed.login)) {
+                reject(report, parsed.row, parsed.login, UserImportReportDTO.REASON_LOGIN_ALREADY_USED);
+            } else if (parsed.email != null && usedEmails.contains(parsed.email)) {
+                reject(report, parsed.row, parsed.login, UserImportReportDTO.REASON_EMAIL_ALREADY_USED);
+            } else {
+                accepted.add(parsed);
+            }
+        }
+        List<User> users = newUsers(accepted, authorities, createdBy);
+        try {
+            insert(users, report);
+        } catch (DataAccessException | PersistenceException e) {
+            log.warn(
+                "Could not import the Users of rows {} to {}, importing them one by one: {}",
+                chunk.get(0).row,
+                chunk.get(chunk.size() - 1).row,
+                e.getMessage()
+            );
+            for (int i = 0; i < users.size(); i++) {
+                ParsedRow parsed = accepted.get(i);
+                try {
+                    insert(List.of(users.get(i)), report);
+                } catch (DataAccessException | PersistenceException rowException) {
+                    log.warn("Could not import the User of row {}: {}", parsed.row, rowException.getMessage());
+                    reject(report, parsed.row, parsed.login, UserImportReportDTO.REASON_FAILED);
+                }
+            }
+        }
+        chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        chunk.clear();
+    }
+
+    /**
+     * Insert the users, along with their creation emails, in one transaction.
+     */
+    private void insert(List<User> users, UserImportReportDTO report) {
+        transactionTemplate.executeWithoutResult(status -> {
+            userInsertRepository.insertAll(users);
+            users.forEach(mailService::sendCreationEmail);
+        });
+        userService.clearUserCaches(
+            users.stream().map(User::getLogin).collect(Collectors.toList()),
+            users.stream().map(User::getEmail).filter(Objects::nonNull).collect(Collectors.toList())
+        );
+        report.setCreated(report.getCreated() + users.size());
+        createdCounter.increment(users.size());
+    }
+
+    /**
+     * Build the users of the rows, their random passwords being hashed in parallel.
+     */
+    private List<User> newUsers(List<ParsedRow> rows, Set<String> authorities, String createdBy) {
+        long start = System.nanoTime();
+        List<Callable<String>> hashings = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            hashings.add(() -> passwordEncoder.encode(RandomUtil.generatePassword()));
+        }
+        List<Future<String>> passwords;
+        try {
+            passwords = hashingExecutor.invokeAll(hashings);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the passwords to be hashed", e);
+        }
+        hashingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        Instant now = Instant.now();
+        List<User> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            AdminUserDTO userDTO = rows.get(i).userDTO;
+            User user = new User();
+            user.setLogin(rows.get(i).login);
+            user.setFirstName(userDTO.getFirstName());
+            user.setLastName(userDTO.getLastName());
+            user.setEmail(rows.get(i).email);
+            user.setImageUrl(userDTO.getImageUrl());
+            user.setLangKey(userDTO.getLangKey() == null ? Constants.DEFAULT_LANGUAGE : userDTO.getLangKey());
+            user.setPassword(password(passwords.get(i)));
+            user.setResetKey(RandomUtil.generateResetKey());
+            user.setResetDate(now);
+            user.setActivated(true);
+            if (userDTO.getAuthorities() != null) {
+                user.setAuthorities(
+                    userDTO
+                        .getAuthorities()
+                        .stream()
+                        .filter(authorities::contains)
+                        .map(name -> {
+                            Authority authority = new Authority();
+                            authority.setName(name);
+                            return authority;
+                        })
+                        .collect(Collectors.toSet())
+                );
+            }
+            user.setCreatedBy(createdBy);
+            user.setCreatedDate(now);
+            user.setLastModifiedBy(createdBy);
+            user.setLastModifiedDate(now);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static String password(Future<String> hashing) {
+        try {
+            return hashing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password to be hashed", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void reject(UserImportReportDTO report, long row, String login, String reason) {
+        report.reject(row, login, reason);
+        rejectedCounter.increment();
+    }
+
+    /**
+     * A valid row of the input, with its login and email lowercased.
+     */
+    private static final class ParsedRow {
+
+        final long row;
+
+        final AdminUserDTO userDTO;
+
+        final String login;
+
+        final String email;
+
+        ParsedRow(long row, AdminUserDTO userDTO) {
+            this.row = row;
+            this.userDTO = userDTO;
+            this.login = userDTO.getLogin().toLowerCase(Locale.ENGLISH);
+            this.email = userDTO.getEmail() == null ? null : userDTO.getEmail().toLowerCase(Locale.ENGLISH);
+        }
+    }
+}
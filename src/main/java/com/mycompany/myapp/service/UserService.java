@@ -4,24 +4,37 @@ import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.UserDeletionRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.SecurityUtils;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -31,6 +44,15 @@ import tech.jhipster.security.RandomUtil;
 @Transactional
 public class UserService {
 
+    public static final String REMOVED_USERS_COUNTER_NAME = "users.not-activated.removed";
+    public static final String REMOVAL_CHUNK_TIMER_NAME = "users.not-activated.removal.chunk";
+    public static final String REMOVAL_PROGRESS_GAUGE_NAME = "users.not-activated.removal.progress";
+
+    /**
+     * The number of not activated users deleted per transaction.
+     */
+    static final int REMOVAL_CHUNK_SIZE = 500;
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
@@ -41,16 +63,48 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final UserDeletionRepository userDeletionRepository;
+
+    private final MailService mailService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter removedUsersCounter;
+
+    private final Timer removalChunkTimer;
+
+    private final AtomicLong removalProgress = new AtomicLong();
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        UserDeletionRepository userDeletionRepository,
+        MailService mailService,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.userDeletionRepository = userDeletionRepository;
+        this.mailService = mailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.removedUsersCounter =
+            Counter
+                .builder(REMOVED_USERS_COUNTER_NAME)
+                .baseUnit("users")
+                .description("Number of not activated users removed.")
+                .register(registry);
+        this.removalChunkTimer =
+            Timer.builder(REMOVAL_CHUNK_TIMER_NAME).description("Time taken to remove a chunk of not activated users.").register(registry);
+        Gauge
+            .builder(REMOVAL_PROGRESS_GAUGE_NAME, removalProgress, AtomicLong::get)
+            .baseUnit("users")
+            .description("Number of not activated users removed by the running, or last, removal.")
+            .register(registry);
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -89,6 +143,7 @@ public class UserService {
                 user.setResetKey(RandomUtil.generateResetKey());
                 user.setResetDate(Instant.now());
                 this.clearUserCaches(user);
+                mailService.sendPasswordResetMail(user);
                 return user;
             });
     }
@@ -131,6 +186,7 @@ public class UserService {
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
         this.clearUserCaches(newUser);
+        mailService.sendActivationEmail(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
@@ -176,6 +232,7 @@ public class UserService {
         }
         userRepository.save(user);
         this.clearUserCaches(user);
+        mailService.sendCreationEmail(user);
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -295,16 +352,37 @@ public class UserService {
      * Not activated users should be automatically deleted after 3 days.
      * <p>
      * This is scheduled to get fired everyday, at 01:00 (am).
+     * <p>
+     * The users are deleted by chunks of {@link #REMOVAL_CHUNK_SIZE}, oldest first, each chunk in its own transaction
+     * unless called inside one: only their ids and cache keys are read, and each chunk is deleted with one statement
+     * per table.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-                this.clearUserCaches(user);
-            });
+        Instant createdBefore = Instant.now().minus(3, ChronoUnit.DAYS);
+        removalProgress.set(0);
+        int removed;
+        do {
+            removed = removalChunkTimer.record(() -> transactionTemplate.execute(status -> removeNotActivatedUsersChunk(createdBefore)));
+            removedUsersCounter.increment(removed);
+            removalProgress.addAndGet(removed);
+        } while (removed == REMOVAL_CHUNK_SIZE);
+        log.debug("Deleted {} not activated users", removalProgress.get());
+    }
+
+    private int removeNotActivatedUsersChunk(Instant createdBefore) {
+        List<UserRepository.UserKeys> users = userRepository.findKeysOfNotActivatedUsersCreatedBefore(
+            createdBefore,
+            PageRequest.of(0, REMOVAL_CHUNK_SIZE)
+        );
+        List<Long> ids = users.stream().map(UserRepository.UserKeys::getId).collect(Collectors.toList());
+        int removed = userDeletionRepository.deleteNotActivatedByIdIn(ids);
+        clearUserCaches(
+            users.stream().map(UserRepository.UserKeys::getLogin).collect(Collectors.toList()),
+            users.stream().map(UserRepository.UserKeys::getEmail).filter(Objects::nonNull).collect(Collectors.toList())
+        );
+        return removed;
     }
 
     /**
@@ -316,10 +394,58 @@ public class UserService {
         return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
     }
 
+    /**
+     * Evict the cache entries of many users at once, with one removal per cache.
+     *
+     * @param logins the logins of the users.
+     * @param emails the emails of the users.
+     */
+    public void clearUserCaches(Collection<String> logins, Collection<String> emails) {
+        Set<Object> notFoundKeys = new HashSet<>(logins);
+        emails.forEach(email -> notFoundKeys.add(email.toLowerCase(Locale.ENGLISH)));
+        evictAll(UserRepository.USERS_BY_LOGIN_CACHE, new HashSet<>(logins));
+        evictAccounts(logins);
+        evictAll(UserRepository.USERS_BY_EMAIL_CACHE, new HashSet<>(emails));
+        evictAll(UserRepository.USERS_NOT_FOUND_CACHE, notFoundKeys);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictAll(String cacheName, Set<Object> keys) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName));
+        if (cache.getNativeCache() instanceof javax.cache.Cache) {
+            ((javax.cache.Cache<Object, Object>) cache.getNativeCache()).removeAll(keys);
+        } else {
+            keys.forEach(cache::evict);
+        }
+    }
+
+    /**
+     * Evict the accounts of the users, and again once the transaction is committed: the accounts read by the other
+     * requests until then are the ones from before the change.
+     */
+    private void evictAccounts(Collection<String> logins) {
+        Set<Object> keys = new HashSet<>(logins);
+        evictAll(UserRepository.ACCOUNTS_CACHE, keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evictAll(UserRepository.ACCOUNTS_CACHE, keys);
+                    }
+                }
+            );
+        }
+    }
+
     private void clearUserCaches(User user) {
+        Cache usersNotFound = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_NOT_FOUND_CACHE));
         Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        evictAccounts(List.of(user.getLogin()));
+        usersNotFound.evict(user.getLogin());
         if (user.getEmail() != null) {
             Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            usersNotFound.evict(user.getEmail().toLowerCase(Locale.ENGLISH));
         }
     }
 }
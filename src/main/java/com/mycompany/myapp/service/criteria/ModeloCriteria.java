@@ -0,0 +1,213 @@
+package com.mycompany.myapp.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.springdoc.api.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.DoubleFilter;
+import tech.jhipster.service.filter.IntegerFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the {@link com.mycompany.myapp.domain.Modelo} entity. This class is used
+ * in {@link com.mycompany.myapp.web.rest.ModeloResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /modelos/search?precio.greaterThanOrEqual=10000&precio.lessThan=20000&marcaId.equals=3}
+ * As Spring is unable to properly convert the types, unless specific {@link tech.jhipster.service.filter.Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+public class ModeloCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private StringFilter modelo;
+
+    private StringFilter color;
+
+    private IntegerFilter potencia;
+
+    private IntegerFilter plazas;
+
+    private DoubleFilter precio;
+
+    private LongFilter marcaId;
+
+    private Boolean distinct;
+
+    public ModeloCriteria() {}
+
+    public ModeloCriteria(ModeloCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.modelo = other.modelo == null ? null : other.modelo.copy();
+        this.color = other.color == null ? null : other.color.copy();
+        this.potencia = other.potencia == null ? null : other.potencia.copy();
+        this.plazas = other.plazas == null ? null : other.plazas.copy();
+        this.precio = other.precio == null ? null : other.precio.copy();
+        this.marcaId = other.marcaId == null ? null : other.marcaId.copy();
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public ModeloCriteria copy() {
+        return new ModeloCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            id = new LongFilter();
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public StringFilter getModelo() {
+        return modelo;
+    }
+
+    public StringFilter modelo() {
+        if (modelo == null) {
+            modelo = new StringFilter();
+        }
+        return modelo;
+    }
+
+    public void setModelo(StringFilter modelo) {
+        this.modelo = modelo;
+    }
+
+    public StringFilter getColor() {
+        return color;
+    }
+
+    public StringFilter color() {
+        if (color == null) {
+            color = new StringFilter();
+        }
+        return color;
+    }
+
+    public void setColor(StringFilter color) {
+        this.color = color;
+    }
+
+    public IntegerFilter getPotencia() {
+        return potencia;
+    }
+
+    public IntegerFilter potencia() {
+        if (potencia == null) {
+            potencia = new IntegerFilter();
+        }
+        return potencia;
+    }
+
+    public void setPotencia(IntegerFilter potencia) {
+        this.potencia = potencia;
+    }
+
+    public IntegerFilter getPlazas() {
+        return plazas;
+    }
+
+    public IntegerFilter plazas() {
+        if (plazas == null) {
+            plazas = new IntegerFilter();
+        }
+        return plazas;
+    }
+
+    public void setPlazas(IntegerFilter plazas) {
+        this.plazas = plazas;
+    }
+
+    public DoubleFilter getPrecio() {
+        return precio;
+    }
+
+    public DoubleFilter precio() {
+        if (precio == null) {
+            precio = new DoubleFilter();
+        }
+        return precio;
+    }
+
+    public void setPrecio(DoubleFilter precio) {
+        this.precio = precio;
+    }
+
+    public LongFilter getMarcaId() {
+        return marcaId;
+    }
+
+    public LongFilter marcaId() {
+        if (marcaId == null) {
+            marcaId = new LongFilter();
+        }
+        return marcaId;
+    }
+
+    public void setMarcaId(LongFilter marcaId) {
+        this.marcaId = marcaId;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ModeloCriteria that = (ModeloCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(modelo, that.modelo) &&
+            Objects.equals(color, that.color) &&
+            Objects.equals(potencia, that.potencia) &&
+            Objects.equals(plazas, that.plazas) &&
+            Objects.equals(precio, that.precio) &&
+            Objects.equals(marcaId, that.marcaId) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, modelo, color, potencia, plazas, precio, marcaId, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ModeloCriteria{" +
+            (id != null ? "id=" + id + ", " : "") +
+            (modelo != null ? "modelo=" + modelo + ", " : "") +
+            (color != null ? "color=" + color + ", " : "") +
+            (potencia != null ? "potencia=" + potencia + ", " : "") +
+            (plazas != null ? "plazas=" + plazas + ", " : "") +
+            (precio != null ? "precio=" + precio + ", " : "") +
+            (marcaId != null ? "marcaId=" + marcaId + ", " : "") +
+            (distinct != null ? "distinct=" + distinct + ", " : "") +
+            "}";
+    }
+}
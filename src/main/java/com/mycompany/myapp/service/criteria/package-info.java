@@ -0,0 +1,4 @@
+/**
+ * Criteria objects used to filter entities from Http GET request parameters.
+ */
+package com.mycompany.myapp.service.criteria;
@@ -0,0 +1,105 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO representing a name of the catalog suggested while typing: a marca, or the name shared by one or more modelos.
+ */
+public class CatalogSuggestionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * What a suggested name is the name of.
+     */
+    public enum Type {
+        MARCA,
+        MODELO,
+    }
+
+    private Type type;
+
+    private Long id;
+
+    private String label;
+
+    private long count;
+
+    public CatalogSuggestionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CatalogSuggestionDTO(Type type, Long id, String label, long count) {
+        this.type = type;
+        this.id = id;
+        this.label = label;
+        this.count = count;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the id of the marca, {@code null} for a modelo name.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the number of modelos of the marca, or named after the modelo name.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CatalogSuggestionDTO that = (CatalogSuggestionDTO) o;
+        return count == that.count && type == that.type && Objects.equals(id, that.id) && Objects.equals(label, that.label);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, id, label, count);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CatalogSuggestionDTO{" +
+            "type=" + type +
+            ", id=" + id +
+            ", label='" + label + "'" +
+            ", count=" + count +
+            "}";
+    }
+}
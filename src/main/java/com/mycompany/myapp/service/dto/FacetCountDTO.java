@@ -0,0 +1,85 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO representing the number of modelos sharing one value of a facet.
+ */
+public class FacetCountDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String value;
+
+    private String label;
+
+    private long count;
+
+    public FacetCountDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public FacetCountDTO(String value, String label, long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    /**
+     * @return the value to filter on, {@code null} for the modelos without a value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the name to display, when it differs from the value.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FacetCountDTO that = (FacetCountDTO) o;
+        return count == that.count && Objects.equals(value, that.value) && Objects.equals(label, that.label);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, label, count);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FacetCountDTO{" +
+            "value='" + value + "'" +
+            ", label='" + label + "'" +
+            ", count=" + count +
+            "}";
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the facets of the modelos matching a filter, for catalog navigation.
+ * Each facet lists its values by decreasing count, except the price buckets which are in price order.
+ */
+public class ModeloFacetsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long total;
+
+    private List<FacetCountDTO> marca = new ArrayList<>();
+
+    private List<FacetCountDTO> color = new ArrayList<>();
+
+    private List<FacetCountDTO> plazas = new ArrayList<>();
+
+    private List<FacetCountDTO> precio = new ArrayList<>();
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * @return the counts per marca, with the marca id as value and its name as label.
+     */
+    public List<FacetCountDTO> getMarca() {
+        return marca;
+    }
+
+    public void setMarca(List<FacetCountDTO> marca) {
+        this.marca = marca;
+    }
+
+    public List<FacetCountDTO> getColor() {
+        return color;
+    }
+
+    public void setColor(List<FacetCountDTO> color) {
+        this.color = color;
+    }
+
+    public List<FacetCountDTO> getPlazas() {
+        return plazas;
+    }
+
+    public void setPlazas(List<FacetCountDTO> plazas) {
+        this.plazas = plazas;
+    }
+
+    /**
+     * @return the counts per price bucket, with the bucket bounds as value, such as {@code 10000-20000}, the last
+     * bucket being open ended, such as {@code 100000-}.
+     */
+    public List<FacetCountDTO> getPrecio() {
+        return precio;
+    }
+
+    public void setPrecio(List<FacetCountDTO> precio) {
+        this.precio = precio;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ModeloFacetsDTO{" +
+            "total=" + total +
+            ", marca=" + marca +
+            ", color=" + color +
+            ", plazas=" + plazas +
+            ", precio=" + precio +
+            "}";
+    }
+}
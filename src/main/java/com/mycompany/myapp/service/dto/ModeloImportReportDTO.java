@@ -0,0 +1,113 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a bulk import of modelos.
+ */
+public class ModeloImportReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Only the first rejected rows are listed, the others are only counted.
+     */
+    public static final int MAX_REJECTED_ROWS = 100;
+
+    private long rows;
+
+    private long imported;
+
+    private long rejected;
+
+    private List<Long> rejectedRows = new ArrayList<>();
+
+    private long marcasCreated;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<Long> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(List<Long> rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public long getMarcasCreated() {
+        return marcasCreated;
+    }
+
+    public void setMarcasCreated(long marcasCreated) {
+        this.marcasCreated = marcasCreated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * Record a row that could not be imported.
+     *
+     * @param row the 1-based number of the row in the input.
+     */
+    public void reject(long row) {
+        rejected++;
+        if (rejectedRows.size() < MAX_REJECTED_ROWS) {
+            rejectedRows.add(row);
+        }
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ModeloImportReportDTO{" +
+            "rows=" + rows +
+            ", imported=" + imported +
+            ", rejected=" + rejected +
+            ", marcasCreated=" + marcasCreated +
+            ", elapsedMillis=" + elapsedMillis +
+            ", rowsPerSecond=" + rowsPerSecond +
+            "}";
+    }
+}
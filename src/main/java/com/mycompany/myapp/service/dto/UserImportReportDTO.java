@@ -0,0 +1,170 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a bulk import of users.
+ */
+public class UserImportReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Only the first rejected rows are listed, the others are only counted.
+     */
+    public static final int MAX_REJECTED_ROWS = 100;
+
+    public static final String REASON_INVALID = "invalid";
+
+    public static final String REASON_LOGIN_ALREADY_USED = "login-already-used";
+
+    public static final String REASON_EMAIL_ALREADY_USED = "email-already-used";
+
+    public static final String REASON_FAILED = "failed";
+
+    private long rows;
+
+    private long created;
+
+    private long rejected;
+
+    private List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<RejectedRow> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(List<RejectedRow> rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * Record a row that could not be imported.
+     *
+     * @param row the 1-based number of the row in the input.
+     * @param login the login of the row, if any.
+     * @param reason the reason why the row was rejected.
+     */
+    public void reject(long row, String login, String reason) {
+        rejected++;
+        if (rejectedRows.size() < MAX_REJECTED_ROWS) {
+            rejectedRows.add(new RejectedRow(row, login, reason));
+        }
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserImportReportDTO{" +
+            "rows=" + rows +
+            ", created=" + created +
+            ", rejected=" + rejected +
+            ", elapsedMillis=" + elapsedMillis +
+            ", rowsPerSecond=" + rowsPerSecond +
+            "}";
+    }
+
+    /**
+     * A row that could not be imported, and why.
+     */
+    public static class RejectedRow implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long row;
+
+        private String login;
+
+        private String reason;
+
+        public RejectedRow() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public RejectedRow(long row, String login, String reason) {
+            this.row = row;
+            this.login = login;
+            this.reason = reason;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public void setRow(long row) {
+            this.row = row;
+        }
+
+        public String getLogin() {
+            return login;
+        }
+
+        public void setLogin(String login) {
+            this.login = login;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "RejectedRow{" +
+                "row=" + row +
+                ", login='" + login + "'" +
+                ", reason='" + reason + "'" +
+                "}";
+        }
+    }
+}
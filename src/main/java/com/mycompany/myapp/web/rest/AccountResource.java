@@ -1,23 +1,32 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.SecurityUtils;
-import com.mycompany.myapp.service.MailService;
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.PasswordChangeDTO;
 import com.mycompany.myapp.web.rest.errors.*;
 import com.mycompany.myapp.web.rest.vm.KeyAndPasswordVM;
 import com.mycompany.myapp.web.rest.vm.ManagedUserVM;
+import java.io.Serializable;
 import java.util.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST controller for managing the current user's account.
@@ -39,12 +48,20 @@ public class AccountResource {
 
     private final UserService userService;
 
-    private final MailService mailService;
+    private final CacheManager cacheManager;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final ObjectMapper objectMapper;
+
+    public AccountResource(
+        UserRepository userRepository,
+        UserService userService,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper
+    ) {
         this.userRepository = userRepository;
         this.userService = userService;
-        this.mailService = mailService;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -61,8 +78,7 @@ public class AccountResource {
         if (isPasswordLengthInvalid(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
-        User user = userService.registerUser(managedUserVM, managedUserVM.getPassword());
-        mailService.sendActivationEmail(user);
+        userService.registerUser(managedUserVM, managedUserVM.getPassword());
     }
 
     /**
@@ -93,16 +109,37 @@ public class AccountResource {
 
     /**
      * {@code GET  /account} : get the current user.
+     * <p>
+     * The account is serialized once, and kept until the user changes, along with its ETag: the requests whose
+     * {@code If-None-Match} header matches it get a {@code 304 (Not Modified)} without body.
      *
-     * @return the current user.
+     * @param request the request.
+     * @return the current user, or {@code null} if the client already has it.
      * @throws RuntimeException {@code 500 (Internal Server Error)} if the user couldn't be returned.
      */
     @GetMapping("/account")
-    public AdminUserDTO getAccount() {
-        return userService
-            .getUserWithAuthorities()
-            .map(AdminUserDTO::new)
-            .orElseThrow(() -> new AccountResourceException("User could not be found"));
+    public ResponseEntity<byte[]> getAccount(WebRequest request) throws JsonProcessingException {
+        String login = SecurityUtils.getCurrentUserLogin().orElseThrow(() -> new AccountResourceException("User could not be found"));
+        Cache accounts = Objects.requireNonNull(cacheManager.getCache(UserRepository.ACCOUNTS_CACHE));
+        AccountView account = accounts.get(login, AccountView.class);
+        if (account == null) {
+            AdminUserDTO userDTO = userService
+                .getUserWithAuthoritiesByLogin(login)
+                .map(AdminUserDTO::new)
+                .orElseThrow(() -> new AccountResourceException("User could not be found"));
+            account = new AccountView(objectMapper.writeValueAsBytes(userDTO));
+            accounts.put(login, account);
+        }
+        if (request.checkNotModified(account.eTag)) {
+            return null;
+        }
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            // Revalidated on every use, instead of the default no-store which keeps the browsers from sending the ETag
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .eTag(account.eTag)
+            .body(account.body);
     }
 
     /**
@@ -156,9 +193,7 @@ public class AccountResource {
     @PostMapping(path = "/account/reset-password/init")
     public void requestPasswordReset(@RequestBody String mail) {
         Optional<User> user = userService.requestPasswordReset(mail);
-        if (user.isPresent()) {
-            mailService.sendPasswordResetMail(user.get());
-        } else {
+        if (user.isEmpty()) {
             // Pretend the request has been successful to prevent checking which emails really exist
             // but log that an invalid attempt has been made
             log.warn("Password reset requested for non existing mail");
@@ -191,4 +226,21 @@ public class AccountResource {
             password.length() > ManagedUserVM.PASSWORD_MAX_LENGTH
         );
     }
+
+    /**
+     * The serialized account of a user, and its ETag.
+     */
+    private static final class AccountView implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] body;
+
+        private final String eTag;
+
+        private AccountView(byte[] body) {
+            this.body = body;
+            this.eTag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+    }
 }
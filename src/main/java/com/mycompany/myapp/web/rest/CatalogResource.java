@@ -0,0 +1,94 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.service.CatalogSnapshotService;
+import com.mycompany.myapp.service.criteria.ModeloCriteria;
+import com.mycompany.myapp.service.dto.CatalogSuggestionDTO;
+import com.mycompany.myapp.service.dto.ModeloFacetsDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * REST controller for browsing the catalog of {@link Modelo}, read from the in-memory snapshot.
+ * <p>
+ * The snapshot is refreshed in the background after every write, so a change shows up here shortly after its commit.
+ * Use {@link ModeloResource} to read the modelos as stored.
+ */
+@RestController
+@RequestMapping("/api/catalog")
+public class CatalogResource {
+
+    private final Logger log = LoggerFactory.getLogger(CatalogResource.class);
+
+    private static final String ENTITY_NAME = "modelo";
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    public CatalogResource(CatalogSnapshotService catalogSnapshotService) {
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    /**
+     * {@code GET  /catalog/modelos} : get the modelos of the catalog matching the given criteria.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information, sorted on at most one property.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modelos in body,
+     * or with status {@code 400 (Bad Request)} if the catalog cannot be sorted on the requested property.
+     */
+    @GetMapping("/modelos")
+    public ResponseEntity<List<Modelo>> getCatalogModelos(
+        ModeloCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of the catalog by criteria: {}", criteria);
+        Page<Modelo> page;
+        try {
+            page = catalogSnapshotService.findAll(criteria, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "sortinvalid");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /catalog/facets} : get the facets of the modelos of the catalog matching the given criteria.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts per marca, color, plazas and price bucket in body.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ModeloFacetsDTO> getCatalogFacets(ModeloCriteria criteria) {
+        log.debug("REST request to get the facets of the catalog by criteria: {}", criteria);
+        return ResponseEntity.ok().body(catalogSnapshotService.findFacets(criteria));
+    }
+
+    /**
+     * {@code GET  /catalog/suggest?q=} : suggest names of marcas and modelos while typing.
+     *
+     * @param query the text typed so far, matched against the start of the words of the names, ignoring case and accents.
+     * @param size the maximum number of suggestions.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggested names in body.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CatalogSuggestionDTO>> suggestCatalogNames(
+        @RequestParam("q") String query,
+        @RequestParam(name = "size", defaultValue = "10") int size
+    ) {
+        log.debug("REST request to suggest names of the catalog for: {}", query);
+        return ResponseEntity.ok().body(catalogSnapshotService.suggest(query, size));
+    }
+}
@@ -2,7 +2,12 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Marca;
 import com.mycompany.myapp.repository.MarcaRepository;
+import com.mycompany.myapp.service.CatalogChangedEvent;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.KeysetPaginationService;
+import com.mycompany.myapp.service.KeysetSlice;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -13,6 +18,7 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
@@ -42,8 +48,18 @@ public class MarcaResource {
 
     private final MarcaRepository marcaRepository;
 
-    public MarcaResource(MarcaRepository marcaRepository) {
+    private final KeysetPaginationService keysetPaginationService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public MarcaResource(
+        MarcaRepository marcaRepository,
+        KeysetPaginationService keysetPaginationService,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
         this.marcaRepository = marcaRepository;
+        this.keysetPaginationService = keysetPaginationService;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -60,6 +76,7 @@ public class MarcaResource {
             throw new BadRequestAlertException("A new marca cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Marca result = marcaRepository.save(marca);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent(Marca.class));
         return ResponseEntity
             .created(new URI("/api/marcas/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -92,6 +109,7 @@ public class MarcaResource {
         }
 
         Marca result = marcaRepository.save(marca);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent(Marca.class));
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, marca.getId().toString()))
@@ -136,6 +154,7 @@ public class MarcaResource {
                 return existingMarca;
             })
             .map(marcaRepository::save);
+        result.ifPresent(updated -> applicationEventPublisher.publishEvent(new CatalogChangedEvent(Marca.class)));
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -145,18 +164,45 @@ public class MarcaResource {
 
     /**
      * {@code GET  /marcas} : get all the marcas.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first page), keyset pagination is used instead:
+     * the page is read after the cursor, no total count is computed, and the next page is advertised in a
+     * {@code Link: rel="next"} header only.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of marcas in body.
+     * @param after the cursor of the page to read, or {@code null} for offset pagination.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of marcas in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is invalid.
      */
     @GetMapping("/marcas")
-    public ResponseEntity<List<Marca>> getAllMarcas(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Marca>> getAllMarcas(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after
+    ) {
+        if (after != null) {
+            return getAllMarcasAfter(pageable, after);
+        }
         log.debug("REST request to get a page of Marcas");
         Page<Marca> page = marcaRepository.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<Marca>> getAllMarcasAfter(Pageable pageable, String after) {
+        log.debug("REST request to get a keyset page of Marcas after : {}", after);
+        KeysetSlice<Marca> slice;
+        try {
+            KeysetCursor cursor = after.isEmpty()
+                ? keysetPaginationService.firstCursor(Marca.class, pageable.getSort())
+                : KeysetCursor.decode(after);
+            slice = keysetPaginationService.findSlice(Marca.class, null, cursor, pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /marcas/:id} : get the "id" marca.
      *
@@ -180,6 +226,7 @@ public class MarcaResource {
     public ResponseEntity<Void> deleteMarca(@PathVariable Long id) {
         log.debug("REST request to delete Marca : {}", id);
         marcaRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent(Marca.class));
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
@@ -2,9 +2,29 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Modelo;
 import com.mycompany.myapp.repository.ModeloRepository;
+import com.mycompany.myapp.repository.search.ModeloSearchRepository;
+import com.mycompany.myapp.service.CatalogChangedEvent;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.KeysetPaginationService;
+import com.mycompany.myapp.service.KeysetSlice;
+import com.mycompany.myapp.service.ModeloExportService;
+import com.mycompany.myapp.service.ModeloFacetService;
+import com.mycompany.myapp.service.ModeloImportService;
+import com.mycompany.myapp.service.ModeloQueryService;
+import com.mycompany.myapp.service.ModeloSearchService;
+import com.mycompany.myapp.service.criteria.ModeloCriteria;
+import com.mycompany.myapp.service.dto.ModeloFacetsDTO;
+import com.mycompany.myapp.service.dto.ModeloImportReportDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -13,13 +33,18 @@ import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -27,6 +52,10 @@ import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Modelo}.
+ * <p>
+ * The listings read the modelos as stored, so that the management screens see their own writes at once, and can
+ * filter and sort on any property. The catalog is browsed through {@link CatalogResource} instead, from the in-memory
+ * snapshot refreshed shortly after every commit, without reaching the database.
  */
 @RestController
 @RequestMapping("/api")
@@ -37,13 +66,47 @@ public class ModeloResource {
 
     private static final String ENTITY_NAME = "modelo";
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final ModeloRepository modeloRepository;
 
-    public ModeloResource(ModeloRepository modeloRepository) {
+    private final ModeloQueryService modeloQueryService;
+
+    private final KeysetPaginationService keysetPaginationService;
+
+    private final ModeloExportService modeloExportService;
+
+    private final ModeloImportService modeloImportService;
+
+    private final ModeloFacetService modeloFacetService;
+
+    private final ModeloSearchService modeloSearchService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ModeloResource(
+        ModeloRepository modeloRepository,
+        ModeloQueryService modeloQueryService,
+        KeysetPaginationService keysetPaginationService,
+        ModeloExportService modeloExportService,
+        ModeloImportService modeloImportService,
+        ModeloFacetService modeloFacetService,
+        ModeloSearchService modeloSearchService,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
         this.modeloRepository = modeloRepository;
+        this.modeloQueryService = modeloQueryService;
+        this.keysetPaginationService = keysetPaginationService;
+        this.modeloExportService = modeloExportService;
+        this.modeloImportService = modeloImportService;
+        this.modeloFacetService = modeloFacetService;
+        this.modeloSearchService = modeloSearchService;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -60,12 +123,83 @@ public class ModeloResource {
             throw new BadRequestAlertException("A new modelo cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Modelo result = modeloRepository.save(modelo);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent(Modelo.class));
         return ResponseEntity
             .created(new URI("/api/modelos/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /modelos/bulk} : Import a feed of modelos, as CSV or newline delimited JSON.
+     * <p>
+     * The feed is read as a stream and written in chunked transactions. Rows that are not valid are skipped and
+     * reported, and marcas are resolved by name, created when missing.
+     *
+     * @param contentType the content type of the feed, {@code text/csv} or {@code application/x-ndjson}.
+     * @param body the feed.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report,
+     * or with status {@code 400 (Bad Request)} if the CSV header has no modelo column.
+     * @throws IOException if the feed cannot be read.
+     */
+    @PostMapping(value = "/modelos/bulk", consumes = { "text/csv", "application/x-ndjson" })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<ModeloImportReportDTO> importModelos(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to import Modelos as {}", contentType);
+        Reader reader = new InputStreamReader(body, charset(contentType));
+        ModeloImportReportDTO report;
+        try {
+            if (TEXT_CSV.isCompatibleWith(contentType)) {
+                report = modeloImportService.importCsv(reader);
+            } else {
+                report = modeloImportService.importNdjson(reader);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "headerinvalid");
+        }
+        return ResponseEntity.ok().body(report);
+    }
+
+    /**
+     * {@code PUT  /modelos/bulk} : Upsert a feed of modelos, as CSV or newline delimited JSON, on their serial number.
+     * <p>
+     * The modelos whose serial number already exists are updated, the others are created, so sending the same feed
+     * twice leaves the catalog unchanged. Rows without a serial number are rejected.
+     *
+     * @param contentType the content type of the feed, {@code text/csv} or {@code application/x-ndjson}.
+     * @param body the feed.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report,
+     * or with status {@code 400 (Bad Request)} if the CSV header has no modelo column.
+     * @throws IOException if the feed cannot be read.
+     */
+    @PutMapping(value = "/modelos/bulk", consumes = { "text/csv", "application/x-ndjson" })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<ModeloImportReportDTO> upsertModelos(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to upsert Modelos as {}", contentType);
+        Reader reader = new InputStreamReader(body, charset(contentType));
+        ModeloImportReportDTO report;
+        try {
+            if (TEXT_CSV.isCompatibleWith(contentType)) {
+                report = modeloImportService.upsertCsv(reader);
+            } else {
+                report = modeloImportService.upsertNdjson(reader);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "headerinvalid");
+        }
+        return ResponseEntity.ok().body(report);
+    }
+
+    private static Charset charset(MediaType contentType) {
+        return contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+
     /**
      * {@code PUT  /modelos/:id} : Updates an existing modelo.
      *
@@ -94,6 +228,7 @@ public class ModeloResource {
         }
 
         Modelo result = modeloRepository.save(modelo);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent(Modelo.class));
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, modelo.getId().toString()))
@@ -153,6 +288,7 @@ public class ModeloResource {
                 return existingModelo;
             })
             .map(modeloRepository::save);
+        result.ifPresent(updated -> applicationEventPublisher.publishEvent(new CatalogChangedEvent(Modelo.class)));
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -162,18 +298,129 @@ public class ModeloResource {
 
     /**
      * {@code GET  /modelos} : get all the modelos.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first page), keyset pagination is used instead:
+     * the page is read after the cursor, no total count is computed, and the next page is advertised in a
+     * {@code Link: rel="next"} header only.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modelos in body.
+     * @param after the cursor of the page to read, or {@code null} for offset pagination.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modelos in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is invalid.
      */
     @GetMapping("/modelos")
-    public ResponseEntity<List<Modelo>> getAllModelos(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Modelo>> getAllModelos(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after
+    ) {
+        if (after != null) {
+            return getAllModelosAfter(pageable, after);
+        }
         log.debug("REST request to get a page of Modelos");
-        Page<Modelo> page = modeloRepository.findAll(pageable);
+        Page<Modelo> page = modeloRepository.findAllWithMarcaBy(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private ResponseEntity<List<Modelo>> getAllModelosAfter(Pageable pageable, String after) {
+        log.debug("REST request to get a keyset page of Modelos after : {}", after);
+        KeysetSlice<Modelo> slice;
+        try {
+            KeysetCursor cursor = after.isEmpty()
+                ? keysetPaginationService.firstCursor(Modelo.class, pageable.getSort())
+                : KeysetCursor.decode(after);
+            slice = modeloQueryService.findSlice(null, cursor, pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /modelos/search} : get the modelos matching the given criteria.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of modelos in body.
+     */
+    @GetMapping("/modelos/search")
+    public ResponseEntity<List<Modelo>> searchModelos(
+        ModeloCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search a page of Modelos by criteria: {}", criteria);
+        Page<Modelo> page = modeloQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /modelos/facets} : get the facets of the modelos matching the given criteria.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts per marca, color, plazas and price bucket in body.
+     */
+    @GetMapping("/modelos/facets")
+    public ResponseEntity<ModeloFacetsDTO> getModeloFacets(ModeloCriteria criteria) {
+        log.debug("REST request to get the facets of Modelos by criteria: {}", criteria);
+        return ResponseEntity.ok().body(modeloFacetService.findFacets(criteria));
+    }
+
+    /**
+     * {@code SEARCH  /_search/modelos?query=:query} : search for the modelo corresponding
+     * to the query, in the full-text index.
+     *
+     * @param query the query of the modelo search, words to look for in the name, color, marca, plazas and potencia.
+     * @param pageable the pagination information, the modelos being sorted on relevance.
+     * @return the result of the search, or with status {@code 400 (Bad Request)} if the page is beyond the first
+     * {@link ModeloSearchRepository#MAX_RESULT_WINDOW} results.
+     */
+    @GetMapping("/_search/modelos")
+    public ResponseEntity<List<Modelo>> fullTextSearchModelos(
+        @RequestParam String query,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Modelos for query {}", query);
+        Page<Modelo> page;
+        try {
+            page = modeloSearchService.search(query, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "searchwindow");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /modelos/export} : stream all the modelos.
+     *
+     * @param format the export format, {@code ndjson} (the default) or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the modelos streamed in body,
+     * or with status {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/modelos/export")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StreamingResponseBody> exportModelos(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export all Modelos as {}", format);
+        StreamingResponseBody body;
+        MediaType contentType;
+        if ("ndjson".equals(format)) {
+            body = modeloExportService::exportNdjson;
+            contentType = APPLICATION_NDJSON;
+        } else if ("csv".equals(format)) {
+            body = modeloExportService::exportCsv;
+            contentType = TEXT_CSV;
+        } else {
+            throw new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid");
+        }
+        return ResponseEntity
+            .ok()
+            .contentType(contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("modelos." + format).build().toString())
+            .body(body);
+    }
+
     /**
      * {@code GET  /modelos/:id} : get the "id" modelo.
      *
@@ -183,7 +430,7 @@ public class ModeloResource {
     @GetMapping("/modelos/{id}")
     public ResponseEntity<Modelo> getModelo(@PathVariable Long id) {
         log.debug("REST request to get Modelo : {}", id);
-        Optional<Modelo> modelo = modeloRepository.findById(id);
+        Optional<Modelo> modelo = modeloRepository.findOneWithMarcaById(id);
         return ResponseUtil.wrapOrNotFound(modelo);
     }
 
@@ -197,6 +444,7 @@ public class ModeloResource {
     public ResponseEntity<Void> deleteModelo(@PathVariable Long id) {
         log.debug("REST request to delete Modelo : {}", id);
         modeloRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent(Modelo.class));
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
@@ -0,0 +1,45 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.TokenRevocationService;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.vm.RevokeTokenVM;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for revoking the tokens of the users.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class RevokedTokenResource {
+
+    private final Logger log = LoggerFactory.getLogger(RevokedTokenResource.class);
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public RevokedTokenResource(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /**
+     * {@code POST  /admin/revoked-tokens} : Revoke a token until it expires.
+     *
+     * @param revokeTokenVM the token to revoke.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the token is invalid, expired, or cannot be revoked.
+     */
+    @PostMapping("/revoked-tokens")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Void> revokeToken(@Valid @RequestBody RevokeTokenVM revokeTokenVM) {
+        log.debug("REST request to revoke a token");
+        if (!tokenRevocationService.revoke(revokeTokenVM.getToken())) {
+            throw new BadRequestAlertException("The token is invalid, expired, or cannot be revoked", "revokedToken", "tokeninvalid");
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
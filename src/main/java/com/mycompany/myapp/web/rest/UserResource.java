@@ -4,14 +4,20 @@ import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
-import com.mycompany.myapp.service.MailService;
+import com.mycompany.myapp.service.UserImportService;
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.dto.UserImportReportDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import com.mycompany.myapp.web.rest.errors.EmailAlreadyUsedException;
 import com.mycompany.myapp.web.rest.errors.LoginAlreadyUsedException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Collections;
 import javax.validation.Valid;
@@ -24,6 +30,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -85,12 +92,12 @@ public class UserResource {
 
     private final UserRepository userRepository;
 
-    private final MailService mailService;
+    private final UserImportService userImportService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    public UserResource(UserService userService, UserRepository userRepository, UserImportService userImportService) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.mailService = mailService;
+        this.userImportService = userImportService;
     }
 
     /**
@@ -119,7 +126,6 @@ public class UserResource {
             throw new EmailAlreadyUsedException();
         } else {
             User newUser = userService.createUser(userDTO);
-            mailService.sendCreationEmail(newUser);
             return ResponseEntity
                 .created(new URI("/api/admin/users/" + newUser.getLogin()))
                 .headers(HeaderUtil.createAlert(applicationName, "userManagement.created", newUser.getLogin()))
@@ -127,6 +133,26 @@ public class UserResource {
         }
     }
 
+    /**
+     * {@code POST  /admin/users/bulk} : Creates many users at once, from newline delimited JSON.
+     * <p>
+     * The users are read as a stream and created in chunked transactions, as by {@code POST /admin/users}, and sent
+     * an email with a link to choose their password. The users which are not valid, or whose login or email is already
+     * in use, are skipped and reported.
+     *
+     * @param body the users, one per line.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report.
+     * @throws IOException if the users cannot be read.
+     */
+    @PostMapping(value = "/users/bulk", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<UserImportReportDTO> createUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body)
+        throws IOException {
+        log.debug("REST request to import Users");
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        return ResponseEntity.ok().body(userImportService.importNdjson(new InputStreamReader(body, charset)));
+    }
+
     /**
      * {@code PUT /admin/users} : Updates an existing User.
      *
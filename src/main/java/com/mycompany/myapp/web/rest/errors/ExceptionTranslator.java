@@ -1,6 +1,7 @@
 package com.mycompany.myapp.web.rest.errors;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.validation.BindingResult;
@@ -164,6 +166,24 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handlePasswordHashingUnavailable(
+        com.mycompany.myapp.security.PasswordHashingUnavailableException ex,
+        NativeWebRequest request
+    ) {
+        Problem problem = Problem.builder().withStatus(Status.SERVICE_UNAVAILABLE).withDetail(ex.getMessage()).build();
+        return create(ex, problem, request, retryAfter(ex.getRetryAfter()));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleLoginRateLimitExceeded(
+        com.mycompany.myapp.security.LoginRateLimitExceededException ex,
+        NativeWebRequest request
+    ) {
+        Problem problem = Problem.builder().withStatus(Status.TOO_MANY_REQUESTS).withDetail(ex.getMessage()).build();
+        return create(ex, problem, request, retryAfter(ex.getRetryAfter()));
+    }
+
     @Override
     public ProblemBuilder prepare(final Throwable throwable, final StatusType status, final URI type) {
         Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
@@ -215,6 +235,13 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
             );
     }
 
+    private static HttpHeaders retryAfter(Duration delay) {
+        HttpHeaders headers = new HttpHeaders();
+        // Rounded up, so that the clients do not retry too early
+        headers.add(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (delay.toMillis() + 999) / 1000)));
+        return headers;
+    }
+
     private boolean containsPackageName(String message) {
         // This list is for sure not complete
         return StringUtils.containsAny(message, "org.", "java.", "net.", "javax.", "com.", "io.", "de.", "com.mycompany.myapp");
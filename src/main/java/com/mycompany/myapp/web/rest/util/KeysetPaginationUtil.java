@@ -0,0 +1,44 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.KeysetSlice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (cursor) pagination.
+ * <p>
+ * Counterpart of {@link tech.jhipster.web.util.PaginationUtil} for {@link KeysetSlice}: only a {@code rel="next"}
+ * link is generated, and no {@code X-Total-Count} header, since counting is what keyset pagination avoids.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate keyset pagination headers for a Spring Data {@link KeysetSlice} object.
+     *
+     * @param uriBuilder The URI builder.
+     * @param slice The page.
+     * @return http header.
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, KeysetSlice<?> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        slice
+            .getNext()
+            .ifPresent(next ->
+                headers.add(
+                    HttpHeaders.LINK,
+                    String.format(
+                        HEADER_LINK_FORMAT,
+                        uriBuilder.replaceQueryParam("page").replaceQueryParam(AFTER_PARAMETER, next.encode()).toUriString(),
+                        "next"
+                    )
+                )
+            );
+        return headers;
+    }
+}
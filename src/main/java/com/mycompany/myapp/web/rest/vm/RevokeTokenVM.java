@@ -0,0 +1,20 @@
+package com.mycompany.myapp.web.rest.vm;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * View Model object for storing a token to revoke.
+ */
+public class RevokeTokenVM {
+
+    @NotNull
+    private String token;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
@@ -83,6 +83,23 @@ describe('Auth JWT', () => {
       // THEN
       expect(localStorageService.clear).toHaveBeenCalled();
       expect(sessionStorageService.clear).toHaveBeenCalled();
+      httpMock.verify();
+    });
+
+    it('should revoke the token on the server', () => {
+      // GIVEN
+      sessionStorageService.retrieve = jest.fn().mockReturnValue('sessionStorageToken');
+      sessionStorageService.clear = jest.fn();
+
+      // WHEN
+      service.logout().subscribe();
+      const request = httpMock.expectOne({ method: 'POST', url: 'api/logout' });
+      request.flush(null, { status: 401, statusText: 'Unauthorized' });
+
+      // THEN
+      httpMock.verify();
+      expect(request.request.headers.get('Authorization')).toEqual('Bearer sessionStorageToken');
+      expect(sessionStorageService.clear).toHaveBeenCalled();
     });
   });
 });
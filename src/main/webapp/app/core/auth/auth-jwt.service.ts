@@ -34,9 +34,16 @@ export class AuthServerProvider {
 
   logout(): Observable<void> {
     return new Observable(observer => {
+      const token = this.getToken();
       this.localStorageService.clear('authenticationToken');
       this.sessionStorageService.clear('authenticationToken');
       observer.complete();
+      if (token) {
+        // Revoked on the server as well, so that a copy of the token is no longer accepted: logged out locally whatever the outcome
+        this.http
+          .post(this.applicationConfigService.getEndpointFor('api/logout'), null, { headers: { Authorization: `Bearer ${token}` } })
+          .subscribe({ error: () => undefined });
+      }
     });
   }
 
@@ -32,5 +32,10 @@ describe('Parse links service test', () => {
       const links = { last: 0, first: 0 };
       expect(service.parse(' </api/audits?page=0&size=20>; rel="last",</api/audits?page=0&size=20>; rel="first"')).toEqual(links);
     }));
+
+    it('should return links with all their parameters when headers are passed', inject([ParseLinks], (service: ParseLinks) => {
+      const links = { next: { after: 'MTIz', size: '20' } };
+      expect(service.parseAll('</api/modelos?after=MTIz&size=20>; rel="next"')).toEqual(links);
+    }));
   });
 });
@@ -11,13 +11,30 @@ export class ParseLinks {
    * Method to parse the links
    */
   parse(header: string): { [key: string]: number } {
+    const links: { [key: string]: number } = {};
+    const linksWithParams = this.parseAll(header);
+
+    Object.keys(linksWithParams).forEach(name => {
+      const page = linksWithParams[name].page;
+      if (page !== undefined) {
+        links[name] = parseInt(page, 10);
+      }
+    });
+    return links;
+  }
+
+  /**
+   * Method to parse the links, keeping every query parameter of each link.
+   * Used for cursor based pagination, where the next link carries an opaque `after` token instead of a page number.
+   */
+  parseAll(header: string): { [key: string]: { [key: string]: string | undefined } } {
     if (header.length === 0) {
       throw new Error('input must not be of zero length');
     }
 
     // Split parts by comma
     const parts: string[] = header.split(',');
-    const links: { [key: string]: number } = {};
+    const links: { [key: string]: { [key: string]: string | undefined } } = {};
 
     // Parse each part into a named link
     parts.forEach(p => {
@@ -37,10 +54,8 @@ export class ParseLinks {
         return $3 ?? '';
       });
 
-      if (queryString.page !== undefined) {
-        const name: string = section[1].replace(/rel="(.*)"/, '$1').trim();
-        links[name] = parseInt(queryString.page, 10);
-      }
+      const name: string = section[1].replace(/rel="(.*)"/, '$1').trim();
+      links[name] = queryString;
     });
     return links;
   }
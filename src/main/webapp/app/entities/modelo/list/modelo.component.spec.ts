@@ -1,8 +1,6 @@
 import { ComponentFixture, TestBed } from '@angular/core/testing';
 import { HttpHeaders, HttpResponse } from '@angular/common/http';
 import { HttpClientTestingModule } from '@angular/common/http/testing';
-import { ActivatedRoute } from '@angular/router';
-import { RouterTestingModule } from '@angular/router/testing';
 import { of } from 'rxjs';
 
 import { ModeloService } from '../service/modelo.service';
@@ -16,25 +14,8 @@ describe('Modelo Management Component', () => {
 
   beforeEach(() => {
     TestBed.configureTestingModule({
-      imports: [RouterTestingModule.withRoutes([{ path: 'modelo', component: ModeloComponent }]), HttpClientTestingModule],
+      imports: [HttpClientTestingModule],
       declarations: [ModeloComponent],
-      providers: [
-        {
-          provide: ActivatedRoute,
-          useValue: {
-            data: of({
-              defaultSort: 'id,asc',
-            }),
-            queryParamMap: of(
-              jest.requireActual('@angular/router').convertToParamMap({
-                page: '1',
-                size: '1',
-                sort: 'id,desc',
-              })
-            ),
-          },
-        },
-      ],
     })
       .overrideTemplate(ModeloComponent, '')
       .compileComponents();
@@ -43,7 +24,7 @@ describe('Modelo Management Component', () => {
     comp = fixture.componentInstance;
     service = TestBed.inject(ModeloService);
 
-    const headers = new HttpHeaders();
+    const headers = new HttpHeaders().append('link', '</api/modelos?after=MTIz&size=20>; rel="next"');
     jest.spyOn(service, 'query').mockReturnValue(
       of(
         new HttpResponse({
@@ -59,17 +40,29 @@ describe('Modelo Management Component', () => {
     comp.ngOnInit();
 
     // THEN
-    expect(service.query).toHaveBeenCalled();
-    expect(comp.modelos?.[0]).toEqual(expect.objectContaining({ id: 123 }));
+    expect(service.query).toHaveBeenCalledWith(expect.objectContaining({ after: '' }));
+    expect(comp.modelos[0]).toEqual(expect.objectContaining({ id: 123 }));
+    expect(comp.nextCursor).toEqual('MTIz');
   });
 
-  it('should load a page', () => {
+  it('should load the next page after the cursor', () => {
+    // GIVEN
+    comp.ngOnInit();
+
+    // WHEN
+    comp.loadNextPage();
+
+    // THEN
+    expect(service.query).toHaveBeenLastCalledWith(expect.objectContaining({ after: 'MTIz' }));
+    expect(comp.modelos).toHaveLength(2);
+  });
+
+  it('should not load a next page without a cursor', () => {
     // WHEN
-    comp.loadPage(1);
+    comp.loadNextPage();
 
     // THEN
-    expect(service.query).toHaveBeenCalled();
-    expect(comp.modelos?.[0]).toEqual(expect.objectContaining({ id: 123 }));
+    expect(service.query).not.toHaveBeenCalled();
   });
 
   it('should calculate the sort attribute for an id', () => {
@@ -77,7 +70,7 @@ describe('Modelo Management Component', () => {
     comp.ngOnInit();
 
     // THEN
-    expect(service.query).toHaveBeenCalledWith(expect.objectContaining({ sort: ['id,desc'] }));
+    expect(service.query).toHaveBeenCalledWith(expect.objectContaining({ sort: ['id,asc'] }));
   });
 
   it('should calculate the sort attribute for a non-id attribute', () => {
@@ -88,9 +81,22 @@ describe('Modelo Management Component', () => {
     comp.predicate = 'name';
 
     // WHEN
-    comp.loadPage(1);
+    comp.reset();
+
+    // THEN
+    expect(service.query).toHaveBeenLastCalledWith(expect.objectContaining({ sort: ['name,asc', 'id'] }));
+  });
+
+  it('should re-initialize the listing', () => {
+    // WHEN
+    comp.ngOnInit();
+    comp.loadNextPage();
+    comp.reset();
 
     // THEN
-    expect(service.query).toHaveBeenLastCalledWith(expect.objectContaining({ sort: ['name,desc', 'id'] }));
+    expect(service.query).toHaveBeenCalledTimes(3);
+    expect(service.query).toHaveBeenLastCalledWith(expect.objectContaining({ after: '' }));
+    expect(comp.modelos[0]).toEqual(expect.objectContaining({ id: 123 }));
+    expect(comp.modelos).toHaveLength(1);
   });
 });
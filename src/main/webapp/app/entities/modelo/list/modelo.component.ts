@@ -1,60 +1,67 @@
 import { Component, OnInit } from '@angular/core';
 import { HttpHeaders, HttpResponse } from '@angular/common/http';
-import { ActivatedRoute, Router } from '@angular/router';
-import { combineLatest } from 'rxjs';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { IModelo } from '../modelo.model';
 
-import { ASC, DESC, ITEMS_PER_PAGE, SORT } from 'app/config/pagination.constants';
+import { ASC, DESC, ITEMS_PER_PAGE } from 'app/config/pagination.constants';
 import { ModeloService } from '../service/modelo.service';
 import { ModeloDeleteDialogComponent } from '../delete/modelo-delete-dialog.component';
+import { ParseLinks } from 'app/core/util/parse-links.service';
 
 @Component({
   selector: 'jhi-modelo',
   templateUrl: './modelo.component.html',
 })
 export class ModeloComponent implements OnInit {
-  modelos?: IModelo[];
+  modelos: IModelo[];
   isLoading = false;
-  totalItems = 0;
-  itemsPerPage = ITEMS_PER_PAGE;
-  page?: number;
-  predicate!: string;
-  ascending!: boolean;
-  ngbPaginationPage = 1;
+  itemsPerPage: number;
+  nextCursor?: string;
+  predicate: string;
+  ascending: boolean;
 
-  constructor(
-    protected modeloService: ModeloService,
-    protected activatedRoute: ActivatedRoute,
-    protected router: Router,
-    protected modalService: NgbModal
-  ) {}
+  constructor(protected modeloService: ModeloService, protected modalService: NgbModal, protected parseLinks: ParseLinks) {
+    this.modelos = [];
+    this.itemsPerPage = ITEMS_PER_PAGE;
+    this.predicate = 'id';
+    this.ascending = true;
+  }
 
-  loadPage(page?: number, dontNavigate?: boolean): void {
+  loadAll(): void {
     this.isLoading = true;
-    const pageToLoad: number = page ?? this.page ?? 1;
 
     this.modeloService
       .query({
-        page: pageToLoad - 1,
+        after: this.nextCursor ?? '',
         size: this.itemsPerPage,
         sort: this.sort(),
       })
       .subscribe({
         next: (res: HttpResponse<IModelo[]>) => {
           this.isLoading = false;
-          this.onSuccess(res.body, res.headers, pageToLoad, !dontNavigate);
+          this.paginateModelos(res.body, res.headers);
         },
         error: () => {
           this.isLoading = false;
-          this.onError();
         },
       });
   }
 
+  reset(): void {
+    this.nextCursor = undefined;
+    this.modelos = [];
+    this.loadAll();
+  }
+
+  loadNextPage(): void {
+    if (this.nextCursor !== undefined && !this.isLoading) {
+      this.loadAll();
+    }
+  }
+
   ngOnInit(): void {
-    this.handleNavigation();
+    this.loadAll();
   }
 
   trackId(index: number, item: IModelo): number {
@@ -67,7 +74,7 @@ export class ModeloComponent implements OnInit {
     // unsubscribe not needed because closed completes on modal close
     modalRef.closed.subscribe(reason => {
       if (reason === 'deleted') {
-        this.loadPage();
+        this.reset();
       }
     });
   }
@@ -80,38 +87,13 @@ export class ModeloComponent implements OnInit {
     return result;
   }
 
-  protected handleNavigation(): void {
-    combineLatest([this.activatedRoute.data, this.activatedRoute.queryParamMap]).subscribe(([data, params]) => {
-      const page = params.get('page');
-      const pageNumber = +(page ?? 1);
-      const sort = (params.get(SORT) ?? data['defaultSort']).split(',');
-      const predicate = sort[0];
-      const ascending = sort[1] === ASC;
-      if (pageNumber !== this.page || predicate !== this.predicate || ascending !== this.ascending) {
-        this.predicate = predicate;
-        this.ascending = ascending;
-        this.loadPage(pageNumber, true);
+  protected paginateModelos(data: IModelo[] | null, headers: HttpHeaders): void {
+    const linkHeader = headers.get('link');
+    this.nextCursor = linkHeader ? this.parseLinks.parseAll(linkHeader).next?.after : undefined;
+    if (data) {
+      for (const d of data) {
+        this.modelos.push(d);
       }
-    });
-  }
-
-  protected onSuccess(data: IModelo[] | null, headers: HttpHeaders, page: number, navigate: boolean): void {
-    this.totalItems = Number(headers.get('X-Total-Count'));
-    this.page = page;
-    if (navigate) {
-      this.router.navigate(['/modelo'], {
-        queryParams: {
-          page: this.page,
-          size: this.itemsPerPage,
-          sort: this.predicate + ',' + (this.ascending ? ASC : DESC),
-        },
-      });
     }
-    this.modelos = data ?? [];
-    this.ngbPaginationPage = this.page;
-  }
-
-  protected onError(): void {
-    this.ngbPaginationPage = this.page ?? 1;
   }
 }
@@ -11,9 +11,6 @@ const modeloRoute: Routes = [
   {
     path: '',
     component: ModeloComponent,
-    data: {
-      defaultSort: 'id,asc',
-    },
     canActivate: [UserRouteAccessService],
   },
   {
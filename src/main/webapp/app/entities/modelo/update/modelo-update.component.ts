@@ -27,7 +27,7 @@ export class ModeloUpdateComponent implements OnInit {
     plazas: [],
     precio: [],
     marca: [],
-    numero_serie: [],
+    numero_serie: [null, [Validators.maxLength(50)]],
   });
 
   constructor(
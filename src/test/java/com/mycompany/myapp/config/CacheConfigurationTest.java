@@ -0,0 +1,175 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.ehcache.config.EvictionAdvisor;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.util.unit.DataSize;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the {@link CacheConfiguration} class.
+ */
+class CacheConfigurationTest {
+
+    private JHipsterProperties jHipsterProperties;
+
+    private ApplicationProperties applicationProperties;
+
+    private StaticListableBeanFactory beanFactory;
+
+    private CachingProvider cachingProvider;
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getEhcache().setMaxEntries(100);
+        jHipsterProperties.getCache().getEhcache().setTimeToLiveSeconds(3600);
+        applicationProperties = new ApplicationProperties();
+        beanFactory = new StaticListableBeanFactory();
+        cachingProvider = Caching.getCachingProvider("org.ehcache.jsr107.EhcacheCachingProvider");
+        cacheManager = cachingProvider.getCacheManager(cachingProvider.getDefaultURI(), getClass().getClassLoader());
+    }
+
+    @AfterEach
+    public void teardown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void regionsWithoutSettingsShareTheDefaults() {
+        createCaches();
+
+        ResourcePools pools = resourcePools(Authority.class.getName());
+        assertThat(pools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(100);
+        assertThat(pools.getPoolForResource(ResourceType.Core.HEAP).getUnit()).isEqualTo(EntryUnit.ENTRIES);
+        assertThat(pools.getPoolForResource(ResourceType.Core.OFFHEAP)).isNull();
+    }
+
+    @Test
+    void regionsWithTheirOwnSettings() {
+        ApplicationProperties.Cache.Region modelo = region(Modelo.class.getSimpleName());
+        modelo.setHeapEntries(5000L);
+        modelo.setOffHeapSize(DataSize.ofMegabytes(2));
+        ApplicationProperties.Cache.Region users = region(UserRepository.USERS_BY_LOGIN_CACHE);
+        users.setHeapSize(DataSize.ofKilobytes(512));
+        users.setTimeToIdle(Duration.ofMinutes(5));
+        createCaches();
+
+        ResourcePools modeloPools = resourcePools(Modelo.class.getName());
+        assertThat(modeloPools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(5000);
+        assertThat(modeloPools.getPoolForResource(ResourceType.Core.OFFHEAP).getSize()).isEqualTo(2048);
+        assertThat(modeloPools.getPoolForResource(ResourceType.Core.OFFHEAP).getUnit()).isEqualTo(MemoryUnit.KB);
+        ResourcePools userPools = resourcePools(UserRepository.USERS_BY_LOGIN_CACHE);
+        assertThat(userPools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(512);
+        assertThat(userPools.getPoolForResource(ResourceType.Core.HEAP).getUnit()).isEqualTo(MemoryUnit.KB);
+
+        // Entries spilled to the off-heap tier are serialized
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(Modelo.class.getName());
+        cache.put(1L, "Ibiza");
+        assertThat(cache.get(1L)).isEqualTo("Ibiza");
+        javax.cache.Cache<Object, Object> usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        usersByLogin.put("user", new User());
+        assertThat(usersByLogin.get("user")).isNotNull();
+    }
+
+    @Test
+    void regionWithEvictionAdvisor() {
+        EvictionAdvisor<Object, Object> keepAdmin = (key, value) -> "admin".equals(key);
+        beanFactory.addBean("keepAdmin", keepAdmin);
+        ApplicationProperties.Cache.Region users = region(UserRepository.USERS_BY_LOGIN_CACHE);
+        users.setHeapEntries(2L);
+        users.setEvictionAdvisor("keepAdmin");
+        createCaches();
+
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        cache.put("admin", "admin");
+        for (int i = 0; i < 10; i++) {
+            cache.put("user" + i, "user");
+        }
+        assertThat(cache.get("admin")).isEqualTo("admin");
+    }
+
+    @Test
+    void regionWithConflictingSettings() {
+        ApplicationProperties.Cache.Region modelo = region(Modelo.class.getName());
+        modelo.setTimeToLive(Duration.ofHours(1));
+        modelo.setTimeToIdle(Duration.ofMinutes(5));
+
+        assertThatThrownBy(this::createCaches).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void regionWithDiskTierWithoutDirectory() {
+        ApplicationProperties.Cache.Region modelo = region(Modelo.class.getName());
+        modelo.setDiskSize(DataSize.ofMegabytes(10));
+
+        assertThatThrownBy(this::createCaches).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void regionWithDiskTierSurvivesRestarts(@TempDir Path directory) throws IOException {
+        applicationProperties.getCache().getDisk().setDirectory(directory.toString());
+        ApplicationProperties.Cache.Region modelo = region(Modelo.class.getSimpleName());
+        modelo.setHeapEntries(10L);
+        modelo.setDiskSize(DataSize.ofMegabytes(10));
+        CacheConfiguration configuration = new CacheConfiguration(jHipsterProperties, applicationProperties, beanFactory);
+        beanFactory.addBean("cacheManagerCustomizer", configuration.cacheManagerCustomizer());
+
+        PersistentCacheDirectory cacheDirectory = configuration.persistentCacheDirectory();
+        CacheManager persistentCacheManager = configuration.jCacheCacheManager(
+            cacheDirectory,
+            beanFactory.getBeanProvider(JCacheManagerCustomizer.class)
+        );
+        persistentCacheManager.getCache(Modelo.class.getName()).put(1L, "Ibiza");
+        persistentCacheManager.close();
+        cacheDirectory.close();
+
+        cacheDirectory = configuration.persistentCacheDirectory();
+        persistentCacheManager = configuration.jCacheCacheManager(cacheDirectory, beanFactory.getBeanProvider(JCacheManagerCustomizer.class));
+        assertThat(persistentCacheManager.getCache(Modelo.class.getName()).get(1L)).isEqualTo("Ibiza");
+        assertThat(resourcePools(persistentCacheManager, Modelo.class.getName()).getPoolForResource(ResourceType.Core.DISK).isPersistent())
+            .isTrue();
+        persistentCacheManager.close();
+    }
+
+    private ApplicationProperties.Cache.Region region(String name) {
+        return applicationProperties.getCache().getRegions().computeIfAbsent(name, n -> new ApplicationProperties.Cache.Region());
+    }
+
+    private void createCaches() {
+        new CacheConfiguration(jHipsterProperties, applicationProperties, beanFactory).cacheManagerCustomizer().customize(cacheManager);
+    }
+
+    private ResourcePools resourcePools(String cacheName) {
+        return resourcePools(cacheManager, cacheName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResourcePools resourcePools(CacheManager cacheManager, String cacheName) {
+        org.ehcache.Cache<Object, Object> cache = cacheManager.getCache(cacheName).unwrap(org.ehcache.Cache.class);
+        return cache.getRuntimeConfiguration().getResourcePools();
+    }
+}
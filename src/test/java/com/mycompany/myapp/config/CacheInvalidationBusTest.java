@@ -0,0 +1,321 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.domain.Authority;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the {@link CacheInvalidationBus} class.
+ */
+class CacheInvalidationBusTest {
+
+    private static final String SECRET = "a-secret-shared-by-the-nodes";
+
+    private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+    private final CacheInvalidationBus.Receiver recorder = new CacheInvalidationBus.Receiver() {
+        @Override
+        public void remove(String cacheName, Object key) {
+            received.add("remove " + cacheName + " " + key);
+        }
+
+        @Override
+        public void clear(String cacheName) {
+            received.add("clear " + cacheName);
+        }
+    };
+
+    private int firstPort;
+
+    private int secondPort;
+
+    private CacheInvalidationBus first;
+
+    private CacheInvalidationBus second;
+
+    private CacheInvalidationBus third;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        firstPort = freePort();
+        secondPort = freePort();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (first != null) {
+            first.close();
+        }
+        if (second != null) {
+            second.close();
+        }
+        if (third != null) {
+            third.close();
+        }
+    }
+
+    @Test
+    void secretIsRequired() {
+        assertThatThrownBy(() -> new CacheInvalidationBus(new InetSocketAddress(firstPort), List.of(), " "))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void removalsAndClearsAreReceivedByThePeers() throws Exception {
+        first = bus(firstPort, secondPort, SECRET);
+        second = bus(secondPort, firstPort, SECRET);
+        first.start(recorder);
+        second.start(recorder);
+
+        first.publishRemoval("Modelo", 1001L);
+        first.publishClear("Marca");
+
+        awaitUntil(() -> received.size() >= 2);
+        assertThat(received).containsExactly("remove Modelo 1001", "clear Marca");
+    }
+
+    @Test
+    void clearsAreToldToTheirListeners() throws Exception {
+        first = bus(firstPort, secondPort, SECRET);
+        second = bus(secondPort, firstPort, SECRET);
+        first.start(recorder);
+        second.start(recorder);
+        second.onClear("catalog", () -> received.add("catalog changed"));
+
+        first.publishClear("catalog");
+
+        awaitUntil(() -> received.size() >= 2);
+        assertThat(received).containsExactly("clear catalog", "catalog changed");
+    }
+
+    @Test
+    void invalidationsWithAnotherSecretAreDropped() throws Exception {
+        first = bus(firstPort, secondPort, "another-secret");
+        second = bus(secondPort, firstPort, SECRET);
+        third = bus(freePort(), secondPort, SECRET);
+        first.start(recorder);
+        second.start(recorder);
+        third.start(recorder);
+
+        first.publishRemoval("Modelo", 1001L);
+        // Sent after the forged one, so once it is received the forged one had its chance
+        third.publishClear("Marca");
+
+        awaitUntil(() -> !received.isEmpty());
+        Thread.sleep(200);
+        assertThat(received).containsExactly("clear Marca");
+    }
+
+    @Test
+    void replayedInvalidationsAreDropped() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try (DatagramSocket eavesdropper = new DatagramSocket(0, loopback)) {
+            eavesdropper.setSoTimeout(5000);
+            first = bus(firstPort, eavesdropper.getLocalPort(), SECRET);
+            second = bus(secondPort, firstPort, SECRET);
+            third = bus(freePort(), secondPort, SECRET);
+            first.start(recorder);
+            second.start(recorder);
+            third.start(recorder);
+
+            first.publishClear("Marca");
+            DatagramPacket captured = new DatagramPacket(new byte[8192], 8192);
+            eavesdropper.receive(captured);
+            for (int i = 0; i < 3; i++) {
+                eavesdropper.send(new DatagramPacket(captured.getData(), captured.getLength(), loopback, secondPort));
+            }
+            third.publishClear("Modelo");
+
+            awaitUntil(() -> received.contains("clear Modelo"));
+            Thread.sleep(200);
+            assertThat(received).containsExactlyInAnyOrder("clear Marca", "clear Modelo");
+        }
+    }
+
+    @Test
+    void oldInvalidationsAreDropped() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        first =
+            new CacheInvalidationBus(
+                new InetSocketAddress(loopback, firstPort),
+                List.of(loopback.getHostAddress() + ":" + secondPort),
+                SECRET,
+                () -> System.currentTimeMillis() - CacheInvalidationBus.MAX_AGE_MILLIS - 1000
+            );
+        second = bus(secondPort, firstPort, SECRET);
+        third = bus(freePort(), secondPort, SECRET);
+        first.start(recorder);
+        second.start(recorder);
+        third.start(recorder);
+
+        first.publishClear("Marca");
+        // Sent after the old one, so once it is received the old one had its chance
+        third.publishClear("Modelo");
+
+        awaitUntil(() -> !received.isEmpty());
+        Thread.sleep(200);
+        assertThat(received).containsExactly("clear Modelo");
+    }
+
+    @Test
+    void invalidationsAreNotAppliedByTheirSender() throws Exception {
+        first = bus(firstPort, firstPort, SECRET);
+        first.start(recorder);
+
+        first.publishClear("Marca");
+
+        Thread.sleep(200);
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void removalsFromTheCachesArePublished() throws Exception {
+        CacheManager firstNode = nodeCacheManager("first-node");
+        CacheManager secondNode = nodeCacheManager("second-node");
+        try {
+            first = bus(firstPort, secondPort, SECRET);
+            second = bus(secondPort, firstPort, SECRET);
+            InvalidatingCacheManager firstCacheManager = new InvalidatingCacheManager(firstNode, first);
+            InvalidatingCacheManager secondCacheManager = new InvalidatingCacheManager(secondNode, second);
+            first.start(firstCacheManager);
+            second.start(secondCacheManager);
+            Cache<Long, String> firstCache = firstCacheManager.createCache("Modelo", new MutableConfiguration<Long, String>());
+            Cache<Long, String> secondCache = secondCacheManager.createCache("Modelo", new MutableConfiguration<Long, String>());
+            firstCache.put(1L, "Ibiza");
+            secondCache.put(1L, "Ibiza");
+            secondCache.put(2L, "Leon");
+
+            firstCache.remove(1L);
+            awaitUntil(() -> !secondCache.containsKey(1L));
+            assertThat(secondCache.get(2L)).isEqualTo("Leon");
+
+            firstCache.clear();
+            awaitUntil(() -> !secondCache.containsKey(2L));
+        } finally {
+            firstNode.close();
+            secondNode.close();
+        }
+    }
+
+    @Test
+    void hibernateCacheKeysAreReceivedByThePeers() throws Exception {
+        CacheManager firstNode = nodeCacheManager("first-hibernate-node");
+        CacheManager secondNode = nodeCacheManager("second-hibernate-node");
+        try (SessionFactoryImplementor sessionFactory = sessionFactory(firstNode)) {
+            first = bus(firstPort, secondPort, SECRET);
+            second = bus(secondPort, firstPort, SECRET);
+            InvalidatingCacheManager secondCacheManager = new InvalidatingCacheManager(secondNode, second);
+            first.start(recorder);
+            second.start(secondCacheManager);
+            EntityPersister persister = sessionFactory.getMetamodel().entityPersister(Authority.class);
+            Object key = persister.getCacheAccessStrategy().generateCacheKey("ROLE_USER", persister, sessionFactory, null);
+            Object otherKey = persister.getCacheAccessStrategy().generateCacheKey("ROLE_ADMIN", persister, sessionFactory, null);
+            Cache<Object, String> secondCache = secondCacheManager.createCache(
+                Authority.class.getName(),
+                new MutableConfiguration<Object, String>()
+            );
+            secondCache.put(key, "ROLE_USER");
+            secondCache.put(otherKey, "ROLE_ADMIN");
+
+            first.publishRemoval(Authority.class.getName(), key);
+
+            awaitUntil(() -> !secondCache.containsKey(key));
+            // Removed by its key, not by a clear of the cache
+            assertThat(secondCache.get(otherKey)).isEqualTo("ROLE_ADMIN");
+        } finally {
+            firstNode.close();
+            secondNode.close();
+        }
+    }
+
+    @Test
+    void cachesOfRejectedKeysAreCleared() throws Exception {
+        first = bus(firstPort, secondPort, SECRET);
+        second = bus(secondPort, firstPort, SECRET);
+        first.start(recorder);
+        second.start(recorder);
+
+        first.publishRemoval("Modelo", new ArrayList<>(List.of(1001L)));
+
+        awaitUntil(() -> !received.isEmpty());
+        assertThat(received).containsExactly("clear Modelo");
+    }
+
+    /**
+     * A session factory caching its entities the way the application does.
+     */
+    private static SessionFactoryImplementor sessionFactory(CacheManager cacheManager) {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(AvailableSettings.URL, "jdbc:h2:mem:cacheInvalidationBusTest;DB_CLOSE_DELAY=-1");
+        settings.put(AvailableSettings.DIALECT, H2Dialect.class.getName());
+        settings.put(AvailableSettings.JPA_VALIDATION_MODE, "none");
+        settings.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+        settings.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        new CacheConfiguration(new JHipsterProperties(), new ApplicationProperties(), null)
+            .hibernatePropertiesCustomizer(cacheManager)
+            .customize(settings);
+        return new MetadataSources(new StandardServiceRegistryBuilder().applySettings(settings).build())
+            .addAnnotatedClass(Authority.class)
+            .buildMetadata()
+            .buildSessionFactory()
+            .unwrap(SessionFactoryImplementor.class);
+    }
+
+    private CacheManager nodeCacheManager(String name) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(URI.create(name), new DefaultConfiguration(getClass().getClassLoader()));
+    }
+
+    private static CacheInvalidationBus bus(int port, int peerPort, String secret) {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        return new CacheInvalidationBus(
+            new InetSocketAddress(loopback, port),
+            List.of(loopback.getHostAddress() + ":" + peerPort),
+            secret
+        );
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("waiting for the invalidation").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * Unit tests for the {@link PersistentCacheDirectory} class.
+ */
+class PersistentCacheDirectoryTest {
+
+    @TempDir
+    Path directory;
+
+    private Path data;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        data = directory.resolve("modelos");
+        Files.createDirectories(data.resolve("offheap"));
+        Files.writeString(data.resolve("offheap").resolve("data"), "Ibiza");
+    }
+
+    @Test
+    void dataIsKeptAfterACleanCloseOfTheSameVersion() throws IOException {
+        new PersistentCacheDirectory(directory, "v1").close();
+
+        PersistentCacheDirectory cacheDirectory = new PersistentCacheDirectory(directory, "v1");
+        assertThat(cacheDirectory.open()).isTrue();
+        assertThat(data.resolve("offheap").resolve("data")).exists();
+        // Until closed again, a crash must not leave the data reusable
+        assertThat(directory.resolve(PersistentCacheDirectory.MARKER_FILE)).doesNotExist();
+    }
+
+    @Test
+    void dataIsDiscardedAfterAnotherVersion() throws IOException {
+        new PersistentCacheDirectory(directory, "v1").close();
+
+        assertThat(new PersistentCacheDirectory(directory, "v2").open()).isFalse();
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void dataIsDiscardedAfterACrash() throws IOException {
+        assertThat(new PersistentCacheDirectory(directory, "v1").open()).isFalse();
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void fingerprintOfTheResourcesAndVersions() throws IOException {
+        Resource master = new NamedResource("master.xml", "<databaseChangeLog/>");
+        Resource changelog = new NamedResource("00000000000000_initial_schema.xml", "<changeSet/>");
+
+        String fingerprint = PersistentCacheDirectory.fingerprint(new Resource[] { master, changelog }, "abc123", null);
+        assertThat(PersistentCacheDirectory.fingerprint(new Resource[] { changelog, master }, "abc123", null)).isEqualTo(fingerprint);
+        assertThat(PersistentCacheDirectory.fingerprint(new Resource[] { changelog, master }, "abc124", null)).isNotEqualTo(fingerprint);
+        Resource changed = new NamedResource("00000000000000_initial_schema.xml", "<changeSet id=\"2\"/>");
+        assertThat(PersistentCacheDirectory.fingerprint(new Resource[] { master, changed }, "abc123", null)).isNotEqualTo(fingerprint);
+    }
+
+    private static final class NamedResource extends ByteArrayResource {
+
+        private final String filename;
+
+        private NamedResource(String filename, String content) {
+            super(content.getBytes(StandardCharsets.UTF_8));
+            this.filename = filename;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.service.CacheWarmUpService;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Unit tests for {@link CacheWarmUpHealthIndicator}.
+ */
+class CacheWarmUpHealthIndicatorTest {
+
+    private CacheWarmUpService cacheWarmUpService;
+
+    private CacheWarmUpHealthIndicator healthIndicator;
+
+    @BeforeEach
+    public void setup() {
+        cacheWarmUpService = mock(CacheWarmUpService.class);
+        healthIndicator = new CacheWarmUpHealthIndicator(cacheWarmUpService);
+    }
+
+    @Test
+    void testOutOfServiceWhileWarmingUp() {
+        when(cacheWarmUpService.getProgress()).thenReturn(0.25);
+        when(cacheWarmUpService.getLoaded()).thenReturn(Map.of("com.mycompany.myapp.domain.Marca", 10L));
+        when(cacheWarmUpService.getDuration()).thenReturn(null);
+
+        Health health = healthIndicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsEntry("progress", 0.25).doesNotContainKey("duration");
+    }
+
+    @Test
+    void testUpOnceWarmedUp() {
+        when(cacheWarmUpService.isComplete()).thenReturn(true);
+        when(cacheWarmUpService.getProgress()).thenReturn(1.0);
+        when(cacheWarmUpService.getDuration()).thenReturn(Duration.ofMillis(1500));
+
+        Health health = healthIndicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("duration", "1500ms");
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link EhcacheMetrics}.
+ */
+class EhcacheMetricsTest {
+
+    private static final String CACHE_NAME = "marcas";
+
+    private CacheManager cacheManager;
+
+    private Cache<Object, Object> cache;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        CachingProvider cachingProvider = Caching.getCachingProvider("org.ehcache.jsr107.EhcacheCachingProvider");
+        cacheManager = cachingProvider.getCacheManager(cachingProvider.getDefaultURI(), getClass().getClassLoader());
+        cache =
+            cacheManager.createCache(
+                CACHE_NAME,
+                Eh107Configuration.fromEhcacheCacheConfiguration(
+                    CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(2)).build()
+                )
+            );
+        cacheManager.enableStatistics(CACHE_NAME, true);
+        meterRegistry = new SimpleMeterRegistry();
+        new EhcacheMetrics(cache, Tags.of("cacheManager", "cacheManager")).bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    public void teardown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void testRegionMetersAreTaggedWithTheRegion() {
+        cache.put(1L, "Seat");
+        cache.get(1L);
+        cache.get(2L);
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.puts").tag("cache", CACHE_NAME).functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(EhcacheMetrics.GET_LATENCY_METER_NAME).tag("cache", CACHE_NAME).timeGauge().value())
+            .isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void testSizeAndEvictionsAreReported() {
+        cache.put(1L, "Seat");
+        assertThat(meterRegistry.get("cache.size").tag("cache", CACHE_NAME).gauge().value()).isEqualTo(1);
+
+        for (long id = 2; id <= 5; id++) {
+            cache.put(id, "Marca " + id);
+        }
+        assertThat(meterRegistry.get("cache.size").tag("cache", CACHE_NAME).gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", CACHE_NAME).functionCounter().count()).isEqualTo(3);
+    }
+}
@@ -12,6 +12,9 @@ import org.junit.jupiter.api.Test;
 class SecurityMetersServiceTests {
 
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
+    private static final String TOKEN_CACHE_METER_EXPECTED_NAME = "security.authentication.token-cache";
+    private static final String RATE_LIMITED_LOGINS_METER_EXPECTED_NAME = "security.authentication.rate-limited-logins";
+    private static final String REVOKED_TOKENS_METER_EXPECTED_NAME = "security.authentication.revoked-tokens";
 
     private MeterRegistry meterRegistry;
 
@@ -67,4 +70,31 @@ class SecurityMetersServiceTests {
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
+
+    @Test
+    void testTokenCacheCountersByResultAreBound() {
+        securityMetersService.trackTokenCacheHit();
+        securityMetersService.trackTokenCacheHit();
+        securityMetersService.trackTokenCacheMiss();
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRateLimitedLoginsCountersByKeyAreBound() {
+        securityMetersService.trackLoginRateLimitedLogin();
+        securityMetersService.trackLoginRateLimitedClient();
+        securityMetersService.trackLoginRateLimitedClient();
+
+        assertThat(meterRegistry.get(RATE_LIMITED_LOGINS_METER_EXPECTED_NAME).tag("key", "login").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RATE_LIMITED_LOGINS_METER_EXPECTED_NAME).tag("key", "client").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testRevokedTokensCounterIsBound() {
+        securityMetersService.trackTokenRevoked();
+
+        assertThat(meterRegistry.get(REVOKED_TOKENS_METER_EXPECTED_NAME).counter().count()).isEqualTo(1);
+    }
 }
@@ -6,13 +6,17 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.UserService;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
 import java.util.Locale;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -28,6 +32,8 @@ class DomainUserDetailsServiceIT {
     private static final String USER_TWO_EMAIL = "test-user-two@localhost";
     private static final String USER_THREE_LOGIN = "test-user-three";
     private static final String USER_THREE_EMAIL = "test-user-three@localhost";
+    private static final String USER_FOUR_LOGIN = "test-user-four";
+    private static final String USER_FOUR_EMAIL = "test-user-four@localhost";
 
     @Autowired
     private UserRepository userRepository;
@@ -35,8 +41,18 @@ class DomainUserDetailsServiceIT {
     @Autowired
     private UserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     public void init() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_NOT_FOUND_CACHE).clear();
+
         User userOne = new User();
         userOne.setLogin(USER_ONE_LOGIN);
         userOne.setPassword(RandomStringUtils.random(60));
@@ -108,4 +124,34 @@ class DomainUserDetailsServiceIT {
         assertThatExceptionOfType(UserNotActivatedException.class)
             .isThrownBy(() -> domainUserDetailsService.loadUserByUsername(USER_THREE_LOGIN));
     }
+
+    @Test
+    void assertThatUnknownUsersAreNotLookedUpAgain() {
+        assertThatExceptionOfType(UsernameNotFoundException.class)
+            .isThrownBy(() -> domainUserDetailsService.loadUserByUsername(USER_FOUR_LOGIN.toUpperCase(Locale.ENGLISH)));
+        assertThatExceptionOfType(UsernameNotFoundException.class)
+            .isThrownBy(() -> domainUserDetailsService.loadUserByUsername(USER_FOUR_EMAIL));
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_NOT_FOUND_CACHE).get(USER_FOUR_LOGIN)).isNotNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_NOT_FOUND_CACHE).get(USER_FOUR_EMAIL)).isNotNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(USER_FOUR_LOGIN)).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get(USER_FOUR_EMAIL)).isNull();
+    }
+
+    @Test
+    void assertThatUnknownUsersAreFoundOnceCreated() {
+        assertThatExceptionOfType(UsernameNotFoundException.class)
+            .isThrownBy(() -> domainUserDetailsService.loadUserByUsername(USER_FOUR_LOGIN));
+        assertThatExceptionOfType(UsernameNotFoundException.class)
+            .isThrownBy(() -> domainUserDetailsService.loadUserByUsername(USER_FOUR_EMAIL));
+
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(USER_FOUR_LOGIN);
+        userDTO.setEmail(USER_FOUR_EMAIL);
+        userDTO.setActivated(true);
+        userService.createUser(userDTO);
+
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_FOUR_LOGIN).getUsername()).isEqualTo(USER_FOUR_LOGIN);
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_FOUR_EMAIL).getUsername()).isEqualTo(USER_FOUR_LOGIN);
+    }
 }
@@ -0,0 +1,61 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.management.SecurityMetersService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Unit tests for {@link LoginRateLimiter}.
+ */
+class LoginRateLimiterTest {
+
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getLoginRateLimit().setTrustedProxies(List.of("10.0.0.10", "10.0.0.11"));
+        loginRateLimiter =
+            new LoginRateLimiter(
+                applicationProperties,
+                new SketchLoginRateLimitStore(1024),
+                new SecurityMetersService(new SimpleMeterRegistry())
+            );
+    }
+
+    @Test
+    void clientAddressIsTheRemoteAddressWithoutProxy() {
+        MockHttpServletRequest request = request("192.0.2.1", "198.51.100.7");
+
+        assertThat(loginRateLimiter.getClientAddress(request)).isEqualTo("192.0.2.1");
+    }
+
+    @Test
+    void clientAddressIsForwardedByTheTrustedProxies() {
+        assertThat(loginRateLimiter.getClientAddress(request("10.0.0.10", "198.51.100.7"))).isEqualTo("198.51.100.7");
+        assertThat(loginRateLimiter.getClientAddress(request("10.0.0.10", "198.51.100.7, 10.0.0.11"))).isEqualTo("198.51.100.7");
+        assertThat(loginRateLimiter.getClientAddress(request("10.0.0.10", null))).isEqualTo("10.0.0.10");
+    }
+
+    @Test
+    void clientAddressCannotBeForgedByTheClient() {
+        MockHttpServletRequest request = request("10.0.0.10", "203.0.113.1, 198.51.100.7");
+
+        assertThat(loginRateLimiter.getClientAddress(request)).isEqualTo("198.51.100.7");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SketchLoginRateLimitStore}.
+ */
+class SketchLoginRateLimitStoreTest {
+
+    private static final Duration REFILL_PERIOD = Duration.ofMinutes(1);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private SketchLoginRateLimitStore store;
+
+    @BeforeEach
+    public void setup() {
+        store = new SketchLoginRateLimitStore(1024, nanoTime::get);
+    }
+
+    @Test
+    void burstIsAllowedUpToTheCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryConsume("login:admin", 3, REFILL_PERIOD)).isZero();
+        }
+
+        assertThat(store.tryConsume("login:admin", 3, REFILL_PERIOD)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(store.tryConsume("login:user", 3, REFILL_PERIOD)).isZero();
+    }
+
+    @Test
+    void tokensAreRefilledOverTime() {
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("login:admin", 3, REFILL_PERIOD);
+        }
+        nanoTime.addAndGet(Duration.ofSeconds(15).toNanos());
+        assertThat(store.tryConsume("login:admin", 3, REFILL_PERIOD)).isEqualTo(Duration.ofSeconds(5));
+
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(store.tryConsume("login:admin", 3, REFILL_PERIOD)).isZero();
+        assertThat(store.tryConsume("login:admin", 3, REFILL_PERIOD)).isEqualTo(Duration.ofSeconds(20));
+
+        nanoTime.addAndGet(REFILL_PERIOD.toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryConsume("login:admin", 3, REFILL_PERIOD)).isZero();
+        }
+    }
+
+    @Test
+    void rejectedAttemptsDoNotDelayTheNextOnes() {
+        for (int i = 0; i < 10; i++) {
+            store.tryConsume("client:127.0.0.1", 1, REFILL_PERIOD);
+        }
+
+        nanoTime.addAndGet(REFILL_PERIOD.toNanos());
+        assertThat(store.tryConsume("client:127.0.0.1", 1, REFILL_PERIOD)).isZero();
+    }
+
+    @Test
+    void concurrentAttemptsAreAllowedUpToTheCapacity() throws Exception {
+        int threads = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 2000; round++) {
+                String key = "login:user" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                Callable<Boolean> attempt = () -> {
+                    start.await();
+                    return store.tryConsume(key, 8, REFILL_PERIOD).isZero();
+                };
+                List<Future<Boolean>> attempts = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    attempts.add(executor.submit(attempt));
+                }
+                start.countDown();
+                int allowed = 0;
+                for (Future<Boolean> allowedAttempt : attempts) {
+                    if (allowedAttempt.get()) {
+                        allowed++;
+                    }
+                }
+                assertThat(allowed).as("attempts allowed for %s", key).isEqualTo(8);
+                // Refills the buckets of the previous keys, which the next ones may collide with
+                nanoTime.addAndGet(REFILL_PERIOD.toNanos());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
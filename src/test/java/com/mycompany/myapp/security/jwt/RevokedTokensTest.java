@@ -0,0 +1,51 @@
+package com.mycompany.myapp.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class RevokedTokensTest {
+
+    private final RevokedTokens revokedTokens = new RevokedTokens();
+
+    @Test
+    void testRevokedTokensAreRevoked() {
+        revokedTokens.revoke("revoked", Instant.now().plusSeconds(60));
+
+        assertThat(revokedTokens.isRevoked("revoked")).isTrue();
+        assertThat(revokedTokens.isRevoked("not-revoked")).isFalse();
+    }
+
+    @Test
+    void testRebuildKeepsTheTokensRevokedSinceAndDropsTheExpiredOnes() {
+        revokedTokens.revoke("revoked-since", Instant.now().plusSeconds(60));
+        revokedTokens.revoke("expired", Instant.now().minusSeconds(1));
+
+        revokedTokens.rebuild(Map.of("revoked-elsewhere", Instant.now().plusSeconds(60)));
+
+        assertThat(revokedTokens.isRevoked("revoked-since")).isTrue();
+        assertThat(revokedTokens.isRevoked("revoked-elsewhere")).isTrue();
+        assertThat(revokedTokens.isRevoked("expired")).isFalse();
+        assertThat(revokedTokens.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testBloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        RevokedTokens.BloomFilter filter = new RevokedTokens.BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("revoked-" + i)).isTrue();
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
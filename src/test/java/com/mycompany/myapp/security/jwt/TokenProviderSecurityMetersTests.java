@@ -28,6 +28,7 @@ class TokenProviderSecurityMetersTests {
 
     private static final long ONE_MINUTE = 60000;
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
+    private static final String TOKEN_CACHE_METER_EXPECTED_NAME = "security.authentication.token-cache";
 
     private MeterRegistry meterRegistry;
 
@@ -43,7 +44,7 @@ class TokenProviderSecurityMetersTests {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, new RevokedTokens());
         Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -58,7 +59,7 @@ class TokenProviderSecurityMetersTests {
 
         String validToken = createValidToken();
 
-        tokenProvider.validateToken(validToken);
+        tokenProvider.authenticate(validToken);
 
         assertThat(aggregate(counters)).isZero();
     }
@@ -69,7 +70,7 @@ class TokenProviderSecurityMetersTests {
 
         String expiredToken = createExpiredToken();
 
-        tokenProvider.validateToken(expiredToken);
+        tokenProvider.authenticate(expiredToken);
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isEqualTo(1);
     }
@@ -80,7 +81,7 @@ class TokenProviderSecurityMetersTests {
 
         String unsupportedToken = createUnsupportedToken();
 
-        tokenProvider.validateToken(unsupportedToken);
+        tokenProvider.authenticate(unsupportedToken);
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "unsupported").counter().count()).isEqualTo(1);
     }
@@ -91,7 +92,7 @@ class TokenProviderSecurityMetersTests {
 
         String tokenWithDifferentSignature = createTokenWithDifferentSignature();
 
-        tokenProvider.validateToken(tokenWithDifferentSignature);
+        tokenProvider.authenticate(tokenWithDifferentSignature);
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "invalid-signature").counter().count()).isEqualTo(1);
     }
@@ -102,11 +103,23 @@ class TokenProviderSecurityMetersTests {
 
         String malformedToken = createMalformedToken();
 
-        tokenProvider.validateToken(malformedToken);
+        tokenProvider.authenticate(malformedToken);
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
 
+    @Test
+    void testTokenCacheHitAndMissCount() {
+        String validToken = createValidToken();
+
+        tokenProvider.authenticate(validToken);
+        tokenProvider.authenticate(validToken);
+        tokenProvider.authenticate(validToken);
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isEqualTo(2);
+    }
+
     private String createValidToken() {
         Authentication authentication = createAuthentication();
 
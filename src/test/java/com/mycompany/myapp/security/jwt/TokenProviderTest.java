@@ -1,6 +1,7 @@
 package com.mycompany.myapp.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
 
 import com.mycompany.myapp.management.SecurityMetersService;
 import com.mycompany.myapp.security.AuthoritiesConstants;
@@ -27,6 +28,8 @@ class TokenProviderTest {
 
     private Key key;
     private TokenProvider tokenProvider;
+    private RevokedTokens revokedTokens;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     public void setup() {
@@ -34,9 +37,11 @@ class TokenProviderTest {
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
+        meterRegistry = new SimpleMeterRegistry();
+        SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        revokedTokens = new RevokedTokens();
+        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, revokedTokens);
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -45,7 +50,7 @@ class TokenProviderTest {
 
     @Test
     void testReturnFalseWhenJWThasInvalidSignature() {
-        boolean isTokenValid = tokenProvider.validateToken(createTokenWithDifferentSignature());
+        boolean isTokenValid = tokenProvider.authenticate(createTokenWithDifferentSignature()).isPresent();
 
         assertThat(isTokenValid).isFalse();
     }
@@ -55,7 +60,7 @@ class TokenProviderTest {
         Authentication authentication = createAuthentication();
         String token = tokenProvider.createToken(authentication, false);
         String invalidToken = token.substring(1);
-        boolean isTokenValid = tokenProvider.validateToken(invalidToken);
+        boolean isTokenValid = tokenProvider.authenticate(invalidToken).isPresent();
 
         assertThat(isTokenValid).isFalse();
     }
@@ -67,7 +72,7 @@ class TokenProviderTest {
         Authentication authentication = createAuthentication();
         String token = tokenProvider.createToken(authentication, false);
 
-        boolean isTokenValid = tokenProvider.validateToken(token);
+        boolean isTokenValid = tokenProvider.authenticate(token).isPresent();
 
         assertThat(isTokenValid).isFalse();
     }
@@ -76,27 +81,81 @@ class TokenProviderTest {
     void testReturnFalseWhenJWTisUnsupported() {
         String unsupportedToken = createUnsupportedToken();
 
-        boolean isTokenValid = tokenProvider.validateToken(unsupportedToken);
+        boolean isTokenValid = tokenProvider.authenticate(unsupportedToken).isPresent();
 
         assertThat(isTokenValid).isFalse();
     }
 
     @Test
     void testReturnFalseWhenJWTisInvalid() {
-        boolean isTokenValid = tokenProvider.validateToken("");
+        boolean isTokenValid = tokenProvider.authenticate("").isPresent();
 
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testAuthenticationOfAVerifiedTokenIsNotShared() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication first = tokenProvider.authenticate(token).orElseThrow();
+        Authentication second = tokenProvider.authenticate(token).orElseThrow();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("anonymous");
+        assertThat(second.getCredentials()).isEqualTo(token);
+        assertThat(second.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    @Test
+    void testReturnFalseWhenVerifiedJWTExpires() throws InterruptedException {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 1000);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token)).isPresent();
+
+        Thread.sleep(1100);
+
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+    }
+
+    @Test
+    void testExpiredTokensAreDroppedBeforeLiveOnes() throws InterruptedException {
+        ReflectionTestUtils.setField(tokenProvider, "maxVerifiedTokens", 2);
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 1000);
+        String expiringToken = tokenProvider.createToken(createAuthentication(), false);
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
+        String liveToken = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(expiringToken)).isPresent();
+        assertThat(tokenProvider.authenticate(liveToken)).isPresent();
+
+        Thread.sleep(1100);
+        assertThat(tokenProvider.authenticate(tokenProvider.createToken(createAuthentication(), false))).isPresent();
+
+        assertThat(ReflectionTestUtils.getField(tokenProvider, "verifiedTokens")).asInstanceOf(MAP).hasSize(2);
+        assertThat(tokenProvider.authenticate(liveToken)).isPresent();
+        assertThat(meterRegistry.get(SecurityMetersService.TOKEN_CACHE_METER_NAME).tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReturnFalseWhenVerifiedJWTIsRevoked() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token)).isPresent();
+
+        revokedTokens.revoke(tokenProvider.parseClaims(token).getId(), tokenProvider.parseClaims(token).getExpiration().toInstant());
+
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+        assertThat(tokenProvider.authenticate(tokenProvider.createToken(createAuthentication(), false))).isPresent();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(secret);
 
-        SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
+        meterRegistry = new SimpleMeterRegistry();
+        SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, new RevokedTokens());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -108,9 +167,10 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
+        meterRegistry = new SimpleMeterRegistry();
+        SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, new RevokedTokens());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
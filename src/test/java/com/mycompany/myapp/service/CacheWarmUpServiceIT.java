@@ -0,0 +1,66 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Integration tests for {@link CacheWarmUpService}.
+ */
+@IntegrationTest
+class CacheWarmUpServiceIT {
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache usersByLogin;
+
+    @BeforeEach
+    public void setup() {
+        usersByLogin = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE));
+        usersByLogin.clear();
+        applicationProperties.getCache().getWarmUp().setLogins(List.of("admin", "user", "unknown"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        applicationProperties.getCache().getWarmUp().setLogins(List.of());
+        usersByLogin.clear();
+    }
+
+    @Test
+    void warmUpPreloadsTheListedUsers() {
+        cacheWarmUpService.warmUp();
+
+        assertThat(cacheWarmUpService.isComplete()).isTrue();
+        assertThat(cacheWarmUpService.getProgress()).isEqualTo(1);
+        assertThat(cacheWarmUpService.getDuration()).isNotNull();
+        assertThat(cacheWarmUpService.getLoaded()).containsEntry(UserRepository.USERS_BY_LOGIN_CACHE, 2L);
+        User admin = usersByLogin.get("admin", User.class);
+        assertThat(admin).isNotNull();
+        assertThat(admin.getAuthorities()).isNotEmpty();
+        assertThat(usersByLogin.get("unknown")).isNull();
+        // Served from the cache, as the repository caches it
+        assertThat(userRepository.findOneWithAuthoritiesByLogin("admin")).containsSame(admin);
+    }
+}
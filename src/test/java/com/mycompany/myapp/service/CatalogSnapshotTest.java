@@ -0,0 +1,165 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.service.criteria.ModeloCriteria;
+import com.mycompany.myapp.service.dto.ModeloFacetsDTO;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Unit tests for {@link CatalogSnapshot}.
+ */
+class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    public void init() {
+        Marca seat = new Marca().id(10L).marca("Seat");
+        Marca audi = new Marca().id(20L).marca("Audi");
+        snapshot =
+            CatalogSnapshot
+                .builder()
+                .add(modelo(1L, "Ibiza", "Rojo", 5, 15000D, seat))
+                .add(modelo(2L, "Leon", "Azul", 5, 22000D, seat))
+                .add(modelo(3L, "A3 Sportback", "Rojo", 5, 32000D, audi))
+                .add(modelo(4L, "TT Roadster", null, 2, null, audi))
+                .add(modelo(5L, "Sin marca", "Azul", null, 9000D, null))
+                .build(Instant.now());
+    }
+
+    @Test
+    void findAllWithoutCriteria() {
+        Page<Modelo> page = snapshot.findAll(null, Pageable.unpaged());
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(Modelo::getId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        Modelo ibiza = page.getContent().get(0);
+        assertThat(ibiza.getModelo()).isEqualTo("Ibiza");
+        assertThat(ibiza.getNumero_serie()).isEqualTo("S-1");
+        assertThat(ibiza.getMarca().getId()).isEqualTo(10L);
+        assertThat(ibiza.getMarca().getMarca()).isEqualTo("Seat");
+        assertThat(page.getContent().get(3).getPrecio()).isNull();
+        assertThat(page.getContent().get(4).getMarca()).isNull();
+    }
+
+    @Test
+    void findAllFilteredOnDictionaryColumns() {
+        ModeloCriteria criteria = new ModeloCriteria();
+        criteria.marcaId().setEquals(10L);
+        criteria.color().setEquals("Rojo");
+        assertThat(ids(criteria)).containsExactly(1L);
+
+        criteria = new ModeloCriteria();
+        criteria.color().setSpecified(false);
+        assertThat(ids(criteria)).containsExactly(4L);
+
+        criteria = new ModeloCriteria();
+        criteria.marcaId().setIn(List.of(10L, 20L));
+        criteria.color().setNotEquals("Azul");
+        assertThat(ids(criteria)).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void findAllFilteredOnNumericColumns() {
+        ModeloCriteria criteria = new ModeloCriteria();
+        criteria.precio().setGreaterThanOrEqual(15000D);
+        criteria.precio().setLessThan(32000D);
+        assertThat(ids(criteria)).containsExactly(1L, 2L);
+
+        criteria = new ModeloCriteria();
+        criteria.precio().setSpecified(false);
+        assertThat(ids(criteria)).containsExactly(4L);
+
+        // A null value never matches a comparison
+        criteria = new ModeloCriteria();
+        criteria.plazas().setNotEquals(2);
+        assertThat(ids(criteria)).containsExactly(1L, 2L, 3L);
+
+        criteria = new ModeloCriteria();
+        criteria.id().setIn(List.of(2L, 5L));
+        assertThat(ids(criteria)).containsExactly(2L, 5L);
+    }
+
+    @Test
+    void findAllFilteredOnModeloName() {
+        ModeloCriteria criteria = new ModeloCriteria();
+        criteria.modelo().setContains("sport");
+        assertThat(ids(criteria)).containsExactly(3L);
+
+        criteria = new ModeloCriteria();
+        criteria.modelo().setDoesNotContain("i");
+        assertThat(ids(criteria)).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void findAllSortedAndPaged() {
+        Page<Modelo> page = snapshot.findAll(null, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "precio")));
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(Modelo::getId).containsExactly(3L, 2L);
+
+        page = snapshot.findAll(null, PageRequest.of(2, 2, Sort.by(Sort.Direction.DESC, "precio")));
+        assertThat(page.getContent()).extracting(Modelo::getId).containsExactly(4L);
+
+        page = snapshot.findAll(null, PageRequest.of(0, 5, Sort.by("modelo")));
+        assertThat(page.getContent()).extracting(Modelo::getId).containsExactly(3L, 1L, 2L, 5L, 4L);
+
+        // Ties keep the id order
+        page = snapshot.findAll(null, PageRequest.of(0, 5, Sort.by("plazas")));
+        assertThat(page.getContent()).extracting(Modelo::getId).containsExactly(5L, 4L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void findAllSortedOnUnknownProperty() {
+        assertThatThrownBy(() -> snapshot.findAll(null, PageRequest.of(0, 5, Sort.by("numero_serie"))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void facets() {
+        ModeloCriteria criteria = new ModeloCriteria();
+        criteria.marcaId().setSpecified(true);
+
+        ModeloFacetsDTO facets = snapshot.facets(criteria);
+
+        assertThat(facets.getTotal()).isEqualTo(4);
+        assertThat(facets.getMarca())
+            .extracting("value", "label", "count")
+            .containsExactly(tuple("10", "Seat", 2L), tuple("20", "Audi", 2L));
+        assertThat(facets.getColor()).extracting("value", "count").containsExactly(tuple("Rojo", 2L), tuple("Azul", 1L), tuple(null, 1L));
+        assertThat(facets.getPlazas()).extracting("value", "count").containsExactly(tuple("5", 3L), tuple("2", 1L));
+        assertThat(facets.getPrecio())
+            .extracting("value", "count")
+            .containsExactly(tuple("10000-20000", 1L), tuple("20000-30000", 1L), tuple("30000-50000", 1L), tuple(null, 1L));
+    }
+
+    @Test
+    void emptySnapshot() {
+        CatalogSnapshot empty = CatalogSnapshot.empty();
+
+        assertThat(empty.size()).isZero();
+        assertThat(empty.findAll(new ModeloCriteria(), PageRequest.of(0, 20)).getContent()).isEmpty();
+        assertThat(empty.facets(null).getTotal()).isZero();
+    }
+
+    private List<Long> ids(ModeloCriteria criteria) {
+        return snapshot.findAll(criteria, Pageable.unpaged()).map(Modelo::getId).getContent();
+    }
+
+    private static Modelo modelo(Long id, String name, String color, Integer plazas, Double precio, Marca marca) {
+        Modelo modelo = new Modelo().id(id).modelo(name).color(color).potencia(100).plazas(plazas).precio(precio).marca(marca);
+        modelo.setNumero_serie("S-" + id);
+        return modelo;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.mycompany.myapp.service.dto.CatalogSuggestionDTO;
+import com.mycompany.myapp.service.dto.CatalogSuggestionDTO.Type;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CatalogSuggestIndex}.
+ */
+class CatalogSuggestIndexTest {
+
+    private CatalogSuggestIndex index;
+
+    @BeforeEach
+    public void init() {
+        index =
+            CatalogSuggestIndex
+                .builder()
+                .addMarca(1L, "Citroën", 3)
+                .addMarca(2L, "Seat", 2)
+                .addModelo("C4 Cactus")
+                .addModelo("C3 Aircross")
+                .addModelo("C3 Aircross")
+                .addModelo("Ibiza")
+                .addModelo("León")
+                .addModelo("Cupra León Cupra")
+                .build();
+    }
+
+    @Test
+    void normalize() {
+        assertThat(CatalogSuggestIndex.normalize("  Citroën  C3-Aircross ")).isEqualTo("citroen c3 aircross");
+        assertThat(CatalogSuggestIndex.normalize("ÁÉÍÓÚ ñ")).isEqualTo("aeiou n");
+    }
+
+    @Test
+    void suggestIgnoringCaseAndAccents() {
+        assertThat(index.suggest("CITRO", 10))
+            .extracting("type", "id", "label", "count")
+            .containsExactly(tuple(Type.MARCA, 1L, "Citroën", 3L));
+        assertThat(index.suggest("leon", 10)).extracting(CatalogSuggestionDTO::getLabel).containsExactly("León", "Cupra León Cupra");
+    }
+
+    @Test
+    void suggestOnWordStarts() {
+        assertThat(index.suggest("air", 10)).extracting(CatalogSuggestionDTO::getLabel).containsExactly("C3 Aircross");
+        assertThat(index.suggest("c3 a", 10)).extracting(CatalogSuggestionDTO::getLabel).containsExactly("C3 Aircross");
+        assertThat(index.suggest("ross", 10)).isEmpty();
+        assertThat(index.suggest("", 10)).isEmpty();
+        assertThat(index.suggest(null, 10)).isEmpty();
+    }
+
+    @Test
+    void suggestRankedWithoutDuplicates() {
+        // Name starts first, then the most common names, then the shortest ones
+        assertThat(index.suggest("c", 10))
+            .extracting(CatalogSuggestionDTO::getLabel)
+            .containsExactly("Citroën", "C3 Aircross", "C4 Cactus", "Cupra León Cupra");
+        assertThat(index.suggest("c", 2)).extracting(CatalogSuggestionDTO::getLabel).containsExactly("Citroën", "C3 Aircross");
+    }
+
+    @Test
+    void suggestAmongManyNames() {
+        CatalogSuggestIndex.Builder builder = CatalogSuggestIndex.builder().addMarca(1L, "Mercedes", 50);
+        IntStream.range(0, 1000).forEach(i -> builder.addModelo("Modelo " + i));
+        CatalogSuggestIndex large = builder.build();
+
+        assertThat(large.suggest("m", 3)).extracting(CatalogSuggestionDTO::getLabel).containsExactly("Mercedes", "Modelo 0", "Modelo 1");
+        assertThat(large.suggest("modelo 99", 3))
+            .extracting(CatalogSuggestionDTO::getLabel)
+            .containsExactly("Modelo 99", "Modelo 990", "Modelo 991");
+    }
+}
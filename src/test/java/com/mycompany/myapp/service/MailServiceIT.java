@@ -4,16 +4,25 @@ import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.MailMessage;
 import com.mycompany.myapp.domain.User;
-import java.io.ByteArrayOutputStream;
+import com.mycompany.myapp.repository.MailMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -21,21 +30,22 @@ import javax.mail.Multipart;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
-import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
- * Integration tests for {@link MailService}.
+ * Integration tests for {@link MailService} and {@link MailDispatcherService}, sending the mails to an in-process SMTP server.
  */
 @IntegrationTest
 class MailServiceIT {
@@ -55,80 +65,107 @@ class MailServiceIT {
     private MessageSource messageSource;
 
     @Autowired
-    private SpringTemplateEngine templateEngine;
+    private MailTemplateRenderer mailTemplateRenderer;
+
+    @Autowired
+    private MailMessageRepository mailMessageRepository;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Spy
     private JavaMailSenderImpl javaMailSender;
 
-    @Captor
-    private ArgumentCaptor<MimeMessage> messageCaptor;
+    private GreenMail greenMail;
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
 
     private MailService mailService;
 
+    private MailDispatcherService mailDispatcherService;
+
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        doNothing().when(javaMailSender).send(any(MimeMessage.class));
-        mailService = new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine);
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(greenMail.getSmtp().getPort());
+        applicationProperties = new ApplicationProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        mailService = new MailService(mailMessageRepository, messageSource, mailTemplateRenderer);
+        mailDispatcherService =
+            new MailDispatcherService(
+                mailMessageRepository,
+                javaMailSender,
+                jHipsterProperties,
+                applicationProperties,
+                taskScheduler,
+                transactionManager,
+                meterRegistry
+            );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        greenMail.stop();
+        mailMessageRepository.deleteAll();
     }
 
     @Test
     void testSendEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = dispatchTheOnlyMail();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent()).isInstanceOf(String.class);
-        assertThat(message.getContent()).hasToString("testContent");
+        assertThat(message.getContent().toString()).isEqualToIgnoringNewLines("testContent");
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/plain; charset=UTF-8");
     }
 
     @Test
     void testSendHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = dispatchTheOnlyMail();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent()).isInstanceOf(String.class);
-        assertThat(message.getContent()).hasToString("testContent");
+        assertThat(message.getContent().toString()).isEqualToIgnoringNewLines("testContent");
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
     @Test
     void testSendMultipartEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = dispatchTheOnlyMail();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
-        ByteArrayOutputStream aos = new ByteArrayOutputStream();
-        part.writeTo(aos);
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent()).isInstanceOf(Multipart.class);
-        assertThat(aos).hasToString("\r\ntestContent");
+        assertThat(part.getContent().toString()).isEqualToIgnoringNewLines("testContent");
         assertThat(part.getDataHandler().getContentType()).isEqualTo("text/plain; charset=UTF-8");
     }
 
     @Test
     void testSendMultipartHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = dispatchTheOnlyMail();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
-        ByteArrayOutputStream aos = new ByteArrayOutputStream();
-        part.writeTo(aos);
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent()).isInstanceOf(Multipart.class);
-        assertThat(aos).hasToString("\r\ntestContent");
+        assertThat(part.getContent().toString()).isEqualToIgnoringNewLines("testContent");
         assertThat(part.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
@@ -139,8 +176,7 @@ class MailServiceIT {
         user.setEmail("john.doe@example.com");
         user.setLangKey("en");
         mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = dispatchTheOnlyMail();
         assertThat(message.getSubject()).isEqualTo("test title");
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -155,8 +191,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendActivationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = dispatchTheOnlyMail();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -170,8 +205,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendCreationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = dispatchTheOnlyMail();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -185,8 +219,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendPasswordResetMail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = dispatchTheOnlyMail();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -195,12 +228,112 @@ class MailServiceIT {
 
     @Test
     void testSendEmailWithException() {
-        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        doThrow(new MailSendException("Mail server connection failed")).when(javaMailSender).send((MimeMessage[]) any());
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
         try {
-            mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+            assertThat(mailDispatcherService.dispatch()).isZero();
         } catch (Exception e) {
             fail("Exception shouldn't have been thrown");
         }
+        assertThat(mailMessageRepository.findAll())
+            .singleElement()
+            .satisfies(mailMessage -> {
+                assertThat(mailMessage.getAttempts()).isEqualTo(1);
+                assertThat(mailMessage.getNextAttemptDate()).isAfter(mailMessage.getCreatedDate());
+                assertThat(mailMessage.getLastError()).isEqualTo("Mail server connection failed");
+            });
+    }
+
+    @Test
+    void testSendEmailsByBatchOverOneConnection() throws Exception {
+        applicationProperties.getMail().getOutbox().setBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            mailService.sendEmail("john.doe" + i + "@example.com", "testSubject" + i, "testContent", false, false);
+        }
+
+        assertThat(mailDispatcherService.dispatch()).isEqualTo(5);
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 5)).isTrue();
+        assertThat(greenMail.getReceivedMessages())
+            .extracting(MimeMessage::getSubject)
+            .containsExactly("testSubject0", "testSubject1", "testSubject2", "testSubject3", "testSubject4");
+        verify(javaMailSender, times(3)).send((MimeMessage[]) any());
+        assertThat(mailMessageRepository.count()).isZero();
+        assertThat(meterRegistry.get(MailDispatcherService.SENT_COUNTER_NAME).counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get(MailDispatcherService.LATENCY_TIMER_NAME).timer().count()).isEqualTo(5);
+        assertThat(meterRegistry.get(MailDispatcherService.BATCH_TIMER_NAME).timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(MailDispatcherService.DEPTH_GAUGE_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void testRetryEmailWithBackoffThenGiveUp() throws Exception {
+        ApplicationProperties.Mail.Outbox outbox = applicationProperties.getMail().getOutbox();
+        outbox.setMaxAttempts(3);
+        outbox.setInitialBackoff(Duration.ZERO);
+        greenMail.stop();
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+
+        assertThat(mailDispatcherService.dispatch()).isZero();
+        assertThat(mailDispatcherService.dispatch()).isZero();
+        assertThat(meterRegistry.get(MailDispatcherService.DEPTH_GAUGE_NAME).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(MailDispatcherService.FAILURES_COUNTER_NAME).tag("outcome", "retried").counter().count())
+            .isEqualTo(2);
+
+        assertThat(mailDispatcherService.dispatch()).isZero();
+        MailMessage mailMessage = mailMessageRepository.findAll().get(0);
+        assertThat(mailMessage.getAttempts()).isEqualTo(3);
+        assertThat(mailMessage.getNextAttemptDate()).isNull();
+        assertThat(mailMessage.getLastError()).isNotEmpty();
+        assertThat(meterRegistry.get(MailDispatcherService.FAILURES_COUNTER_NAME).tag("outcome", "given-up").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(MailDispatcherService.DEPTH_GAUGE_NAME).gauge().value()).isZero();
+        assertThat(meterRegistry.get(MailDispatcherService.GIVEN_UP_GAUGE_NAME).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testGivenUpEmailIsDeletedAfterItsRetention() {
+        ApplicationProperties.Mail.Outbox outbox = applicationProperties.getMail().getOutbox();
+        outbox.setMaxAttempts(1);
+        greenMail.stop();
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+        mailService.sendEmail("jane.doe@example.com", "testSubject", "testContent", false, false);
+        assertThat(mailDispatcherService.dispatch()).isZero();
+        List<MailMessage> givenUp = mailMessageRepository.findAll();
+        givenUp.forEach(mailMessage -> mailMessage.setCreatedDate(Instant.now().minus(outbox.getGivenUpRetention()).minusSeconds(1)));
+        mailMessageRepository.saveAll(givenUp);
+
+        mailService.sendEmail("jack.doe@example.com", "testSubject", "testContent", false, false);
+        assertThat(mailDispatcherService.dispatch()).isZero();
+
+        assertThat(mailMessageRepository.findAll())
+            .singleElement()
+            .satisfies(mailMessage -> assertThat(mailMessage.getRecipient()).isEqualTo("jack.doe@example.com"));
+        assertThat(meterRegistry.get(MailDispatcherService.GIVEN_UP_GAUGE_NAME).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testBackoffIsDoubledUpToTheMaximum() {
+        ApplicationProperties.Mail.Outbox outbox = applicationProperties.getMail().getOutbox();
+        outbox.setInitialBackoff(Duration.ofMinutes(1));
+        outbox.setMaxBackoff(Duration.ofMinutes(5));
+
+        assertThat(mailDispatcherService.backoff(1)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(mailDispatcherService.backoff(2)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(mailDispatcherService.backoff(3)).isEqualTo(Duration.ofMinutes(4));
+        assertThat(mailDispatcherService.backoff(4)).isEqualTo(Duration.ofMinutes(5));
+        assertThat(mailDispatcherService.backoff(100)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testEmailIsNotSentWhenItsTransactionIsRolledBack() {
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+                status.setRollbackOnly();
+            });
+
+        assertThat(mailDispatcherService.dispatch()).isZero();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
     }
 
     @Test
@@ -211,8 +344,8 @@ class MailServiceIT {
         for (String langKey : languages) {
             user.setLangKey(langKey);
             mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-            verify(javaMailSender, atLeastOnce()).send(messageCaptor.capture());
-            MimeMessage message = messageCaptor.getValue();
+            MimeMessage message = dispatchTheOnlyMail();
+            greenMail.purgeEmailFromAllMailboxes();
 
             String propertyFilePath = "i18n/messages_" + getJavaLocale(langKey) + ".properties";
             URL resource = this.getClass().getClassLoader().getResource(propertyFilePath);
@@ -227,6 +360,16 @@ class MailServiceIT {
         }
     }
 
+    /**
+     * Send the outbox, expecting a single mail, and return that mail as received by the SMTP server.
+     */
+    private MimeMessage dispatchTheOnlyMail() {
+        assertThat(mailDispatcherService.dispatch()).isEqualTo(1);
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        return greenMail.getReceivedMessages()[0];
+    }
+
     /**
      * Convert a lang key to the Java locale.
      */
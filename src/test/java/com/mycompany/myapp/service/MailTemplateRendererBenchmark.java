@@ -0,0 +1,92 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.User;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Benchmark of {@link MailTemplateRenderer} against processing the mail templates with Thymeleaf on every mail.
+ * <p>
+ * Run it from its main method, once the tests are compiled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailTemplateRendererBenchmark {
+
+    @Param({ "mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail" })
+    private String templateName;
+
+    private final Locale locale = Locale.forLanguageTag("es");
+
+    private SpringTemplateEngine templateEngine;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private MailTemplateRenderer renderer;
+
+    private User[] users;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        templateEngine = MailTemplateRendererTest.templateEngine();
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl("https://concesionario.example.com");
+        renderer = new MailTemplateRenderer(templateEngine, jHipsterProperties, new ThymeleafProperties());
+        users = new User[1024];
+        for (int i = 0; i < users.length; i++) {
+            User user = new User();
+            user.setLogin("user-" + i);
+            user.setEmail("user-" + i + "@example.com");
+            user.setLangKey(locale.getLanguage());
+            user.setActivationKey(String.format("%020d", i));
+            user.setResetKey(String.format("%020d", users.length - i));
+            users[i] = user;
+        }
+    }
+
+    @Benchmark
+    public String thymeleaf() {
+        Context context = new Context(locale);
+        context.setVariable(MailTemplateRenderer.USER, nextUser());
+        context.setVariable(MailTemplateRenderer.BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context);
+    }
+
+    @Benchmark
+    public String precompiled() {
+        return renderer.render(templateName, locale, nextUser());
+    }
+
+    private User nextUser() {
+        next = (next + 1) & (users.length - 1);
+        return users[next];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MailTemplateRendererBenchmark.class.getSimpleName()).build()).run();
+    }
+}
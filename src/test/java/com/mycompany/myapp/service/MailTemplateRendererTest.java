@@ -0,0 +1,126 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.User;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for {@link MailTemplateRenderer}.
+ */
+class MailTemplateRendererTest {
+
+    private static final String[] TEMPLATES = { "mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail" };
+
+    private static final Locale[] LOCALES = { Locale.forLanguageTag("es"), Locale.forLanguageTag("en") };
+
+    private SpringTemplateEngine templateEngine;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private MailTemplateRenderer renderer;
+
+    @BeforeEach
+    public void setup() {
+        templateEngine = templateEngine();
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+        renderer = new MailTemplateRenderer(templateEngine, jHipsterProperties, new ThymeleafProperties());
+    }
+
+    @Test
+    void testRenderTheMailsLikeThymeleaf() {
+        User first = user("john", "John", "0123456789", "9876543210");
+        User second = user("jane.o'hara&co@example.com", "<b>\"Jane\"</b>", "abcdefghij", "jihgfedcba");
+        for (String template : TEMPLATES) {
+            for (Locale locale : LOCALES) {
+                assertThat(renderer.render(template, locale, first)).isEqualTo(process(template, locale, first));
+                assertThat(renderer.render(template, locale, second))
+                    .isEqualTo(process(template, locale, second))
+                    .contains("jane.o&#39;hara&amp;co@example.com");
+            }
+        }
+    }
+
+    @Test
+    void testRenderTheMailsWithAMissingField() {
+        User user = user("john", "John", "0123456789", null);
+
+        renderer.render("mail/activationEmail", Locale.ENGLISH, user);
+
+        assertThat(renderer.render("mail/activationEmail", Locale.ENGLISH, user))
+            .isEqualTo(process("mail/activationEmail", Locale.ENGLISH, user));
+        assertThat(renderer.render("mail/passwordResetEmail", Locale.ENGLISH, user))
+            .isEqualTo(process("mail/passwordResetEmail", Locale.ENGLISH, user));
+    }
+
+    @Test
+    void testRenderTheTemplatesUsingTheFieldsOtherThanByPrintingThem() {
+        User jane = user("jane", "jane", null, null);
+        User john = user("john", "john", null, null);
+
+        assertThat(renderer.render("mail/testConditionalEmail", Locale.ENGLISH, jane)).contains("Hi jane").contains(">jane<");
+        assertThat(renderer.render("mail/testConditionalEmail", Locale.ENGLISH, john)).doesNotContain("Hi jane").contains(">john<");
+        assertThat(renderer.render("mail/testConditionalEmail", Locale.ENGLISH, jane)).contains("Hi jane").contains(">jane<");
+    }
+
+    @Test
+    void testRenderTheEditedTemplatesWhenTheCacheIsDisabled() {
+        ThymeleafProperties thymeleafProperties = new ThymeleafProperties();
+        thymeleafProperties.setCache(false);
+        renderer = new MailTemplateRenderer(templateEngine, jHipsterProperties, thymeleafProperties);
+        User user = user("john", "John", "0123456789", "9876543210");
+
+        assertThat(renderer.render("mail/creationEmail", Locale.ENGLISH, user)).contains("http://127.0.0.1:8080/account/reset");
+        jHipsterProperties.getMail().setBaseUrl("https://concesionario.example.com");
+
+        assertThat(renderer.render("mail/creationEmail", Locale.ENGLISH, user)).contains("https://concesionario.example.com/account/reset");
+    }
+
+    private String process(String template, Locale locale, User user) {
+        Context context = new Context(locale);
+        context.setVariable(MailTemplateRenderer.USER, user);
+        context.setVariable(MailTemplateRenderer.BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(template, context);
+    }
+
+    private static User user(String login, String firstName, String activationKey, String resetKey) {
+        User user = new User();
+        user.setLogin(login);
+        user.setFirstName(firstName);
+        user.setEmail(login + "@example.com");
+        user.setLangKey("en");
+        user.setActivationKey(activationKey);
+        user.setResetKey(resetKey);
+        return user;
+    }
+
+    /**
+     * The template engine of the mails, as configured by Spring Boot.
+     */
+    static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        messageSource.setFallbackToSystemLocale(false);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        return templateEngine;
+    }
+}
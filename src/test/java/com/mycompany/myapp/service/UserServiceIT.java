@@ -5,19 +5,28 @@ import static org.mockito.Mockito.when;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserDeletionRepository;
 import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import javax.persistence.EntityManager;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
@@ -50,9 +59,21 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserDeletionRepository userDeletionRepository;
+
+    @Autowired
+    private EntityManager em;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockBean
     private DateTimeProvider dateTimeProvider;
 
@@ -182,4 +203,59 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    @Transactional
+    void assertThatNotActivatedUsersAreDeletedByChunksWithTheirAuthoritiesAndCacheEntries() {
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(Instant.now().minus(4, ChronoUnit.DAYS)));
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i <= UserService.REMOVAL_CHUNK_SIZE; i++) {
+            User notActivatedUser = new User();
+            notActivatedUser.setLogin("not-activated-" + i);
+            notActivatedUser.setEmail("not-activated-" + i + "@localhost");
+            notActivatedUser.setPassword(RandomStringUtils.random(60));
+            notActivatedUser.setActivationKey(RandomStringUtils.random(20));
+            notActivatedUser.setAuthorities(Set.of(authority));
+            users.add(notActivatedUser);
+        }
+        userRepository.saveAllAndFlush(users);
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        assertThat(userRepository.findOneWithAuthoritiesByLogin("not-activated-0")).isPresent();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("not-activated-0")).isNotNull();
+        double removed = meterRegistry.get(UserService.REMOVED_USERS_COUNTER_NAME).counter().count();
+
+        userService.removeNotActivatedUsers();
+
+        Instant threeDaysAgo = Instant.now().minus(3, ChronoUnit.DAYS);
+        assertThat(userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo)).isEmpty();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("not-activated-0")).isNull();
+        assertThat(meterRegistry.get(UserService.REMOVED_USERS_COUNTER_NAME).counter().count() - removed)
+            .isEqualTo(UserService.REMOVAL_CHUNK_SIZE + 1);
+        assertThat(meterRegistry.get(UserService.REMOVAL_PROGRESS_GAUGE_NAME).gauge().value())
+            .isEqualTo(UserService.REMOVAL_CHUNK_SIZE + 1);
+    }
+
+    @Test
+    @Transactional
+    void assertThatUsersActivatedSinceTheirIdsWereReadAreNotDeleted() {
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        user.setActivated(false);
+        user.setActivationKey(RandomStringUtils.random(20));
+        user.setAuthorities(new HashSet<>(Set.of(authority)));
+        Long id = userRepository.saveAndFlush(user).getId();
+
+        user.setActivated(true);
+        user.setActivationKey(null);
+        userRepository.saveAndFlush(user);
+
+        assertThat(userDeletionRepository.deleteNotActivatedByIdIn(List.of(id))).isZero();
+        em.clear();
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN))
+            .hasValueSatisfying(
+                kept -> assertThat(kept.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER)
+            );
+    }
 }
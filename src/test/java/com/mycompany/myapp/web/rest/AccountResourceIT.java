@@ -2,6 +2,7 @@ package com.mycompany.myapp.web.rest;
 
 import static com.mycompany.myapp.web.rest.AccountResourceIT.TEST_USER_LOGIN;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -23,11 +24,15 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Integration tests for the {@link AccountResource} REST controller.
@@ -51,6 +56,12 @@ class AccountResourceIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private MockMvc restAccountMockMvc;
 
@@ -106,6 +117,69 @@ class AccountResourceIT {
             .andExpect(jsonPath("$.authorities").value(AuthoritiesConstants.ADMIN));
     }
 
+    @Test
+    @Transactional
+    @WithMockUser("get-account-etag")
+    void testGetAccountIsNotModifiedUntilItChanges() throws Exception {
+        User user = new User();
+        user.setLogin("get-account-etag");
+        user.setEmail("get-account-etag@example.com");
+        user.setFirstName("john");
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
+
+        String eTag = restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andExpect(jsonPath("$.firstName").value("john"))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON).header("If-None-Match", eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        AdminUserDTO userDTO = new AdminUserDTO(user);
+        userDTO.setFirstName("jane");
+        userService.updateUser(userDTO);
+
+        restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON).header("If-None-Match", eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(eTag)))
+            .andExpect(jsonPath("$.firstName").value("jane"));
+    }
+
+    @Test
+    void testAccountIsEvictedAgainOnCommit() {
+        User user = new User();
+        user.setLogin("evict-account-on-commit");
+        user.setEmail("evict-account-on-commit@example.com");
+        user.setFirstName("john");
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
+        Cache accounts = Objects.requireNonNull(cacheManager.getCache(UserRepository.ACCOUNTS_CACHE));
+        try {
+            new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    AdminUserDTO userDTO = new AdminUserDTO(user);
+                    userDTO.setFirstName("jane");
+                    userService.updateUser(userDTO);
+                    // Cached by a concurrent request, reading the account before the commit
+                    accounts.put(user.getLogin(), "john");
+                });
+
+            assertThat(accounts.get(user.getLogin())).isNull();
+        } finally {
+            userService.deleteUser(user.getLogin());
+        }
+    }
+
     @Test
     void testGetUnknownAccount() throws Exception {
         restAccountMockMvc
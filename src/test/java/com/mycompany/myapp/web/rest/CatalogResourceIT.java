@@ -0,0 +1,140 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Marca;
+import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.repository.MarcaRepository;
+import com.mycompany.myapp.repository.ModeloRepository;
+import com.mycompany.myapp.service.CatalogSnapshotService;
+import com.mycompany.myapp.service.criteria.ModeloCriteria;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link CatalogResource} REST controller.
+ * <p>
+ * The snapshot is only rebuilt from committed data, so these tests commit and clean up after themselves.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class CatalogResourceIT {
+
+    private static final String CATALOG_API_URL = "/api/catalog";
+
+    @Autowired
+    private ModeloRepository modeloRepository;
+
+    @Autowired
+    private MarcaRepository marcaRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private MockMvc restCatalogMockMvc;
+
+    private Marca marca;
+
+    private Modelo barato;
+
+    private Modelo caro;
+
+    @BeforeEach
+    public void initTest() {
+        marca = marcaRepository.saveAndFlush(new Marca().marca("Catalogada"));
+        barato = createModelo("Catalogado barato", "Rojo", 5, 12000D);
+        caro = createModelo("Catalogado caro", "Azul", 2, 45000D);
+        catalogSnapshotService.rebuild();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        modeloRepository.findAllById(List.of(barato.getId(), caro.getId())).forEach(modeloRepository::delete);
+        marcaRepository.delete(marca);
+        catalogSnapshotService.rebuild();
+    }
+
+    @Test
+    void getCatalogModelos() throws Exception {
+        restCatalogMockMvc
+            .perform(get(CATALOG_API_URL + "/modelos?marcaId.equals=" + marca.getId() + "&sort=precio,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.[*].id").value(contains(caro.getId().intValue(), barato.getId().intValue())))
+            .andExpect(jsonPath("$.[0].modelo").value("Catalogado caro"))
+            .andExpect(jsonPath("$.[0].marca.marca").value("Catalogada"));
+
+        restCatalogMockMvc
+            .perform(get(CATALOG_API_URL + "/modelos?marcaId.equals=" + marca.getId() + "&precio.lessThan=20000"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(contains(barato.getId().intValue())));
+    }
+
+    @Test
+    void getCatalogModelosSortedOnUnknownProperty() throws Exception {
+        restCatalogMockMvc.perform(get(CATALOG_API_URL + "/modelos?sort=numero_serie,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCatalogFacets() throws Exception {
+        restCatalogMockMvc
+            .perform(get(CATALOG_API_URL + "/facets?marcaId.equals=" + marca.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.marca.[0].label").value("Catalogada"))
+            .andExpect(jsonPath("$.marca.[0].count").value(2))
+            .andExpect(jsonPath("$.color.[*].value").value(contains("Azul", "Rojo")))
+            .andExpect(jsonPath("$.precio.[*].value").value(hasItem("10000-20000")))
+            .andExpect(jsonPath("$.precio.[*].value").value(hasItem("30000-50000")));
+    }
+
+    @Test
+    void suggestCatalogNames() throws Exception {
+        restCatalogMockMvc
+            .perform(get(CATALOG_API_URL + "/suggest?q=CATALOGAD&size=5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].label").value(contains("Catalogada", "Catalogado caro", "Catalogado barato")))
+            .andExpect(jsonPath("$.[0].type").value("MARCA"))
+            .andExpect(jsonPath("$.[0].id").value(marca.getId().intValue()))
+            .andExpect(jsonPath("$.[0].count").value(2));
+
+        restCatalogMockMvc
+            .perform(get(CATALOG_API_URL + "/suggest?q=catalogado bar"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].label").value(contains("Catalogado barato")));
+    }
+
+    @Test
+    void catalogFollowsCommittedChanges() throws Exception {
+        restCatalogMockMvc.perform(delete("/api/modelos/{id}", caro.getId())).andExpect(status().isNoContent());
+
+        ModeloCriteria criteria = new ModeloCriteria();
+        criteria.marcaId().setEquals(marca.getId());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (catalogSnapshotService.findAll(criteria, Pageable.unpaged()).getTotalElements() != 1) {
+            assertThat(System.currentTimeMillis()).as("catalog rebuilt after the delete").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private Modelo createModelo(String name, String color, Integer plazas, Double precio) {
+        return modeloRepository.saveAndFlush(new Modelo().modelo(name).color(color).plazas(plazas).precio(precio).marca(marca));
+    }
+}
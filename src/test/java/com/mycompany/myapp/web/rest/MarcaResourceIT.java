@@ -1,7 +1,9 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -11,14 +13,18 @@ import com.mycompany.myapp.repository.MarcaRepository;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -157,6 +163,41 @@ class MarcaResourceIT {
             .andExpect(jsonPath("$.marca").value(DEFAULT_MARCA));
     }
 
+    @Test
+    @Transactional
+    void getAllMarcasWithKeysetPagination() throws Exception {
+        // Initialize the database
+        Marca first = marcaRepository.saveAndFlush(createEntity(em));
+        Marca second = marcaRepository.saveAndFlush(createEntity(em));
+        Marca third = marcaRepository.saveAndFlush(createEntity(em));
+
+        // Get the first page, newest first
+        MvcResult result = restMarcaMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=2&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue(), second.getId().intValue())))
+            .andReturn();
+
+        // Follow the next link
+        Matcher next = Pattern.compile("after=([^&>]+)").matcher(result.getResponse().getHeader(HttpHeaders.LINK));
+        assertThat(next.find()).isTrue();
+        restMarcaMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&after=" + next.group(1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(second.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllMarcasWithInvalidCursor() throws Exception {
+        restMarcaMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+        restMarcaMockMvc.perform(get(ENTITY_API_URL + "?after=&sort=unknown,asc")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingMarca() throws Exception {
@@ -1,24 +1,43 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Marca;
 import com.mycompany.myapp.domain.Modelo;
+import com.mycompany.myapp.repository.MarcaRepository;
 import com.mycompany.myapp.repository.ModeloRepository;
+import com.mycompany.myapp.service.ModeloSearchService;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -37,15 +56,19 @@ class ModeloResourceIT {
 
     private static final Integer DEFAULT_POTENCIA = 1;
     private static final Integer UPDATED_POTENCIA = 2;
+    private static final Integer SMALLER_POTENCIA = 1 - 1;
 
     private static final Integer DEFAULT_PLAZAS = 1;
     private static final Integer UPDATED_PLAZAS = 2;
+    private static final Integer SMALLER_PLAZAS = 1 - 1;
 
     private static final Double DEFAULT_PRECIO = 1D;
     private static final Double UPDATED_PRECIO = 2D;
+    private static final Double SMALLER_PRECIO = 1D - 1D;
 
     private static final String ENTITY_API_URL = "/api/modelos";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_API_URL_SEARCH = ENTITY_API_URL + "/search";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -53,12 +76,24 @@ class ModeloResourceIT {
     @Autowired
     private ModeloRepository modeloRepository;
 
+    @Autowired
+    private MarcaRepository marcaRepository;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private ModeloSearchService modeloSearchService;
+
     @Autowired
     private MockMvc restModeloMockMvc;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Modelo modelo;
 
     /**
@@ -191,6 +226,640 @@ class ModeloResourceIT {
             .andExpect(jsonPath("$.precio").value(DEFAULT_PRECIO.doubleValue()));
     }
 
+    @Test
+    @Transactional
+    void getModelosByIdFiltering() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        Long id = modelo.getId();
+
+        defaultModeloShouldBeFound("id.equals=" + id);
+        defaultModeloShouldNotBeFound("id.notEquals=" + id);
+
+        defaultModeloShouldBeFound("id.greaterThanOrEqual=" + id);
+        defaultModeloShouldNotBeFound("id.greaterThan=" + id);
+
+        defaultModeloShouldBeFound("id.lessThanOrEqual=" + id);
+        defaultModeloShouldNotBeFound("id.lessThan=" + id);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByColorIsEqualToSomething() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        // Get all the modeloList where color equals to DEFAULT_COLOR
+        defaultModeloShouldBeFound("color.equals=" + DEFAULT_COLOR);
+
+        // Get all the modeloList where color equals to UPDATED_COLOR
+        defaultModeloShouldNotBeFound("color.equals=" + UPDATED_COLOR);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByColorIsInShouldWork() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        // Get all the modeloList where color in DEFAULT_COLOR or UPDATED_COLOR
+        defaultModeloShouldBeFound("color.in=" + DEFAULT_COLOR + "," + UPDATED_COLOR);
+
+        // Get all the modeloList where color equals to UPDATED_COLOR
+        defaultModeloShouldNotBeFound("color.in=" + UPDATED_COLOR);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByPotenciaIsGreaterThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        // Get all the modeloList where potencia is greater than or equal to DEFAULT_POTENCIA
+        defaultModeloShouldBeFound("potencia.greaterThanOrEqual=" + DEFAULT_POTENCIA);
+
+        // Get all the modeloList where potencia is greater than or equal to UPDATED_POTENCIA
+        defaultModeloShouldNotBeFound("potencia.greaterThanOrEqual=" + UPDATED_POTENCIA);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByPotenciaIsLessThanSomething() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        // Get all the modeloList where potencia is less than DEFAULT_POTENCIA
+        defaultModeloShouldNotBeFound("potencia.lessThan=" + DEFAULT_POTENCIA);
+
+        // Get all the modeloList where potencia is less than UPDATED_POTENCIA
+        defaultModeloShouldBeFound("potencia.lessThan=" + UPDATED_POTENCIA);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByPlazasIsEqualToSomething() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        // Get all the modeloList where plazas equals to DEFAULT_PLAZAS
+        defaultModeloShouldBeFound("plazas.equals=" + DEFAULT_PLAZAS);
+
+        // Get all the modeloList where plazas equals to UPDATED_PLAZAS
+        defaultModeloShouldNotBeFound("plazas.equals=" + UPDATED_PLAZAS);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByPlazasIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        // Get all the modeloList where plazas is greater than DEFAULT_PLAZAS
+        defaultModeloShouldNotBeFound("plazas.greaterThan=" + DEFAULT_PLAZAS);
+
+        // Get all the modeloList where plazas is greater than SMALLER_PLAZAS
+        defaultModeloShouldBeFound("plazas.greaterThan=" + SMALLER_PLAZAS);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByPrecioIsBetweenSomething() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        // Get all the modeloList where precio is in [SMALLER_PRECIO, UPDATED_PRECIO)
+        defaultModeloShouldBeFound("precio.greaterThanOrEqual=" + SMALLER_PRECIO + "&precio.lessThan=" + UPDATED_PRECIO);
+
+        // Get all the modeloList where precio is in [UPDATED_PRECIO, +inf)
+        defaultModeloShouldNotBeFound("precio.greaterThanOrEqual=" + UPDATED_PRECIO);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByPotenciaIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+
+        // Get all the modeloList where potencia is greater than SMALLER_POTENCIA
+        defaultModeloShouldBeFound("potencia.greaterThan=" + SMALLER_POTENCIA);
+
+        // Get all the modeloList where potencia is greater than DEFAULT_POTENCIA
+        defaultModeloShouldNotBeFound("potencia.greaterThan=" + DEFAULT_POTENCIA);
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosByMarcaIsEqualToSomething() throws Exception {
+        // Initialize the database
+        modeloRepository.saveAndFlush(modelo);
+        Marca marca = new Marca().marca("AAAAAAAAAA");
+        em.persist(marca);
+        em.flush();
+        modelo.setMarca(marca);
+        modeloRepository.saveAndFlush(modelo);
+        Long marcaId = marca.getId();
+
+        // Get all the modeloList where marca equals to marcaId
+        defaultModeloShouldBeFound("marcaId.equals=" + marcaId);
+
+        // Get all the modeloList where marca equals to (marcaId + 1)
+        defaultModeloShouldNotBeFound("marcaId.equals=" + (marcaId + 1));
+    }
+
+    @Test
+    @Transactional
+    void getModeloFacets() throws Exception {
+        // Initialize the database
+        Marca marca = new Marca().marca("Facetada");
+        em.persist(marca);
+        modeloRepository.saveAndFlush(createEntity(em).color("Rojo").plazas(5).precio(15000D).marca(marca));
+        modeloRepository.saveAndFlush(createEntity(em).color("Rojo").plazas(2).precio(18000D).marca(marca));
+        modeloRepository.saveAndFlush(createEntity(em).color("Azul").plazas(5).precio(120000D).marca(marca));
+        modeloRepository.saveAndFlush(createEntity(em).color("Azul").plazas(5).precio(null).marca(marca));
+        em.clear();
+
+        // Get the facets of the marca
+        restModeloMockMvc
+            .perform(get(ENTITY_API_URL + "/facets?marcaId.equals=" + marca.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.total").value(4))
+            .andExpect(jsonPath("$.marca[0].value").value(marca.getId().toString()))
+            .andExpect(jsonPath("$.marca[0].label").value("Facetada"))
+            .andExpect(jsonPath("$.marca[0].count").value(4))
+            .andExpect(jsonPath("$.color[*].value").value(contains("Azul", "Rojo")))
+            .andExpect(jsonPath("$.plazas[*].value").value(contains("5", "2")))
+            .andExpect(jsonPath("$.plazas[*].count").value(contains(3, 1)))
+            .andExpect(jsonPath("$.precio[*].value").value(contains("10000-20000", "100000-", null)))
+            .andExpect(jsonPath("$.precio[*].count").value(contains(2, 1, 1)));
+
+        // Get the facets of the marca and a color
+        restModeloMockMvc
+            .perform(get(ENTITY_API_URL + "/facets?marcaId.equals=" + marca.getId() + "&color.equals=Rojo"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.precio[*].value").value(contains("10000-20000")));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultModeloShouldBeFound(String filter) throws Exception {
+        restModeloMockMvc
+            .perform(get(ENTITY_API_URL_SEARCH + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(modelo.getId().intValue())))
+            .andExpect(jsonPath("$.[*].modelo").value(hasItem(DEFAULT_MODELO)))
+            .andExpect(jsonPath("$.[*].color").value(hasItem(DEFAULT_COLOR)))
+            .andExpect(jsonPath("$.[*].potencia").value(hasItem(DEFAULT_POTENCIA)))
+            .andExpect(jsonPath("$.[*].plazas").value(hasItem(DEFAULT_PLAZAS)))
+            .andExpect(jsonPath("$.[*].precio").value(hasItem(DEFAULT_PRECIO.doubleValue())));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultModeloShouldNotBeFound(String filter) throws Exception {
+        restModeloMockMvc
+            .perform(get(ENTITY_API_URL_SEARCH + "?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(modelo.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosWithKeysetPagination() throws Exception {
+        // Initialize the database
+        Modelo first = modeloRepository.saveAndFlush(createEntity(em));
+        Modelo second = modeloRepository.saveAndFlush(createEntity(em));
+        Modelo third = modeloRepository.saveAndFlush(createEntity(em));
+
+        // Get the first page, newest first
+        MvcResult result = restModeloMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=2&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue(), second.getId().intValue())))
+            .andReturn();
+
+        // Follow the next link
+        Matcher next = Pattern.compile("after=([^&>]+)").matcher(result.getResponse().getHeader(HttpHeaders.LINK));
+        assertThat(next.find()).isTrue();
+        restModeloMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&after=" + next.group(1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(second.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosWithKeysetPaginationOnSortKeyTies() throws Exception {
+        // Initialize the database with two modelos sharing the same precio and one without precio
+        Modelo first = modeloRepository.saveAndFlush(createEntity(em).precio(UPDATED_PRECIO));
+        Modelo second = modeloRepository.saveAndFlush(createEntity(em).precio(UPDATED_PRECIO));
+        Modelo third = modeloRepository.saveAndFlush(createEntity(em).precio(null));
+
+        // Walk the listing one row at a time, most expensive first
+        String after = "";
+        for (Modelo expected : List.of(second, first, third)) {
+            MvcResult result = restModeloMockMvc
+                .perform(get(ENTITY_API_URL + "?size=1&sort=precio,desc&after=" + after))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(expected.getId().intValue())))
+                .andReturn();
+            if (expected != third) {
+                Matcher next = Pattern.compile("after=([^&>]+)").matcher(result.getResponse().getHeader(HttpHeaders.LINK));
+                assertThat(next.find()).isTrue();
+                after = next.group(1);
+            }
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosWithInvalidCursor() throws Exception {
+        restModeloMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+        restModeloMockMvc.perform(get(ENTITY_API_URL + "?after=&sort=unknown,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllModelosFetchesMarcaInOneStatement() throws Exception {
+        // Initialize the database with modelos of distinct marcas, and start from an empty persistence context
+        for (int i = 0; i < 3; i++) {
+            Marca marca = new Marca().marca("MARCA" + i);
+            em.persist(marca);
+            modeloRepository.saveAndFlush(createEntity(em).marca(marca));
+        }
+        em.clear();
+
+        assertStatementCount(1, ENTITY_API_URL + "?sort=id,desc");
+        assertStatementCount(1, ENTITY_API_URL + "?after=&sort=id,desc");
+        assertStatementCount(1, ENTITY_API_URL_SEARCH + "?sort=id,desc&plazas.equals=" + DEFAULT_PLAZAS);
+    }
+
+    @Test
+    @Transactional
+    void getModeloFetchesMarcaInOneStatement() throws Exception {
+        // Initialize the database, and start from an empty persistence context
+        Marca marca = new Marca().marca("MARCA");
+        em.persist(marca);
+        modeloRepository.saveAndFlush(modelo.marca(marca));
+        em.clear();
+
+        assertStatementCount(1, ENTITY_API_URL_ID.replace("{id}", modelo.getId().toString()));
+    }
+
+    /**
+     * Executes the request, and checks the number of SQL statements it prepared, so that an N+1 cannot come back.
+     */
+    private void assertStatementCount(long expected, String url) throws Exception {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            restModeloMockMvc.perform(get(url)).andExpect(status().isOk()).andExpect(jsonPath("$..marca.marca").isNotEmpty());
+            assertThat(statistics.getPrepareStatementCount()).as("SQL statements for %s", url).isEqualTo(expected);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void exportModelosAsNdjson() throws Exception {
+        // Initialize the database outside of a test transaction, the export streams from another thread
+        Modelo saved = modeloRepository.saveAndFlush(createEntity(em));
+        try {
+            MvcResult result = restModeloMockMvc
+                .perform(get(ENTITY_API_URL + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restModeloMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("modelos.ndjson")))
+                .andExpect(content().string(containsString("{\"id\":" + saved.getId() + ",\"modelo\":\"" + DEFAULT_MODELO + "\"")));
+            assertThat(result.getResponse().getContentAsString()).endsWith("\n");
+        } finally {
+            modeloRepository.delete(saved);
+        }
+    }
+
+    @Test
+    void exportModelosAsCsv() throws Exception {
+        // Initialize the database outside of a test transaction, the export streams from another thread
+        Modelo saved = modeloRepository.saveAndFlush(createEntity(em).color("Rojo, metalizado"));
+        try {
+            MvcResult result = restModeloMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restModeloMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string(containsString("id,modelo,color,potencia,plazas,precio,numero_serie,marca_id,marca\n")))
+                .andExpect(
+                    content()
+                        .string(
+                            containsString(
+                                saved.getId() + "," + DEFAULT_MODELO + ",\"Rojo, metalizado\"," + DEFAULT_POTENCIA + "," + DEFAULT_PLAZAS + ","
+                            )
+                        )
+                );
+        } finally {
+            modeloRepository.delete(saved);
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportModelosWithUnknownFormat() throws Exception {
+        restModeloMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importModelosFromCsv() throws Exception {
+        // The import commits its own chunks, so it runs outside of a test transaction
+        String csv =
+            "modelo,color,potencia,plazas,precio,numero_serie,marca\n" +
+            "Importado uno,\"Rojo, metalizado\",90,5,15000.5,IMP-1,Importada\n" +
+            "Mal,Azul,90,5,1,IMP-2,Importada\n" +
+            "Importado dos,Azul,noventa,5,1,IMP-3,Importada\n" +
+            "Importado tres,Verde,100,2,20000,IMP-4,\n";
+        try {
+            restModeloMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejectedRows").value(contains(2, 3)))
+                .andExpect(jsonPath("$.marcasCreated").value(1))
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+
+            List<Modelo> imported = findImportedModelos();
+            assertThat(imported).extracting(Modelo::getModelo).containsExactly("Importado uno", "Importado tres");
+            assertThat(imported.get(0).getColor()).isEqualTo("Rojo, metalizado");
+            assertThat(imported.get(0).getPrecio()).isEqualTo(15000.5);
+            assertThat(imported.get(0).getNumero_serie()).isEqualTo("IMP-1");
+            assertThat(imported.get(0).getMarca().getMarca()).isEqualTo("Importada");
+            assertThat(imported.get(1).getMarca()).isNull();
+        } finally {
+            deleteImported();
+        }
+    }
+
+    @Test
+    void importModelosMatchesTheMarcasWhateverTheirCase() throws Exception {
+        String header = "modelo,color,potencia,plazas,precio,numero_serie,marca\n";
+        String feed = header + "Importado uno,Rojo,90,5,15000,CASE-1,Importada\n" + "Importado dos,Azul,90,5,15000,CASE-2,IMPORTADA\n";
+        String otherFeed = header + "Importado tres,Verde,90,5,15000,CASE-3,importada\n";
+        try {
+            restModeloMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("text/csv").content(feed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.marcasCreated").value(1));
+            restModeloMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("text/csv").content(otherFeed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.marcasCreated").value(0));
+
+            List<Modelo> imported = findImportedModelos();
+            assertThat(imported).hasSize(3);
+            assertThat(imported).extracting(importedModelo -> importedModelo.getMarca().getMarca()).containsOnly("Importada");
+        } finally {
+            deleteImported();
+        }
+    }
+
+    @Test
+    void importModelosRejectsOnlyTheRowsAtFault() throws Exception {
+        String header = "modelo,color,potencia,plazas,precio,numero_serie,marca\n";
+        String feed =
+            header +
+            "Importado uno,Rojo,90,5,15000,FAULT-1,Importada\n" +
+            "Importado repetido,Rojo,90,5,15000,FAULT-1,Importada\n" +
+            "Importado existente,Rojo,90,5,15000,FAULT-0,Importada\n" +
+            "Importado rechazado,Rojo,90,5,15000,FAULT-2,Importada\n" +
+            "Importado dos,Azul,90,5,15000,FAULT-3,Importada\n";
+        String existing = header + "Importado cero,Verde,90,5,15000,FAULT-0,\n";
+        // A row the database rejects, past the checks of the import
+        jdbcTemplate.execute("alter table modelo add constraint ck_import_rejected check (modelo <> 'Importado rechazado')");
+        try {
+            restModeloMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("text/csv").content(existing))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+            restModeloMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("text/csv").content(feed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.rejectedRows").value(contains(2, 3, 4)));
+
+            assertThat(findImportedModelos())
+                .extracting(Modelo::getModelo)
+                .containsExactlyInAnyOrder("Importado cero", "Importado uno", "Importado dos");
+        } finally {
+            jdbcTemplate.execute("alter table modelo drop constraint ck_import_rejected");
+            deleteImported();
+        }
+    }
+
+    @Test
+    void importModelosFromNdjsonInBatches() throws Exception {
+        Marca existing = marcaRepository.saveAndFlush(new Marca().marca("Importada"));
+        String ndjson = IntStream
+            .range(0, 250)
+            .mapToObj(i -> "{\"id\":1,\"modelo\":\"Importado " + i + "\",\"precio\":" + i + ",\"marca\":{\"marca\":\"Importada\"}}\n")
+            .collect(Collectors.joining("", "", "not json\n\n"));
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            restModeloMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(251))
+                .andExpect(jsonPath("$.imported").value(250))
+                .andExpect(jsonPath("$.rejectedRows").value(contains(251)))
+                .andExpect(jsonPath("$.marcasCreated").value(0));
+            // The inserts are batched: far fewer statements than rows
+            assertThat(statistics.getPrepareStatementCount()).isLessThan(25);
+
+            List<Modelo> imported = findImportedModelos();
+            assertThat(imported).hasSize(250);
+            assertThat(imported).allMatch(importedModelo -> existing.getId().equals(importedModelo.getMarca().getId()));
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            deleteImported();
+        }
+    }
+
+    @Test
+    void upsertModelosOnNumeroSerie() throws Exception {
+        String header = "modelo,color,potencia,plazas,precio,numero_serie,marca\n";
+        String feed =
+            header +
+            "Importado uno,Rojo,90,5,15000,UPS-1,Importada\n" +
+            "Importado dos,Azul,100,5,16000,UPS-2,Importada\n" +
+            "Importado sin serie,Azul,100,5,16000,,Importada\n";
+        try {
+            restModeloMockMvc
+                .perform(put(ENTITY_API_URL + "/bulk").contentType("text/csv").content(feed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejectedRows").value(contains(3)))
+                .andExpect(jsonPath("$.marcasCreated").value(1));
+            Long id = modeloRepository.findByNumeroSerie("UPS-1").get().getId();
+            Long unchangedId = modeloRepository.findByNumeroSerie("UPS-2").get().getId();
+            long count = modeloRepository.count();
+
+            // Re-send the feed with a new price for the first modelo
+            restModeloMockMvc
+                .perform(put(ENTITY_API_URL + "/bulk").contentType("text/csv").content(feed.replace("15000", "14500")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.marcasCreated").value(0));
+
+            assertThat(findImportedModelos()).hasSize(2);
+            Modelo updated = modeloRepository.findByNumeroSerie("UPS-1").get();
+            assertThat(updated.getId()).isEqualTo(id);
+            assertThat(updated.getPrecio()).isEqualTo(14500D);
+            assertThat(updated.getMarca().getMarca()).isEqualTo("Importada");
+            Modelo unchanged = modeloRepository.findByNumeroSerie("UPS-2").get();
+            assertThat(unchanged.getId()).isEqualTo(unchangedId);
+            assertThat(unchanged.getPrecio()).isEqualTo(16000D);
+            assertThat(modeloRepository.count()).isEqualTo(count);
+        } finally {
+            deleteImported();
+        }
+    }
+
+    @Test
+    void fullTextSearchModelos() throws Exception {
+        Marca seat = marcaRepository.saveAndFlush(new Marca().marca("Seat"));
+        try {
+            Long alhambra = modeloRepository
+                .saveAndFlush(new Modelo().modelo("Importado Alhambra").color("Rojo").potencia(150).plazas(7).marca(seat))
+                .getId();
+            Long leon = modeloRepository
+                .saveAndFlush(new Modelo().modelo("Importado León").color("Azul").potencia(110).plazas(5).marca(seat))
+                .getId();
+
+            assertSearchEventually("seat 7 plazas diesel rojo", alhambra);
+            assertSearchEventually("alambra", alhambra);
+            assertSearchEventually("LEON", leon);
+            assertSearchEventually("seat", alhambra, leon);
+
+            // Renaming the marca reindexes its modelos
+            marcaRepository.saveAndFlush(seat.marca("Cupra"));
+            assertSearchEventually("cupra", alhambra, leon);
+
+            modeloRepository.deleteById(leon);
+            assertSearchEventually("leon");
+
+            // Upserted modelos bypass Hibernate but are indexed too
+            String feed = "modelo,color,numero_serie,marca\nImportado Ateca,Gris,SRCH-1,Importada\n";
+            restModeloMockMvc.perform(put(ENTITY_API_URL + "/bulk").contentType("text/csv").content(feed)).andExpect(status().isOk());
+            restModeloMockMvc
+                .perform(put(ENTITY_API_URL + "/bulk").contentType("text/csv").content(feed.replace("Gris", "Verde")))
+                .andExpect(status().isOk());
+            assertSearchEventually("ateca verde", modeloRepository.findByNumeroSerie("SRCH-1").get().getId());
+        } finally {
+            deleteImported();
+            marcaRepository.delete(seat);
+        }
+    }
+
+    @Test
+    void searchCatchesUpWithTheChangesOfOtherNodes() throws Exception {
+        Long ibiza = modeloRepository.saveAndFlush(new Modelo().modelo("Importado Ibiza").color("Rojo")).getId();
+        try {
+            assertSearchEventually("ibiza rojo", ibiza);
+
+            // Written without the Hibernate events, as if by another node
+            EntityManager otherNode = emf.createEntityManager();
+            try {
+                otherNode.getTransaction().begin();
+                otherNode
+                    .createQuery("update Modelo m set m.color = 'Amarillo' where m.id = :id")
+                    .setParameter("id", ibiza)
+                    .executeUpdate();
+                otherNode.getTransaction().commit();
+            } finally {
+                otherNode.close();
+            }
+            assertSearchEventually("ibiza amarillo");
+
+            modeloSearchService.requestReindexAll();
+            assertSearchEventually("ibiza amarillo", ibiza);
+        } finally {
+            deleteImported();
+        }
+    }
+
+    @Test
+    void fullTextSearchModelosBeyondTheResultWindow() throws Exception {
+        restModeloMockMvc
+            .perform(get("/api/_search/modelos").param("query", "seat").param("page", "499").param("size", "20"))
+            .andExpect(status().isOk());
+        restModeloMockMvc
+            .perform(get("/api/_search/modelos").param("query", "seat").param("page", "500").param("size", "20"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private void assertSearchEventually(String query, Long... ids) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        Set<Long> found = searchIds(query);
+        while (!found.equals(Set.of(ids)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            found = searchIds(query);
+        }
+        assertThat(found).as("search for %s", query).containsExactlyInAnyOrder(ids);
+    }
+
+    private Set<Long> searchIds(String query) throws Exception {
+        MvcResult result = restModeloMockMvc
+            .perform(get("/api/_search/modelos").param("query", query))
+            .andExpect(status().isOk())
+            .andReturn();
+        List<Number> ids = JsonPath.read(result.getResponse().getContentAsString(), "$[*].id");
+        return ids.stream().map(Number::longValue).collect(Collectors.toSet());
+    }
+
+    @Test
+    @Transactional
+    void importModelosWithoutModeloColumn() throws Exception {
+        restModeloMockMvc
+            .perform(post(ENTITY_API_URL + "/bulk").contentType("text/csv").content("color,precio\nAzul,1\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private List<Modelo> findImportedModelos() {
+        return modeloRepository
+            .findAllWithMarcaBy(Pageable.unpaged())
+            .stream()
+            .filter(importedModelo -> importedModelo.getModelo().startsWith("Importado"))
+            .collect(Collectors.toList());
+    }
+
+    private void deleteImported() {
+        modeloRepository.deleteAll(findImportedModelos());
+        marcaRepository.deleteAll(marcaRepository.findAllByLowerCaseMarcaIn(List.of("importada")));
+    }
+
     @Test
     @Transactional
     void getNonExistingModelo() throws Exception {
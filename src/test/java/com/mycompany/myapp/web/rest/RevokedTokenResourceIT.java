@@ -0,0 +1,100 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.jwt.TokenProvider;
+import com.mycompany.myapp.service.TokenRevocationService;
+import com.mycompany.myapp.web.rest.vm.RevokeTokenVM;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link RevokedTokenResource} REST controller.
+ */
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@IntegrationTest
+class RevokedTokenResourceIT {
+
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @Transactional
+    void revokeToken() throws Exception {
+        String token = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("user", "", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+            false
+        );
+        assertThat(tokenProvider.authenticate(token)).isPresent();
+
+        RevokeTokenVM revokeTokenVM = new RevokeTokenVM();
+        revokeTokenVM.setToken(token);
+        mockMvc
+            .perform(
+                post("/api/admin/revoked-tokens")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(revokeTokenVM))
+            )
+            .andExpect(status().isNoContent());
+
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+        RevokedToken revokedToken = revokedTokenRepository.findById(tokenProvider.parseClaims(token).getId()).orElseThrow();
+        assertThat(revokedToken.getLogin()).isEqualTo("user");
+
+        // Still revoked once reloaded from the database
+        tokenRevocationService.refresh();
+        assertThat(tokenProvider.authenticate(token)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void revokeInvalidToken() throws Exception {
+        RevokeTokenVM revokeTokenVM = new RevokeTokenVM();
+        revokeTokenVM.setToken("invalid");
+        mockMvc
+            .perform(
+                post("/api/admin/revoked-tokens")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(revokeTokenVM))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void revokeTokenIsForbiddenToUsers() throws Exception {
+        RevokeTokenVM revokeTokenVM = new RevokeTokenVM();
+        revokeTokenVM.setToken("invalid");
+        mockMvc
+            .perform(
+                post("/api/admin/revoked-tokens")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(revokeTokenVM))
+            )
+            .andExpect(status().isForbidden());
+    }
+}
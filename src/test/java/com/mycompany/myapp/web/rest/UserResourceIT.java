@@ -26,6 +26,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -76,6 +77,9 @@ class UserResourceIT {
     @Autowired
     private MockMvc restUserMockMvc;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private User user;
 
     @BeforeEach
@@ -154,6 +158,70 @@ class UserResourceIT {
         });
     }
 
+    @Test
+    @Transactional
+    void createUsersInBulk() throws Exception {
+        userRepository.saveAndFlush(user);
+        String users = String.join(
+            "\n",
+            "{\"login\":\"bulk-1\",\"email\":\"bulk-1@localhost\",\"authorities\":[\"ROLE_USER\",\"ROLE_UNKNOWN\"]}",
+            "{\"login\":\"" + DEFAULT_LOGIN + "\",\"email\":\"bulk-existing@localhost\"}",
+            "{\"login\":\"bulk-2\",\"email\":\"not an email\"}",
+            "",
+            "{\"login\":\"bulk-3\",\"email\":\"BULK-1@localhost\"}",
+            "not json"
+        );
+
+        restUserMockMvc
+            .perform(post("/api/admin/users/bulk").contentType("application/x-ndjson").content(users))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows").value(5))
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.rejected").value(4))
+            .andExpect(jsonPath("$.rejectedRows[*].row").value(hasItems(2, 3, 4, 5)))
+            .andExpect(jsonPath("$.rejectedRows[?(@.row == 2)].reason").value(hasItem("login-already-used")))
+            .andExpect(jsonPath("$.rejectedRows[?(@.row == 3)].reason").value(hasItem("invalid")))
+            .andExpect(jsonPath("$.rejectedRows[?(@.row == 4)].reason").value(hasItem("email-already-used")))
+            .andExpect(jsonPath("$.rejectedRows[?(@.row == 5)].reason").value(hasItem("invalid")));
+
+        User created = userRepository.findOneWithAuthoritiesByLogin("bulk-1").orElseThrow();
+        assertThat(created.getEmail()).isEqualTo("bulk-1@localhost");
+        assertThat(created.isActivated()).isTrue();
+        assertThat(created.getPassword()).isNotEmpty();
+        assertThat(created.getResetKey()).isNotEmpty();
+        assertThat(created.getCreatedBy()).isEqualTo("user");
+        assertThat(created.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+        assertThat(userRepository.findOneByLogin("bulk-3")).isEmpty();
+    }
+
+    @Test
+    void createUsersInBulkRejectsOnlyTheRowsTheDatabaseRejects() throws Exception {
+        // The import commits its own chunks, so it runs outside of a test transaction
+        jdbcTemplate.execute("alter table jhi_user add constraint ck_bulk_rejected check (login <> 'bulk-row-rejected')");
+        String users = String.join(
+            "\n",
+            "{\"login\":\"bulk-row-1\",\"email\":\"bulk-row-1@localhost\"}",
+            "{\"login\":\"bulk-row-rejected\",\"email\":\"bulk-row-rejected@localhost\"}",
+            "{\"login\":\"bulk-row-2\",\"email\":\"bulk-row-2@localhost\"}"
+        );
+        try {
+            restUserMockMvc
+                .perform(post("/api/admin/users/bulk").contentType("application/x-ndjson").content(users))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejectedRows[0].row").value(2))
+                .andExpect(jsonPath("$.rejectedRows[0].reason").value("failed"));
+
+            assertThat(userRepository.findOneByLogin("bulk-row-1")).isPresent();
+            assertThat(userRepository.findOneByLogin("bulk-row-2")).isPresent();
+        } finally {
+            jdbcTemplate.execute("alter table jhi_user drop constraint ck_bulk_rejected");
+            jdbcTemplate.update("delete from mail_message where recipient like 'bulk-row-%'");
+            jdbcTemplate.update("delete from jhi_user where login like 'bulk-row-%'");
+        }
+    }
+
     @Test
     @Transactional
     void createUserWithExistingId() throws Exception {